@@ -26,7 +26,8 @@ dependencies {
 	implementation ("org.springframework.boot:spring-boot-starter-actuator")
 
 	implementation("org.springframework.boot:spring-boot-starter-data-jpa")
-    runtimeOnly("org.postgresql:postgresql")
+    // implementation (no runtimeOnly): el generador de datos usa el API COPY del driver
+    implementation("org.postgresql:postgresql")
 
 	implementation("org.springframework.boot:spring-boot-starter-validation")
 
@@ -43,9 +44,18 @@ dependencies {
 	// NECESARIO: ErrorResponse usa LocalDateTime que requiere este módulo
 	implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
 	
+	// Caffeine - Cachés en memoria acotadas (tamaño + expiración)
+	implementation("com.github.ben-manes.caffeine:caffeine")
+
+	// RoaringBitmap - Bitmaps comprimidos (pertenencia de productos a categorías)
+	implementation("org.roaringbitmap:RoaringBitmap:1.3.0")
+
 	// Tests de seguridad
 	testImplementation("org.springframework.security:spring-security-test")
 
+	// Base de datos en memoria para tests de conteo de consultas
+	testRuntimeOnly("com.h2database:h2")
+
 
 }
 
@@ -53,6 +63,36 @@ tasks.withType<Test> {
 	useJUnitPlatform()
 }
 
+// Los benchmarks (@Tag("benchmark")) no corren con "test"
+tasks.named<Test>("test") {
+	useJUnitPlatform {
+		excludeTags("benchmark")
+	}
+}
+
+tasks.register<Test>("benchmark") {
+	description = "Ejecuta los benchmarks marcados con @Tag(\"benchmark\")"
+	group = "verification"
+	testClassesDirs = sourceSets["test"].output.classesDirs
+	classpath = sourceSets["test"].runtimeClasspath
+	useJUnitPlatform {
+		includeTags("benchmark")
+	}
+	testLogging.showStandardStreams = true
+}
+
+// Generador de datos sintéticos vía COPY (perfil "datagen", sin servidor web)
+// ./gradlew generateData --args="--datagen.products=5000000"
+tasks.register<org.springframework.boot.gradle.tasks.run.BootRun>("generateData") {
+	description = "Carga usuarios, categorías y productos sintéticos en PostgreSQL con COPY"
+	group = "application"
+	mainClass.set("ec.edu.ups.icc.fundamentos01.Fundamentos01Application")
+	classpath = sourceSets["main"].runtimeClasspath
+	systemProperty("spring.profiles.active", "datagen")
+	systemProperty("spring.main.web-application-type", "none")
+	systemProperty("spring.jpa.show-sql", "false")
+}
+
 tasks.withType<JavaCompile> {
 	options.compilerArgs.add("-parameters")
 }
@@ -3,7 +3,7 @@ package ec.edu.ups.icc.fundamentos01.categories.entity;
 import java.util.HashSet;
 import java.util.Set;
 
-import ec.edu.ups.icc.fundamentos01.core.entities.BaseModel;
+import ec.edu.ups.icc.fundamentos01.core.entities.VersionedModel;
 import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,7 +13,7 @@ import jakarta.persistence.Table;
 
 @Entity
 @Table(name = "categories")
-public class CategoryEntity extends BaseModel {
+public class CategoryEntity extends VersionedModel {
 
     @Column(nullable = false, unique = true, length = 120)
     private String name;
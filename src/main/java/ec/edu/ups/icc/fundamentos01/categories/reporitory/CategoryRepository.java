@@ -21,5 +21,4 @@ public interface CategoryRepository extends JpaRepository<CategoryEntity, Long>
          * Busca categoría por nombre (case insensitive)
          */
         Optional<CategoryEntity> findByNameIgnoreCase(String name);
-
 }
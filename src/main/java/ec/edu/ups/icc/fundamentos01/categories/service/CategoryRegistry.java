@@ -0,0 +1,240 @@
+package ec.edu.ups.icc.fundamentos01.categories.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+
+/**
+ * CategoryRegistry: Todas las categorías en memoria, indexadas por id
+ *
+ * PROBLEMA:
+ * - Validar las categorías de un producto era un findById por id
+ * - Armar cada ProductResponseDto leía nombre/descripción de la entidad
+ *
+ * SOLUCIÓN:
+ * - categories es una tabla pequeña que casi no cambia: se carga completa
+ *   en un snapshot inmutable y se reemplaza entero (lecturas sin locks)
+ * - Índice: arreglo por (id - minId) cuando los ids son densos; si hay
+ *   demasiados huecos, HashMap
+ *
+ * FRESCURA:
+ * - Carga completa al arrancar (ApplicationReadyEvent)
+ * - save() en este nodo → put() inmediato
+ * - Cada category-registry.refresh-interval → recarga completa (otros nodos)
+ * - Un id desconocido en findMissing() fuerza UNA recarga antes de rechazarlo,
+ *   como máximo una vez cada category-registry.miss-reload-interval: ids
+ *   inexistentes repetidos (o maliciosos) no convierten cada request en un
+ *   SELECT de toda la tabla. Dentro de la ventana el fallo se responde con
+ *   el snapshot actual.
+ */
+@Component
+public class CategoryRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryRegistry.class);
+
+    // Más huecos que esto por categoría → índice HashMap en lugar de arreglo
+    private static final int MAX_SLOTS_PER_CATEGORY = 8;
+
+    private final CategoryRepository categoryRepository;
+    private final long missReloadIntervalNanos;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * System.nanoTime() de la última carga completa (por cualquier motivo)
+     */
+    private final AtomicLong lastLoad;
+
+    public CategoryRegistry(CategoryRepository categoryRepository,
+            @Value("${category-registry.miss-reload-interval:5000}") long missReloadInterval) {
+        this.categoryRepository = categoryRepository;
+        this.missReloadIntervalNanos = TimeUnit.MILLISECONDS.toNanos(missReloadInterval);
+        this.lastLoad = new AtomicLong(System.nanoTime() - missReloadIntervalNanos);
+    }
+
+    // ============== LECTURAS ==============
+
+    /**
+     * Categoría por id, o null si no existe
+     */
+    public CachedCategory get(Long id) {
+        return id == null ? null : snapshot().get(id);
+    }
+
+    public boolean contains(Long id) {
+        return get(id) != null;
+    }
+
+    /**
+     * Todas las categorías ordenadas por id
+     */
+    public List<CachedCategory> findAll() {
+        return snapshot().ordered;
+    }
+
+    /**
+     * Ids del conjunto que NO existen (vacío si todos existen)
+     *
+     * Una pasada sobre el snapshot; si falta alguno se recarga una vez
+     * por si la categoría se creó en otro nodo.
+     *
+     * Single-flight: solo el hilo que gana el compareAndSet sobre lastLoad
+     * recarga; los demás (y los fallos dentro de la ventana) responden con
+     * el snapshot actual sin esperar.
+     */
+    public Set<Long> findMissing(Collection<Long> ids) {
+        Set<Long> missing = missingIn(snapshot(), ids);
+        if (missing.isEmpty()) {
+            return missing;
+        }
+
+        long now = System.nanoTime();
+        long last = lastLoad.get();
+        if (now - last >= missReloadIntervalNanos && lastLoad.compareAndSet(last, now)) {
+            missing = missingIn(load(), missing);
+        }
+        return missing;
+    }
+
+    // ============== ACTUALIZACIÓN ==============
+
+    /**
+     * Agrega o reemplaza una categoría recién guardada
+     */
+    public synchronized void put(CategoryEntity category) {
+        List<CachedCategory> categories = new ArrayList<>(snapshot().ordered);
+        categories.removeIf(existing -> existing.id().equals(category.getId()));
+        categories.add(CachedCategory.of(category));
+        categories.sort((a, b) -> Long.compare(a.id(), b.id()));
+        snapshot = Snapshot.of(categories);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${category-registry.refresh-interval:60000}",
+            initialDelayString = "${category-registry.refresh-interval:60000}")
+    public void reload() {
+        load();
+    }
+
+    private synchronized Snapshot load() {
+        List<CachedCategory> categories = new ArrayList<>();
+        for (CategoryEntity category : categoryRepository.findAll()) {
+            categories.add(CachedCategory.of(category));
+        }
+        categories.sort((a, b) -> Long.compare(a.id(), b.id()));
+
+        Snapshot loaded = Snapshot.of(categories);
+        snapshot = loaded;
+        lastLoad.set(System.nanoTime());
+        logger.debug("Registro de categorías recargado: {} categorías", categories.size());
+        return loaded;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        return current != null ? current : load();
+    }
+
+    private static Set<Long> missingIn(Snapshot snapshot, Collection<Long> ids) {
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null || snapshot.get(id) == null) {
+                missing.add(id);
+            }
+        }
+        return missing;
+    }
+
+    // ============== ESTRUCTURAS ==============
+
+    /**
+     * Copia inmutable de una categoría (sin la colección de productos)
+     *
+     * version: la de la fila cuando se copió; entra en el ETag de los
+     * productos que muestran esta copia.
+     */
+    public record CachedCategory(Long id, String name, String description, long version) {
+
+        static CachedCategory of(CategoryEntity entity) {
+            return new CachedCategory(entity.getId(), entity.getName(), entity.getDescription(),
+                    entity.getVersion());
+        }
+
+        /**
+         * DTO nuevo en cada llamada: CategoryResponseDto es mutable
+         */
+        public CategoryResponseDto toResponseDto() {
+            CategoryResponseDto dto = new CategoryResponseDto();
+            dto.id = id;
+            dto.name = name;
+            dto.description = description;
+            return dto;
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final List<CachedCategory> ordered;
+        private final long minId;
+        private final CachedCategory[] slots;
+        private final Map<Long, CachedCategory> sparse;
+
+        private Snapshot(List<CachedCategory> ordered, long minId,
+                CachedCategory[] slots, Map<Long, CachedCategory> sparse) {
+            this.ordered = ordered;
+            this.minId = minId;
+            this.slots = slots;
+            this.sparse = sparse;
+        }
+
+        static Snapshot of(List<CachedCategory> ordered) {
+            List<CachedCategory> categories = List.copyOf(ordered);
+            if (categories.isEmpty()) {
+                return new Snapshot(categories, 0, new CachedCategory[0], null);
+            }
+
+            long minId = categories.get(0).id();
+            long span = categories.get(categories.size() - 1).id() - minId + 1;
+
+            if (span <= (long) categories.size() * MAX_SLOTS_PER_CATEGORY) {
+                CachedCategory[] slots = new CachedCategory[(int) span];
+                for (CachedCategory category : categories) {
+                    slots[(int) (category.id() - minId)] = category;
+                }
+                return new Snapshot(categories, minId, slots, null);
+            }
+
+            Map<Long, CachedCategory> sparse = new HashMap<>();
+            for (CachedCategory category : categories) {
+                sparse.put(category.id(), category);
+            }
+            return new Snapshot(categories, minId, null, sparse);
+        }
+
+        CachedCategory get(long id) {
+            if (sparse != null) {
+                return sparse.get(id);
+            }
+            long index = id - minId;
+            return index >= 0 && index < slots.length ? slots[(int) index] : null;
+        }
+    }
+}
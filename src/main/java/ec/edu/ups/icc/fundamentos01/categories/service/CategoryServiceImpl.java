@@ -14,14 +14,17 @@ import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
 public class CategoryServiceImpl implements CategoryService {
 
     private CategoryRepository categoryRepository;
+    private CategoryRegistry categoryRegistry;
 
-    public CategoryServiceImpl(CategoryRepository categoryRepository) {
+    public CategoryServiceImpl(CategoryRepository categoryRepository, CategoryRegistry categoryRegistry) {
         this.categoryRepository = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
     }
 
+    // Desde memoria (CategoryRegistry), sin consultar la BD
     @Override
     public List<CategoryResponseDto> findAll() {
-        return categoryRepository.findAll().stream().map(CategoryMapper::toResponseDto).toList();
+        return categoryRegistry.findAll().stream().map(CategoryRegistry.CachedCategory::toResponseDto).toList();
     }
 
     @Override
@@ -31,6 +34,7 @@ public class CategoryServiceImpl implements CategoryService {
         categoryEntity.setDescription(createDto.description);
         
         CategoryEntity savedEntity = categoryRepository.save(categoryEntity);
+        categoryRegistry.put(savedEntity);
         
         return CategoryMapper.toResponseDto(savedEntity);
     }
@@ -1,6 +1,7 @@
 package ec.edu.ups.icc.fundamentos01.core.entities;
 
 import java.time.LocalDateTime;
+
 import jakarta.persistence.*;
 
 @MappedSuperclass
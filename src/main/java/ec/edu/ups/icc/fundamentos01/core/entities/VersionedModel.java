@@ -0,0 +1,32 @@
+package ec.edu.ups.icc.fundamentos01.core.entities;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.*;
+
+/**
+ * BaseModel + versión para control de concurrencia optimista y ETags
+ *
+ * Solo las entidades expuestas con ETag (o embebidas en uno) la heredan:
+ * productos, usuarios y categorías. Tokens y roles no se editan por la API
+ * y no pagan la columna ni el "AND version = ?" en cada UPDATE.
+ */
+@MappedSuperclass
+public abstract class VersionedModel extends BaseModel {
+
+    // Hibernate la incrementa en cada UPDATE
+    // (los UPDATE JPQL masivos deben incrementarla explícitamente).
+    // DEFAULT 0 para que ddl-auto pueda agregar la columna a tablas con filas.
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long version;
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
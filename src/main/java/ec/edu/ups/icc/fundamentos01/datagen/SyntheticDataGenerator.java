@@ -0,0 +1,364 @@
+package ec.edu.ups.icc.fundamentos01.datagen;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+import ec.edu.ups.icc.fundamentos01.security.repository.RoleRepository;
+
+/**
+ * SyntheticDataGenerator: Carga catálogos de millones de filas con COPY
+ *
+ * Solo existe con el perfil "datagen". Uso:
+ * ./gradlew generateData --args="--datagen.products=5000000 --datagen.owner-skew=1.2"
+ *
+ * FLUJO:
+ * 1. Espera ApplicationReadyEvent (tablas creadas, roles inicializados)
+ * 2. Reserva rangos de ids en las secuencias de users, categories y products
+ *    (LOCK TABLE + un solo setval: el rango es contiguo aunque haya
+ *    inserciones concurrentes)
+ * 3. Envía users, user_roles, categories, products y product_categories
+ *    por el API COPY del driver (texto en bloques, sin un INSERT por fila)
+ * 4. ANALYZE de las tablas y cierra la aplicación
+ *
+ * REPRODUCIBLE: nombres, emails, precios, fechas (desde datagen.epoch) y
+ * relaciones dependen solo de la posición en la corrida y de "seed", nunca
+ * del id asignado ni de la hora actual. Los ids se desplazan según las
+ * secuencias de la BD, pero las relaciones se expresan relativas al primero.
+ *
+ * Los datos se AGREGAN a los existentes; nombres y emails llevan el seed
+ * para no chocar con corridas previas de OTRO seed (repetir el mismo seed
+ * sobre la misma BD choca con los emails únicos: son los mismos datos).
+ */
+@Component
+@Profile("datagen")
+public class SyntheticDataGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    // Bytes acumulados antes de enviar un bloque al COPY
+    private static final int COPY_BUFFER_SIZE = 1 << 16;
+
+    private static final String[] PREFIXES = {
+            "Laptop", "Mouse", "Teclado", "Monitor", "Auriculares", "Smartphone", "Tablet",
+            "Cámara", "Impresora", "Disco Duro", "Parlante", "Router", "Reloj", "Consola"
+    };
+    private static final String[] ADJECTIVES = {
+            "Pro", "Ultra", "Max", "Lite", "Plus", "Gamer", "Compacto", "Inalámbrico", "Premium"
+    };
+
+    private final SyntheticDataProperties properties;
+    private final DataSource dataSource;
+    private final RoleRepository roleRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final ApplicationContext context;
+
+    public SyntheticDataGenerator(SyntheticDataProperties properties,
+            DataSource dataSource,
+            RoleRepository roleRepository,
+            PasswordEncoder passwordEncoder,
+            ApplicationContext context) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.roleRepository = roleRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.context = context;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generate() {
+        int exitCode = 0;
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            run(connection);
+        } catch (Exception ex) {
+            logger.error("Falló la generación de datos sintéticos", ex);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+
+    private void run(Connection connection) throws SQLException {
+        validate();
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        long roleUserId = roleRepository.findByName(RoleName.ROLE_USER)
+                .orElseThrow(() -> new IllegalStateException("ROLE_USER no existe"))
+                .getId();
+
+        long firstUser = reserveIds(connection, "users", properties.getUsers());
+        long firstCategory = reserveIds(connection, "categories", properties.getCategories());
+        long firstProduct = reserveIds(connection, "products", properties.getProducts());
+        String tag = "s" + properties.getSeed();
+
+        logger.info("Generando {} usuarios, {} categorías, {} productos (seed={})",
+                properties.getUsers(), properties.getCategories(), properties.getProducts(), properties.getSeed());
+
+        copyUsers(pg, firstUser, roleUserId, tag);
+        copyCategories(pg, firstCategory, tag);
+        copyProducts(pg, firstUser, firstCategory, firstProduct, tag);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ANALYZE users, user_roles, categories, products, product_categories");
+        }
+        logger.info("Datos sintéticos generados");
+    }
+
+    // ============== TABLAS ==============
+
+    private void copyUsers(PGConnection pg, long firstId, long roleUserId, String tag) throws SQLException {
+        // Un solo hash para todos: BCrypt por fila dominaría el tiempo total
+        String passwordHash = passwordEncoder.encode(properties.getUserPassword());
+        LocalDateTime createdAt = properties.getEpoch();
+
+        long start = System.nanoTime();
+        try (CopyStream users = new CopyStream(pg,
+                "COPY users (id, name, email, password, security_version, created_at, version, deleted) FROM STDIN")) {
+            for (int i = 0; i < properties.getUsers(); i++) {
+                long id = firstId + i;
+                int n = i + 1;
+                users.field(id).field("Usuario " + n).field("user" + n + "-" + tag + "@datagen.local")
+                        .field(passwordHash).field(0).field(createdAt).field(0).last(false);
+            }
+            users.finish();
+        }
+        try (CopyStream roles = new CopyStream(pg, "COPY user_roles (user_id, role_id) FROM STDIN")) {
+            for (int i = 0; i < properties.getUsers(); i++) {
+                roles.field(firstId + i).last(roleUserId);
+            }
+            roles.finish();
+        }
+        logDone("users", properties.getUsers(), start);
+    }
+
+    private void copyCategories(PGConnection pg, long firstId, String tag) throws SQLException {
+        LocalDateTime createdAt = properties.getEpoch();
+
+        long start = System.nanoTime();
+        try (CopyStream categories = new CopyStream(pg,
+                "COPY categories (id, name, description, created_at, version, deleted) FROM STDIN")) {
+            for (int i = 0; i < properties.getCategories(); i++) {
+                long id = firstId + i;
+                int n = i + 1;
+                categories.field(id).field("Categoría " + n + " " + tag)
+                        .field("Categoría sintética " + n).field(createdAt).field(0).last(false);
+            }
+            categories.finish();
+        }
+        logDone("categories", properties.getCategories(), start);
+    }
+
+    /**
+     * products y luego product_categories, cada uno con su propio generador
+     * derivado de "seed": los datos no dependen del orden de las pasadas.
+     */
+    private void copyProducts(PGConnection pg, long firstUser, long firstCategory, long firstId, String tag)
+            throws SQLException {
+
+        ZipfSampler owners = new ZipfSampler(properties.getUsers(), properties.getOwnerSkew());
+        ZipfSampler categories = new ZipfSampler(properties.getCategories(), properties.getCategorySkew());
+        LocalDateTime epoch = properties.getEpoch();
+        long twoYearsSeconds = 2L * 365 * 24 * 3600;
+
+        long start = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(properties.getSeed());
+        try (CopyStream products = new CopyStream(pg,
+                "COPY products (id, name, price, description, user_id, created_at, version, deleted) FROM STDIN")) {
+            for (long i = 0; i < properties.getProducts(); i++) {
+                long id = firstId + i;
+                long n = i + 1;
+                String name = PREFIXES[random.nextInt(PREFIXES.length)] + " "
+                        + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + n + " " + tag;
+                double price = Math.round(properties.getPriceMedian()
+                        * Math.exp(properties.getPriceSpread() * gaussian(random)) * 100) / 100.0;
+
+                products.field(id).field(name).field(Math.max(price, 0.01))
+                        .field("Producto sintético " + n)
+                        .field(firstUser + owners.sample(random))
+                        .field(epoch.minusSeconds(random.nextLong(twoYearsSeconds)))
+                        .field(0)
+                        .last(false);
+
+                if ((i + 1) % 1_000_000 == 0) {
+                    logger.info("products: {} filas", i + 1);
+                }
+            }
+            products.finish();
+        }
+        logDone("products", properties.getProducts(), start);
+
+        // Mismo seed → mismas categorías para cada producto en cada ejecución
+        start = System.nanoTime();
+        long links = 0;
+        random = new SplittableRandom(properties.getSeed() ^ 0x5DEECE66DL);
+        int fanOutRange = properties.getMaxCategoriesPerProduct() - properties.getMinCategoriesPerProduct() + 1;
+        long[] chosen = new long[properties.getMaxCategoriesPerProduct()];
+
+        try (CopyStream productCategories = new CopyStream(pg,
+                "COPY product_categories (product_id, category_id) FROM STDIN")) {
+            for (long i = 0; i < properties.getProducts(); i++) {
+                int count = properties.getMinCategoriesPerProduct() + random.nextInt(fanOutRange);
+                int filled = 0;
+                while (filled < count) {
+                    long categoryId = firstCategory + categories.sample(random);
+                    if (!contains(chosen, filled, categoryId)) {
+                        chosen[filled++] = categoryId;
+                        productCategories.field(firstId + i).last(categoryId);
+                    }
+                }
+                links += count;
+            }
+            productCategories.finish();
+        }
+        logDone("product_categories", links, start);
+    }
+
+    // ============== UTILIDADES ==============
+
+    private void validate() {
+        if (properties.getUsers() < 1 || properties.getCategories() < 1 || properties.getProducts() < 0) {
+            throw new IllegalArgumentException(
+                    "datagen.users y datagen.categories deben ser >= 1 y datagen.products >= 0");
+        }
+        if (properties.getMinCategoriesPerProduct() < 1
+                || properties.getMaxCategoriesPerProduct() < properties.getMinCategoriesPerProduct()
+                || properties.getMaxCategoriesPerProduct() > properties.getCategories()) {
+            throw new IllegalArgumentException(
+                    "Fan-out de categorías inválido: 1 <= min <= max <= datagen.categories");
+        }
+    }
+
+    /**
+     * Reserva "count" ids consecutivos adelantando la secuencia de la tabla
+     *
+     * - LOCK TABLE (EXCLUSIVE): ningún INSERT concurrente toma un valor de la
+     *   secuencia mientras se reserva el rango (las lecturas siguen)
+     * - nextval y setval en UNA sentencia: sin hueco entre leer y adelantar
+     *
+     * @return primer id reservado
+     */
+    private static long reserveIds(Connection connection, String table, long count) throws SQLException {
+        if (count < 1) {
+            return 0;
+        }
+        String sequence = "pg_get_serial_sequence('" + table + "', 'id')";
+
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LOCK TABLE " + table + " IN EXCLUSIVE MODE");
+            long last;
+            try (var rs = statement.executeQuery(
+                    "SELECT setval(" + sequence + ", nextval(" + sequence + ") + " + (count - 1) + ")")) {
+                rs.next();
+                last = rs.getLong(1);
+            }
+            connection.commit();
+            return last - count + 1;
+        } catch (SQLException ex) {
+            connection.rollback();
+            throw ex;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // Box-Muller: normal estándar con el SplittableRandom determinista
+    private static double gaussian(SplittableRandom random) {
+        double u = 1.0 - random.nextDouble();
+        double v = random.nextDouble();
+        return Math.sqrt(-2.0 * Math.log(u)) * Math.cos(2.0 * Math.PI * v);
+    }
+
+    private static boolean contains(long[] values, int length, long value) {
+        for (int i = 0; i < length; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void logDone(String table, long rows, long startNanos) {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        logger.info("{}: {} filas en {} s ({} filas/s)",
+                table, rows, String.format("%.1f", seconds), String.format("%.0f", rows / Math.max(seconds, 1e-9)));
+    }
+
+    /**
+     * COPY ... FROM STDIN en formato texto (tabulador entre campos, \n por fila)
+     * Acumula COPY_BUFFER_SIZE bytes por envío al servidor.
+     */
+    private static final class CopyStream implements AutoCloseable {
+
+        private final CopyIn copy;
+        private final StringBuilder row = new StringBuilder(256);
+        private final byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        private int length;
+
+        CopyStream(PGConnection pg, String sql) throws SQLException {
+            this.copy = pg.getCopyAPI().copyIn(sql);
+        }
+
+        CopyStream field(Object value) {
+            row.append(value).append('\t');
+            return this;
+        }
+
+        void last(Object value) throws SQLException {
+            row.append(value).append('\n');
+            byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+            row.setLength(0);
+
+            if (length + bytes.length > buffer.length) {
+                flush();
+            }
+            if (bytes.length > buffer.length) {
+                copy.writeToCopy(bytes, 0, bytes.length);
+                return;
+            }
+            System.arraycopy(bytes, 0, buffer, length, bytes.length);
+            length += bytes.length;
+        }
+
+        private void flush() throws SQLException {
+            if (length > 0) {
+                copy.writeToCopy(buffer, 0, length);
+                length = 0;
+            }
+        }
+
+        /**
+         * Envía lo pendiente y confirma el COPY (todas las filas o ninguna)
+         */
+        void finish() throws SQLException {
+            flush();
+            copy.endCopy();
+        }
+
+        // Si no se llegó a finish() (error a mitad), se cancela: no quedan filas parciales
+        @Override
+        public void close() throws SQLException {
+            if (copy.isActive()) {
+                copy.cancelCopy();
+            }
+        }
+    }
+}
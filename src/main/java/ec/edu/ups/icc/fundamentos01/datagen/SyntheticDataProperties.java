@@ -0,0 +1,138 @@
+package ec.edu.ups.icc.fundamentos01.datagen;
+
+import java.time.LocalDateTime;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del generador de datos sintéticos (prefijo "datagen")
+ *
+ * Todo se deriva de "seed" y "epoch": la misma configuración produce
+ * exactamente los mismos datos en cualquier máquina y en cualquier fecha.
+ * Solo los ids dependen de la BD (se desplazan según sus secuencias).
+ *
+ * DISTRIBUCIONES:
+ * - owner-skew: exponente Zipf de productos por usuario (0 = uniforme,
+ *   1.1 = pocos usuarios con muchos productos)
+ * - category-skew: exponente Zipf de popularidad de categorías
+ * - min/max-categories-per-product: fan-out de product_categories
+ * - price-median / price-spread: precio log-normal (spread = sigma)
+ * - epoch: fecha de referencia; los created_at se reparten en los dos años
+ *   anteriores (no se usa la hora actual)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "datagen")
+public class SyntheticDataProperties {
+
+    private long seed = 42L;
+    private int users = 10000;
+    private int categories = 200;
+    private long products = 1000000L;
+    private double ownerSkew = 1.1;
+    private double categorySkew = 0.8;
+    private int minCategoriesPerProduct = 1;
+    private int maxCategoriesPerProduct = 3;
+    private double priceMedian = 50.0;
+    private double priceSpread = 1.0;
+    private String userPassword = "password123";
+    private LocalDateTime epoch = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    // GETTERS Y SETTERS
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    public void setUsers(int users) {
+        this.users = users;
+    }
+
+    public int getCategories() {
+        return categories;
+    }
+
+    public void setCategories(int categories) {
+        this.categories = categories;
+    }
+
+    public long getProducts() {
+        return products;
+    }
+
+    public void setProducts(long products) {
+        this.products = products;
+    }
+
+    public double getOwnerSkew() {
+        return ownerSkew;
+    }
+
+    public void setOwnerSkew(double ownerSkew) {
+        this.ownerSkew = ownerSkew;
+    }
+
+    public double getCategorySkew() {
+        return categorySkew;
+    }
+
+    public void setCategorySkew(double categorySkew) {
+        this.categorySkew = categorySkew;
+    }
+
+    public int getMinCategoriesPerProduct() {
+        return minCategoriesPerProduct;
+    }
+
+    public void setMinCategoriesPerProduct(int minCategoriesPerProduct) {
+        this.minCategoriesPerProduct = minCategoriesPerProduct;
+    }
+
+    public int getMaxCategoriesPerProduct() {
+        return maxCategoriesPerProduct;
+    }
+
+    public void setMaxCategoriesPerProduct(int maxCategoriesPerProduct) {
+        this.maxCategoriesPerProduct = maxCategoriesPerProduct;
+    }
+
+    public double getPriceMedian() {
+        return priceMedian;
+    }
+
+    public void setPriceMedian(double priceMedian) {
+        this.priceMedian = priceMedian;
+    }
+
+    public double getPriceSpread() {
+        return priceSpread;
+    }
+
+    public void setPriceSpread(double priceSpread) {
+        this.priceSpread = priceSpread;
+    }
+
+    public String getUserPassword() {
+        return userPassword;
+    }
+
+    public void setUserPassword(String userPassword) {
+        this.userPassword = userPassword;
+    }
+
+    public LocalDateTime getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(LocalDateTime epoch) {
+        this.epoch = epoch;
+    }
+
+}
@@ -0,0 +1,36 @@
+package ec.edu.ups.icc.fundamentos01.datagen;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * ZipfSampler: Muestreo de índices 0..n-1 con probabilidad ∝ 1 / (k+1)^s
+ *
+ * - s = 0 → uniforme
+ * - s ≈ 1 → pocos elementos concentran la mayoría de muestras (usuarios
+ *   con miles de productos, categorías muy populares)
+ *
+ * CDF precalculada (n doubles) + búsqueda binaria: O(log n) por muestra.
+ */
+final class ZipfSampler {
+
+    private final double[] cdf;
+
+    ZipfSampler(int n, double exponent) {
+        this.cdf = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = total;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= total;
+        }
+    }
+
+    int sample(SplittableRandom random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int k = index >= 0 ? index : -index - 1;
+        return Math.min(k, cdf.length - 1);
+    }
+}
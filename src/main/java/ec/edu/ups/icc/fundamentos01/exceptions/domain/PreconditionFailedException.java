@@ -0,0 +1,12 @@
+package ec.edu.ups.icc.fundamentos01.exceptions.domain;
+
+import org.springframework.http.HttpStatus;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.base.ApplicationException;
+
+public class PreconditionFailedException extends ApplicationException {
+
+    public PreconditionFailedException(String message) {
+        super(HttpStatus.PRECONDITION_FAILED, message);
+    }
+}
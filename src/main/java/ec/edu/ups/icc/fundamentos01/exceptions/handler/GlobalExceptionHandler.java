@@ -4,7 +4,11 @@ import java.util.HashMap;
 import java.util.Map;
 import jakarta.servlet.http.HttpServletRequest;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -15,22 +19,41 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import ec.edu.ups.icc.fundamentos01.exceptions.base.ApplicationException;
 import ec.edu.ups.icc.fundamentos01.exceptions.response.ErrorResponse;
+import ec.edu.ups.icc.fundamentos01.exceptions.response.PreparedErrorResponse;
+import ec.edu.ups.icc.fundamentos01.shared.logging.SampledLogger;
 
+/**
+ * Los errores 4xx frecuentes (401, 403, excepciones de dominio) se escriben
+ * con PreparedErrorResponse: mismo JSON que ErrorResponse, sin ObjectMapper.
+ */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+    private static final SampledLogger sampledLogger = new SampledLogger(logger, 20, 60_000);
+
+    private static final PreparedErrorResponse FORBIDDEN = PreparedErrorResponse.of(
+            HttpStatus.FORBIDDEN,
+            "No tienes permisos para acceder a este recurso");
+
+    private static final PreparedErrorResponse UNAUTHORIZED = PreparedErrorResponse.of(
+            HttpStatus.UNAUTHORIZED,
+            "Credenciales inválidas o sesión expirada");
+
+    private static final PreparedErrorResponse STALE_VERSION = PreparedErrorResponse.of(
+            HttpStatus.CONFLICT,
+            "El recurso fue modificado por otra petición; vuelve a cargarlo");
+
     @ExceptionHandler(ApplicationException.class)
-    public ResponseEntity<ErrorResponse> handleApplicationException(
+    public ResponseEntity<byte[]> handleApplicationException(
             ApplicationException ex,
             HttpServletRequest request) {
-        ErrorResponse response = new ErrorResponse(
-                ex.getStatus(),
-                ex.getMessage(),
-                request.getRequestURI());
+        if (ex.getStatus().is4xxClientError()) {
+            sampledLogger.info("{} en {}: {}", ex.getStatus().value(), request.getRequestURI(), ex.getMessage());
+        }
 
-        return ResponseEntity
-                .status(ex.getStatus())
-                .body(response);
+        return json(ex.getStatus(),
+                PreparedErrorResponse.render(ex.getStatus(), ex.getMessage(), request.getRequestURI()));
     }
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
@@ -55,45 +78,44 @@ public class GlobalExceptionHandler {
     }
 
     @ExceptionHandler(AuthorizationDeniedException.class)
-    public ResponseEntity<ErrorResponse> handleAuthorizationDeniedException(
+    public ResponseEntity<byte[]> handleAuthorizationDeniedException(
             AuthorizationDeniedException ex,
             HttpServletRequest request) {
-        ErrorResponse response = new ErrorResponse(
-                HttpStatus.FORBIDDEN,
-                "No tienes permisos para acceder a este recurso",
-                request.getRequestURI());
+        sampledLogger.info("403 en {}: {}", request.getRequestURI(), ex.getMessage());
 
-        return ResponseEntity
-                .status(HttpStatus.FORBIDDEN)
-                .body(response);
+        return json(HttpStatus.FORBIDDEN, FORBIDDEN.render(request.getRequestURI()));
     }
 
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<ErrorResponse> handleAccessDeniedException(
+    public ResponseEntity<byte[]> handleAccessDeniedException(
             AccessDeniedException ex,
             HttpServletRequest request) {
-        ErrorResponse response = new ErrorResponse(
-                HttpStatus.FORBIDDEN,
-                ex.getMessage(),
-                request.getRequestURI());
+        sampledLogger.info("403 en {}: {}", request.getRequestURI(), ex.getMessage());
 
-        return ResponseEntity
-                .status(HttpStatus.FORBIDDEN)
-                .body(response);
+        return json(HttpStatus.FORBIDDEN,
+                PreparedErrorResponse.render(HttpStatus.FORBIDDEN, ex.getMessage(), request.getRequestURI()));
+    }
+
+    /**
+     * UPDATE/DELETE con "WHERE version = ?" que no afectó filas:
+     * otra escritura ganó entre la lectura y el flush
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<byte[]> handleOptimisticLockingFailure(
+            OptimisticLockingFailureException ex,
+            HttpServletRequest request) {
+        sampledLogger.info("409 en {}: {}", request.getRequestURI(), ex.getMessage());
+
+        return json(HttpStatus.CONFLICT, STALE_VERSION.render(request.getRequestURI()));
     }
 
     @ExceptionHandler(AuthenticationException.class)
-    public ResponseEntity<ErrorResponse> handleAuthenticationException(
+    public ResponseEntity<byte[]> handleAuthenticationException(
             AuthenticationException ex,
             HttpServletRequest request) {
-        ErrorResponse response = new ErrorResponse(
-                HttpStatus.UNAUTHORIZED,
-                "Credenciales inválidas o sesión expirada",
-                request.getRequestURI());
+        sampledLogger.info("401 en {}: {}", request.getRequestURI(), ex.getMessage());
 
-        return ResponseEntity
-                .status(HttpStatus.UNAUTHORIZED)
-                .body(response);
+        return json(HttpStatus.UNAUTHORIZED, UNAUTHORIZED.render(request.getRequestURI()));
     }
 
     @ExceptionHandler(Exception.class)
@@ -109,4 +131,14 @@ public class GlobalExceptionHandler {
                 .status(HttpStatus.INTERNAL_SERVER_ERROR)
                 .body(response);
     }
-}
\ No newline at end of file
+
+    /**
+     * Cuerpo JSON ya serializado (ByteArrayHttpMessageConverter lo escribe tal cual)
+     */
+    private static ResponseEntity<byte[]> json(HttpStatus status, byte[] body) {
+        return ResponseEntity
+                .status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+}
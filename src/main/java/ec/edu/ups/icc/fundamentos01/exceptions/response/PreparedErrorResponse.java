@@ -0,0 +1,124 @@
+package ec.edu.ups.icc.fundamentos01.exceptions.response;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * PreparedErrorResponse: JSON de ErrorResponse con las partes fijas ya serializadas
+ *
+ * PROBLEMA:
+ * - Ante tráfico de escáneres se generan millones de 401/403 idénticos
+ * - Cada uno crea un ErrorResponse y lo serializa con ObjectMapper (reflexión)
+ *
+ * SOLUCIÓN:
+ * - status, error y message se serializan a bytes UNA sola vez
+ * - En cada respuesta solo se insertan timestamp y path
+ * - Los mensajes variables (excepciones de dominio) se preparan una vez por
+ *   (status, message) en una caché acotada
+ *
+ * El resultado es el mismo JSON que produce ObjectMapper para ErrorResponse:
+ * {"timestamp":"2024-01-15T10:30:00","status":401,"error":"Unauthorized",
+ *  "message":"...","path":"/api/products"}
+ * Sin message (null) el campo se omite, como @JsonInclude(NON_NULL).
+ */
+public final class PreparedErrorResponse {
+
+    // Mismo formato que JavaTimeModule con WRITE_DATES_AS_TIMESTAMPS desactivado
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+
+    private static final byte[] START = "{\"timestamp\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PATH_START = ",\"path\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Respuestas preparadas por (status, message); acotada porque el mensaje
+     * puede incluir ids ("Producto no encontrado con ID: 42")
+     */
+    private static final Cache<Key, PreparedErrorResponse> PREPARED = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .build();
+
+    private record Key(HttpStatus status, String message) {
+    }
+
+    private final HttpStatus status;
+
+    /**
+     * ","status":401,"error":"Unauthorized","message":"..."
+     */
+    private final byte[] middle;
+
+    private PreparedErrorResponse(HttpStatus status, String message) {
+        this.status = status;
+        this.middle = ("\",\"status\":" + status.value()
+                + ",\"error\":\"" + escape(status.getReasonPhrase()) + "\""
+                + (message != null ? ",\"message\":\"" + escape(message) + "\"" : ""))
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prepara una respuesta con mensaje fijo (se reutiliza en cada request)
+     */
+    public static PreparedErrorResponse of(HttpStatus status, String message) {
+        return new PreparedErrorResponse(status, message);
+    }
+
+    /**
+     * Serializa una respuesta con mensaje variable sin pasar por ObjectMapper
+     * (la parte fija sale de la caché)
+     */
+    public static byte[] render(HttpStatus status, String message, String path) {
+        return PREPARED.get(new Key(status, message), key -> new PreparedErrorResponse(key.status(), key.message()))
+                .render(path);
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * JSON completo con timestamp actual y path
+     */
+    public byte[] render(String path) {
+        byte[] timestamp = TIMESTAMP_FORMAT.format(LocalDateTime.now()).getBytes(StandardCharsets.US_ASCII);
+        byte[] escapedPath = JsonStringEncoder.getInstance().quoteAsUTF8(path != null ? path : "");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(
+                START.length + timestamp.length + middle.length + PATH_START.length
+                        + escapedPath.length + END.length);
+        out.writeBytes(START);
+        out.writeBytes(timestamp);
+        out.writeBytes(middle);
+        out.writeBytes(PATH_START);
+        out.writeBytes(escapedPath);
+        out.writeBytes(END);
+        return out.toByteArray();
+    }
+
+    /**
+     * Escribe la respuesta directamente en el OutputStream (sin Writer ni String intermedio)
+     */
+    public void write(HttpServletResponse response, String path) throws IOException {
+        byte[] body = render(path);
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static String escape(String value) {
+        return new String(JsonStringEncoder.getInstance().quoteAsString(value));
+    }
+}
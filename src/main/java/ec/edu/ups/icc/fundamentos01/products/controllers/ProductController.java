@@ -1,29 +1,44 @@
 package ec.edu.ups.icc.fundamentos01.products.controllers;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateProductsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateResultDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductSearchPageDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import ec.edu.ups.icc.fundamentos01.shared.dto.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.shared.dto.PageableDto;
+import ec.edu.ups.icc.fundamentos01.shared.http.EntityTags;
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 @RestController
@@ -37,17 +52,28 @@ public class ProductController {
     }
 
     @GetMapping
-    @PreAuthorize("hasRole('ADMIN')")
+    @PreAuthorize("@roleEvaluator.hasRole(authentication, 'ADMIN')")
     public ResponseEntity<List<ProductResponseDto>> findAll() {
         List<ProductResponseDto> products = productService.findAll();
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Misma lista en streaming NDJSON (Accept: application/x-ndjson)
+     * Cada línea es un producto; la memoria no crece con el catálogo
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("@roleEvaluator.hasRole(authentication, 'ADMIN')")
+    public void streamAll(HttpServletResponse response) throws IOException {
+        streamProducts(response);
+    }
+
     @GetMapping("/paginated")
     public ResponseEntity<Page<ProductResponseDto>> findAllPaginado(
+            @RequestHeader(value = CountMode.HEADER, required = false) String countMode,
             @Valid @ModelAttribute PageableDto pageable) {
 
-        Page<ProductResponseDto> products = productService.findAllPaginado(pageable);
+        Page<ProductResponseDto> products = productService.findAllPaginado(withCountMode(pageable, countMode));
         return ResponseEntity.ok(products);
     }
 
@@ -59,16 +85,36 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    /**
+     * Búsqueda con filtros opcionales; sort=relevance ordena por similitud con "name"
+     *
+     * categoryIds=1,2&mode=all|any|none: en todas / alguna / ninguna de esas categorías
+     *
+     * facets=true agrega conteos por categoría y por rango de precio
+     * (priceBuckets=0,10,50 = límites inferiores; por defecto los de la configuración)
+     */
     @GetMapping("/search")
     public ResponseEntity<Page<ProductResponseDto>> findWithFilters(
             @RequestParam(required = false) String name,
+            @RequestParam(required = false) String ownerName,
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Set<Long> categoryIds,
+            @RequestParam(defaultValue = "any") String mode,
+            @RequestParam(defaultValue = "false") boolean facets,
+            @RequestParam(required = false) List<Double> priceBuckets,
+            @RequestHeader(value = CountMode.HEADER, required = false) String countMode,
             @Valid @ModelAttribute PageableDto pageable) {
 
         Page<ProductResponseDto> products = productService.findWithFilters(
-                name, minPrice, maxPrice, categoryId, pageable);
+                name, ownerName, minPrice, maxPrice, categoryId, categoryIds, mode,
+                withCountMode(pageable, countMode));
+
+        if (facets) {
+            products = new ProductSearchPageDto(products,
+                    productService.findFacets(name, ownerName, minPrice, maxPrice, priceBuckets));
+        }
 
         return ResponseEntity.ok(products);
     }
@@ -80,10 +126,48 @@ public class ProductController {
             @RequestParam(required = false) Double minPrice,
             @RequestParam(required = false) Double maxPrice,
             @RequestParam(required = false) Long categoryId,
+            @RequestHeader(value = CountMode.HEADER, required = false) String countMode,
             @Valid @ModelAttribute PageableDto pageable) {
 
         Page<ProductResponseDto> products = productService.findByUserIdWithFilters(
-                userId, name, minPrice, maxPrice, categoryId, pageable);
+                userId, name, minPrice, maxPrice, categoryId, withCountMode(pageable, countMode));
+
+        return ResponseEntity.ok(products);
+    }
+
+    /**
+     * Paginación por cursor: cada página cuesta lo mismo sin importar la profundidad
+     * Primera página: ?sort=price,desc&size=20 · siguientes: ?cursor=<nextCursor>
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> findWithCursor(
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+
+        CursorPageDto<ProductResponseDto> products = productService.findWithCursor(
+                name, minPrice, maxPrice, categoryId, sort, size, cursor);
+
+        return ResponseEntity.ok(products);
+    }
+
+    @GetMapping("/user/{userId}/cursor")
+    public ResponseEntity<CursorPageDto<ProductResponseDto>> findByUserIdWithCursor(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String name,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+
+        CursorPageDto<ProductResponseDto> products = productService.findByUserIdWithCursor(
+                userId, name, minPrice, maxPrice, categoryId, sort, size, cursor);
 
         return ResponseEntity.ok(products);
     }
@@ -94,10 +178,24 @@ public class ProductController {
         return ResponseEntity.ok(products);
     }
 
+    @GetMapping(value = "/all", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void streamAllSimple(HttpServletResponse response) throws IOException {
+        streamProducts(response);
+    }
+
+    /**
+     * Con If-None-Match solo se consulta la versión: si el ETag coincide
+     * → 304 sin cargar ni serializar el producto
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponseDto> findById(@PathVariable("id") Long id) {
+    public ResponseEntity<ProductResponseDto> findById(@PathVariable("id") Long id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(productService.findETag(id))) {
+            return null; // checkNotModified ya escribió 304 + ETag
+        }
+
         ProductResponseDto product = productService.findById(id);
-        return ResponseEntity.ok(product);
+        return withETag(product);
     }
 
     @GetMapping("/user/{userId}/simple")
@@ -120,20 +218,66 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    /**
+     * Carga masiva (hasta BulkCreateProductsDto.MAX_ITEMS productos)
+     * Responde 200 con el resultado de cada producto, aunque algunos se rechacen
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateResultDto> createBulk(@Valid @RequestBody BulkCreateProductsDto dto) {
+        BulkCreateResultDto result = productService.createBulk(dto.products);
+        return ResponseEntity.ok(result);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponseDto> update(
             @PathVariable("id") Long id,
             @Valid @RequestBody UpdateProductDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @AuthenticationPrincipal UserDetailsImpl currentUser) {
+        ProductResponseDto updated = productService.update(
+                id, dto, currentUser, EntityTags.expectedVersion(ifMatch, id));
+        return withETag(updated);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<ProductResponseDto> partialUpdate(
+            @PathVariable("id") Long id,
+            @Valid @RequestBody PartialUpdateProductDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal UserDetailsImpl currentUser) {
-        ProductResponseDto updated = productService.update(id, dto, currentUser);
-        return ResponseEntity.ok(updated);
+        ProductResponseDto updated = productService.partialUpdate(
+                id, dto, currentUser, EntityTags.expectedVersion(ifMatch, id));
+        return withETag(updated);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> delete(
             @PathVariable("id") Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal UserDetailsImpl currentUser) {
-        productService.delete(id, currentUser);
+        productService.delete(id, currentUser, EntityTags.expectedVersion(ifMatch, id));
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<ProductResponseDto> withETag(ProductResponseDto product) {
+        return ResponseEntity.ok()
+                .eTag(product.eTag)
+                .body(product);
+    }
+
+    /**
+     * ?count= tiene prioridad; si no viene se usa la cabecera X-Count-Mode
+     */
+    private static PageableDto withCountMode(PageableDto pageable, String headerMode) {
+        if (pageable.getCount() == null) {
+            pageable.setCount(headerMode);
+        }
+        return pageable;
+    }
+
+    private void streamProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        productService.streamAll(response.getOutputStream());
+    }
+}
@@ -0,0 +1,21 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Carga masiva de productos
+ *
+ * Los elementos NO llevan @Valid: un producto inválido no rechaza todo el
+ * lote, se valida uno por uno y se reporta en BulkCreateResultDto.
+ */
+public class BulkCreateProductsDto {
+
+    public static final int MAX_ITEMS = 5000;
+
+    @NotNull(message = "La lista de productos es obligatoria")
+    @Size(min = 1, max = MAX_ITEMS, message = "El lote debe tener entre 1 y " + MAX_ITEMS + " productos")
+    public List<CreateProductDto> products;
+}
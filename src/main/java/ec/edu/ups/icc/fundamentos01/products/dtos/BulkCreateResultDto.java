@@ -0,0 +1,34 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Resultado de la carga masiva: resumen + un resultado por producto
+ * (en el mismo orden del request, "index" es la posición)
+ */
+@JsonPropertyOrder({ "received", "created", "rejected", "results" })
+public class BulkCreateResultDto {
+    public int received;
+    public int created;
+    public int rejected;
+    public List<ItemResultDto> results;
+
+    // ============== DTOs INTERNOS ==============
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonPropertyOrder({ "index", "status", "id", "errors" })
+    public static class ItemResultDto {
+        public int index;
+        public ItemStatus status;
+        public Long id;
+        public List<String> errors;
+    }
+
+    public enum ItemStatus {
+        CREATED,
+        REJECTED
+    }
+}
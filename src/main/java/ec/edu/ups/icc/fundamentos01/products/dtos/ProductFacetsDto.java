@@ -0,0 +1,36 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Facetas de /api/products/search (?facets=true)
+ *
+ * Calculadas sobre los filtros de nombre, dueño y precio, sin los de
+ * categoría: cada categoría muestra cuántos resultados habría al elegirla.
+ * complete = false si el cálculo excedió su tiempo (listas vacías).
+ */
+@JsonPropertyOrder({ "complete", "categories", "priceBuckets" })
+public class ProductFacetsDto {
+    public boolean complete;
+    public List<CategoryFacetDto> categories;
+    public List<PriceBucketDto> priceBuckets;
+
+    // ============== DTOs INTERNOS ==============
+
+    public static class CategoryFacetDto {
+        public Long id;
+        public String name;
+        public long count;
+    }
+
+    /**
+     * Rango [from, to); to = null en el último (sin tope)
+     */
+    public static class PriceBucketDto {
+        public Double from;
+        public Double to;
+        public long count;
+    }
+}
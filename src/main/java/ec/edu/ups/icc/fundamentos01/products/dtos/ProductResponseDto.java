@@ -3,6 +3,7 @@ package ec.edu.ups.icc.fundamentos01.products.dtos;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
@@ -36,6 +37,14 @@ public class ProductResponseDto {
     public LocalDateTime createdAt;
     public LocalDateTime updatedAt;
 
+    // Solo para las cabeceras, no forman parte del cuerpo
+    @JsonIgnore
+    public long version;
+
+    // Cubre también el dueño y las categorías embebidos (ver EntityTags)
+    @JsonIgnore
+    public String eTag;
+
     // ============== DTOs INTERNOS ==============
 
     public static class UserSummaryDto {
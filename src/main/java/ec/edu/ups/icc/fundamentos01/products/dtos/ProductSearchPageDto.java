@@ -0,0 +1,26 @@
+package ec.edu.ups.icc.fundamentos01.products.dtos;
+
+import org.springframework.data.domain.Page;
+
+import ec.edu.ups.icc.fundamentos01.shared.dto.CountedPage;
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+
+/**
+ * Página de /api/products/search con sus facetas
+ *
+ * Misma forma JSON que CountedPage + la propiedad "facets".
+ */
+public class ProductSearchPageDto extends CountedPage<ProductResponseDto> {
+
+    private final ProductFacetsDto facets;
+
+    public ProductSearchPageDto(Page<ProductResponseDto> page, ProductFacetsDto facets) {
+        super(page.getContent(), page.getPageable(), page.getTotalElements(),
+                page instanceof CountedPage<?> counted ? counted.getTotalAccuracy() : CountMode.EXACT);
+        this.facets = facets;
+    }
+
+    public ProductFacetsDto getFacets() {
+        return facets;
+    }
+}
@@ -3,14 +3,40 @@ package ec.edu.ups.icc.fundamentos01.products.models;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
-import ec.edu.ups.icc.fundamentos01.core.entities.BaseModel;
+import ec.edu.ups.icc.fundamentos01.core.entities.VersionedModel;
 import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
 import jakarta.persistence.*;
 
+/**
+ * Planes de carga (usados con @EntityGraph en ProductRepository):
+ *
+ * - Product.withOwner: owner en el mismo SELECT (JOIN). Para consultas PAGINADAS:
+ *   un fetch de colección haría que Hibernate pagine en memoria.
+ *   Las categorías de la página llegan en UN SELECT adicional (@BatchSize).
+ *
+ * - Product.withOwnerAndCategories: owner + categorías en un solo SELECT.
+ *   Para listas sin paginación y búsquedas por id.
+ *
+ * En ambos casos el owner se carga SIN sus roles (relación LAZY en UserEntity).
+ *
+ * @DynamicUpdate: el UPDATE incluye solo las columnas que cambiaron
+ * (un PATCH de precio escribe price y updated_at, no toda la fila).
+ */
 @Entity
+@DynamicUpdate
 @Table(name = "products")
-public class ProductEntity extends BaseModel {
+@NamedEntityGraph(name = ProductEntity.GRAPH_WITH_OWNER,
+        attributeNodes = @NamedAttributeNode("owner"))
+@NamedEntityGraph(name = ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES,
+        attributeNodes = { @NamedAttributeNode("owner"), @NamedAttributeNode("categories") })
+public class ProductEntity extends VersionedModel {
+
+    public static final String GRAPH_WITH_OWNER = "Product.withOwner";
+    public static final String GRAPH_WITH_OWNER_AND_CATEGORIES = "Product.withOwnerAndCategories";
 
     @Column(nullable = false, length = 150)
     private String name;
@@ -44,6 +70,7 @@ public class ProductEntity extends BaseModel {
      * Una categoría puede estar en múltiples productos
      */
     @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100) // Categorías de una página completa (máx. 100) en un solo SELECT
     @JoinTable(name = "product_categories", // Tabla intermedia
             joinColumns = @JoinColumn(name = "product_id"), // FK hacia products
             inverseJoinColumns = @JoinColumn(name = "category_id") // FK hacia categories
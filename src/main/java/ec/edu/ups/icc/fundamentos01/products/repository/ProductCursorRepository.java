@@ -0,0 +1,33 @@
+package ec.edu.ups.icc.fundamentos01.products.repository;
+
+import java.util.List;
+
+/**
+ * Fragmento de ProductRepository para paginación por cursor (keyset)
+ *
+ * La consulta depende de la clave de orden y de los filtros presentes,
+ * por eso se arma en ProductCursorRepositoryImpl en lugar de un @Query.
+ */
+public interface ProductCursorRepository {
+
+    /**
+     * IDs de la siguiente página, ordenados por (sortKey, id)
+     *
+     * @param userId:     Dueño (null = todos)
+     * @param sortKey:    Clave de ordenamiento; id desempata en la misma dirección
+     * @param afterValue: Valor de sortKey del último producto visto
+     * @param afterId:    ID del último producto visto (null = primera página)
+     * @param limit:      Máximo de IDs a retornar
+     */
+    List<Long> findIdsAfter(
+            Long userId,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId,
+            ProductSortKey sortKey,
+            boolean descending,
+            Object afterValue,
+            Long afterId,
+            int limit);
+}
@@ -0,0 +1,107 @@
+package ec.edu.ups.icc.fundamentos01.products.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Paginación keyset: en lugar de OFFSET, un predicado de búsqueda
+ * "después del último (valor, id) visto"
+ *
+ * Ejemplo (sort=price,asc, último visto price=10.5 id=42):
+ * WHERE ... AND (p.price > 10.5 OR (p.price = 10.5 AND p.id > 42))
+ * ORDER BY p.price ASC, p.id ASC
+ *
+ * La BD salta directo a la posición (índice sobre (price, id)), así que
+ * la página 5.000 cuesta lo mismo que la primera.
+ *
+ * Solo se agregan los filtros presentes: sin "(:x IS NULL OR ...)" el
+ * planificador ve un predicado concreto. Las claves nulas (updatedAt,
+ * description) se ordenan con NULLS LAST en ambas direcciones.
+ */
+public class ProductCursorRepositoryImpl implements ProductCursorRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findIdsAfter(
+            Long userId,
+            String name,
+            Double minPrice,
+            Double maxPrice,
+            Long categoryId,
+            ProductSortKey sortKey,
+            boolean descending,
+            Object afterValue,
+            Long afterId,
+            int limit) {
+
+        StringBuilder jpql = new StringBuilder("SELECT p.id FROM ProductEntity p WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        // ============== FILTROS ==============
+        if (userId != null) {
+            jpql.append(" AND p.owner.id = :userId");
+            params.put("userId", userId);
+        }
+        if (name != null) {
+            jpql.append(" AND LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))");
+            params.put("name", name);
+        }
+        if (minPrice != null) {
+            jpql.append(" AND p.price >= :minPrice");
+            params.put("minPrice", minPrice);
+        }
+        if (maxPrice != null) {
+            jpql.append(" AND p.price <= :maxPrice");
+            params.put("maxPrice", maxPrice);
+        }
+        if (categoryId != null) {
+            jpql.append(" AND EXISTS (SELECT 1 FROM p.categories c WHERE c.id = :categoryId)");
+            params.put("categoryId", categoryId);
+        }
+
+        // ============== PREDICADO DE BÚSQUEDA ==============
+        String cmp = descending ? "<" : ">";
+        String path = sortKey.getPath();
+
+        if (afterId != null) {
+            if (sortKey == ProductSortKey.ID) {
+                jpql.append(" AND p.id ").append(cmp).append(" :afterId");
+            } else if (afterValue == null) {
+                // Ya estamos en la cola de NULLs: solo avanza el id
+                jpql.append(" AND (").append(path).append(" IS NULL AND p.id ").append(cmp).append(" :afterId)");
+            } else {
+                jpql.append(" AND (").append(path).append(' ').append(cmp).append(" :afterValue")
+                        .append(" OR (").append(path).append(" = :afterValue AND p.id ").append(cmp).append(" :afterId)");
+                if (sortKey.isNullable()) {
+                    jpql.append(" OR ").append(path).append(" IS NULL");
+                }
+                jpql.append(')');
+                params.put("afterValue", afterValue);
+            }
+            params.put("afterId", afterId);
+        }
+
+        // ============== ORDEN ==============
+        String direction = descending ? " DESC" : " ASC";
+        jpql.append(" ORDER BY ");
+        if (sortKey != ProductSortKey.ID) {
+            jpql.append(path).append(direction);
+            if (sortKey.isNullable()) {
+                jpql.append(" NULLS LAST");
+            }
+            jpql.append(", ");
+        }
+        jpql.append("p.id").append(direction);
+
+        TypedQuery<Long> query = entityManager.createQuery(jpql.toString(), Long.class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+}
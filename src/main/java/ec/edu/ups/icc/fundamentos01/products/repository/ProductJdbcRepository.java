@@ -0,0 +1,179 @@
+package ec.edu.ups.icc.fundamentos01.products.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+/**
+ * ProductJdbcRepository: Inserción masiva de productos con batches JDBC reales
+ *
+ * PROBLEMA:
+ * - BaseModel usa GenerationType.IDENTITY: Hibernate necesita el id de cada
+ *   INSERT antes de seguir, así que NO agrupa inserts en batch
+ *
+ * SOLUCIÓN (según la BD, detectada una vez por los metadatos de la conexión):
+ * - PostgreSQL: reservar los ids de antemano, UN viaje a la secuencia de
+ *   products.id para todo el lote (asignación "pooled"), e INSERT con id
+ *   explícito. Con reWriteBatchedInserts=true (ver application.yaml) el
+ *   driver convierte cada batch en INSERTs multi-fila
+ * - Otras BD (H2 en tests): pg_get_serial_sequence/generate_series no
+ *   existen; el batch inserta sin id y los lee con getGeneratedKeys
+ * - En ambos casos las categorías van en un segundo batch con los ids ya conocidos
+ */
+@Repository
+public class ProductJdbcRepository {
+
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String NEXT_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('products', 'id')) FROM generate_series(1, ?)";
+
+    private static final String INSERT_PRODUCT_SQL =
+            "INSERT INTO products (id, name, price, description, user_id, created_at, version, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0, false)";
+
+    private static final String INSERT_PRODUCT_GENERATED_ID_SQL =
+            "INSERT INTO products (name, price, description, user_id, created_at, version, deleted) " +
+            "VALUES (?, ?, ?, ?, ?, 0, false)";
+
+    private static final String INSERT_PRODUCT_CATEGORY_SQL =
+            "INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * null hasta el primer lote: se lee de los metadatos de la conexión
+     */
+    private volatile Boolean postgres;
+
+    public ProductJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserta productos y sus categorías en batches de BATCH_SIZE
+     *
+     * @return Ids asignados, en el mismo orden que "rows"
+     */
+    public List<Long> insertAll(List<NewProductRow> rows) {
+        List<Long> ids = isPostgres() ? insertWithReservedIds(rows) : insertWithGeneratedIds(rows);
+
+        List<long[]> links = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            for (Long categoryId : rows.get(i).categoryIds()) {
+                links.add(new long[] { ids.get(i), categoryId });
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_CATEGORY_SQL, links, BATCH_SIZE, (ps, link) -> {
+            ps.setLong(1, link[0]);
+            ps.setLong(2, link[1]);
+        });
+        return ids;
+    }
+
+    /**
+     * PostgreSQL: reserva todos los ids en un SELECT y los inserta explícitos
+     */
+    private List<Long> insertWithReservedIds(List<NewProductRow> rows) {
+        List<Long> ids = jdbcTemplate.queryForList(NEXT_IDS_SQL, Long.class, rows.size());
+
+        List<Integer> positions = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            positions.add(i);
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_SQL, positions, BATCH_SIZE, (ps, i) -> {
+            NewProductRow row = rows.get(i);
+            ps.setLong(1, ids.get(i));
+            ps.setString(2, row.name());
+            ps.setDouble(3, row.price());
+            ps.setString(4, row.description());
+            ps.setLong(5, row.ownerId());
+            ps.setTimestamp(6, Timestamp.valueOf(row.createdAt()));
+        });
+        return ids;
+    }
+
+    /**
+     * Portable: batch sin id por bloques de BATCH_SIZE, ids por getGeneratedKeys
+     */
+    private List<Long> insertWithGeneratedIds(List<NewProductRow> rows) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            List<NewProductRow> chunk = rows.subList(from, Math.min(from + BATCH_SIZE, rows.size()));
+            KeyHolder keys = new GeneratedKeyHolder();
+
+            jdbcTemplate.batchUpdate(
+                    connection -> connection.prepareStatement(
+                            INSERT_PRODUCT_GENERATED_ID_SQL, Statement.RETURN_GENERATED_KEYS),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(PreparedStatement ps, int i) throws SQLException {
+                            NewProductRow row = chunk.get(i);
+                            ps.setString(1, row.name());
+                            ps.setDouble(2, row.price());
+                            ps.setString(3, row.description());
+                            ps.setLong(4, row.ownerId());
+                            ps.setTimestamp(5, Timestamp.valueOf(row.createdAt()));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return chunk.size();
+                        }
+                    },
+                    keys);
+
+            for (Map<String, Object> key : keys.getKeyList()) {
+                ids.add(generatedId(key));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * La columna de la clave generada puede llegar como "id" o "ID" según el driver
+     */
+    private static Long generatedId(Map<String, Object> key) {
+        for (Map.Entry<String, Object> column : key.entrySet()) {
+            if ("id".equalsIgnoreCase(column.getKey())) {
+                return ((Number) column.getValue()).longValue();
+            }
+        }
+        return ((Number) key.values().iterator().next()).longValue();
+    }
+
+    private boolean isPostgres() {
+        Boolean current = postgres;
+        if (current == null) {
+            current = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                    "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName()));
+            postgres = current;
+        }
+        return current;
+    }
+
+    /**
+     * Fila lista para insertar (ya validada); el id lo asigna insertAll
+     */
+    public record NewProductRow(
+            String name,
+            Double price,
+            String description,
+            Long ownerId,
+            LocalDateTime createdAt,
+            Set<Long> categoryIds) {
+    }
+}
@@ -1,105 +1,191 @@
 package ec.edu.ups.icc.fundamentos01.products.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import jakarta.persistence.QueryHint;
 
 @Repository
-public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
+public interface ProductRepository extends JpaRepository<ProductEntity, Long>, ProductCursorRepository {
+
+    // ============== PLANES DE CARGA ==============
+    // Toda lectura que termina en ProductResponseDto usa un @EntityGraph
+    // (ver ProductEntity): owner sin roles + categorías sin N+1.
+    // - Paginadas: GRAPH_WITH_OWNER (+1 SELECT de categorías por página)
+    // - Listas / por id: GRAPH_WITH_OWNER_AND_CATEGORIES (un solo SELECT)
 
     // ============== CONSULTAS BÁSICAS ==============
-    // Page<ProductEntity> findAll(Pageable pageable) - Viene de JpaRepository (con COUNT)
-    
+
+    @Override
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
+    List<ProductEntity> findAll();
+
+    @Override
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
+    Optional<ProductEntity> findById(Long id);
+
+    // Versiones del ETag sin hidratar la entidad: producto, dueño y una fila por categoría
+    // [p.version, o.version, c.id, c.version] (c.* null si no tiene categorías)
+    @Query("SELECT p.version, o.version, c.id, c.version FROM ProductEntity p " +
+           "JOIN p.owner o LEFT JOIN p.categories c WHERE p.id = :id")
+    List<Object[]> findTagVersionsById(@Param("id") Long id);
+
+    /**
+     * [owner.id, version] de un producto (0 o 1 fila), sin hidratar la entidad
+     *
+     * Explica por qué una escritura condicional no afectó filas (404/403/412).
+     */
+    @Query("SELECT p.owner.id, p.version FROM ProductEntity p WHERE p.id = :id")
+    List<Object[]> findOwnerAndVersionById(@Param("id") Long id);
+
+    // Productos a reindexar cuando cambia el nombre del dueño
+    @Query("SELECT p.id FROM ProductEntity p WHERE p.owner.id = :ownerId")
+    List<Long> findIdsByOwnerId(@Param("ownerId") Long ownerId);
+
+    // Paginación estándar de JpaRepository (con COUNT)
+    @Override
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER)
+    Page<ProductEntity> findAll(Pageable pageable);
+
     /**
      * Retorna Slice sin COUNT query para mejor performance
      * Este método es necesario porque findAll(Pageable) siempre retorna Page
      */
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER)
     @Query("SELECT p FROM ProductEntity p")
     Slice<ProductEntity> findAllSlice(Pageable pageable);
 
     Optional<ProductEntity> findByName(String name);
 
+    // Nombres ya registrados entre los dados (unicidad en carga masiva)
+    @Query("SELECT p.name FROM ProductEntity p WHERE p.name IN :names")
+    List<String> findExistingNames(@Param("names") Collection<String> names);
+
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
     List<ProductEntity> findByOwnerId(Long userId);
 
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
     List<ProductEntity> findByOwnerName(String ownerName);
 
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
     List<ProductEntity> findByCategoriesId(Long categoryId);
 
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
     List<ProductEntity> findByCategoriesName(String categoryName);
 
     // ============== CONSULTAS PERSONALIZADAS CON PAGINACIÓN ==============
 
     /**
      * Busca productos por nombre de usuario con paginación
+     *
+     * Slice: sin COUNT (las búsquedas con total van por ProductSearchBackend
+     * y ProductTotalCounter)
      */
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER)
     @Query("SELECT p FROM ProductEntity p " +
            "JOIN p.owner o WHERE LOWER(o.name) LIKE LOWER(CONCAT('%', :ownerName, '%'))")
-    Page<ProductEntity> findByOwnerNameContaining(@Param("ownerName") String ownerName, Pageable pageable);
-
-    /**
-     * Busca productos por categoría con paginación
-     * Usa LEFT JOIN porque la relación es Many-to-Many
-     */
-    @Query("SELECT DISTINCT p FROM ProductEntity p " +
-           "LEFT JOIN p.categories c " +
-           "WHERE c.id = :categoryId")
-    Page<ProductEntity> findByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+    Slice<ProductEntity> findByOwnerNameContaining(@Param("ownerName") String ownerName, Pageable pageable);
 
     /**
      * Busca productos en rango de precio con paginación
      */
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER)
     Page<ProductEntity> findByPriceBetween(Double minPrice, Double maxPrice, Pageable pageable);
 
-    // ============== CONSULTA COMPLEJA CON FILTROS Y PAGINACIÓN ==============
+    // ============== BÚSQUEDA CON FILTROS ==============
+    // Fase 1 (IDs paginados): products.search.ProductSearchBackend
 
     /**
-     * Busca productos con filtros opcionales y paginación
-     * Todos los parámetros son opcionales excepto el Pageable
-     * NOTA: Usa LEFT JOIN p.categories para relación Many-to-Many
+     * Fase 2: productos completos (owner + categorías) de los IDs de una página
+     *
+     * Un solo SELECT con JOIN FETCH; el IN no garantiza orden, el servicio
+     * reordena según la lista de IDs de la fase 1.
      */
-    @Query("SELECT DISTINCT p FROM ProductEntity p " +
-           "LEFT JOIN p.categories c " +
-           "WHERE (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
-           "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-           "AND (:categoryId IS NULL OR c.id = :categoryId)")
-    Page<ProductEntity> findWithFilters(
-        @Param("name") String name,
-        @Param("minPrice") Double minPrice,
-        @Param("maxPrice") Double maxPrice,
-        @Param("categoryId") Long categoryId,
-        Pageable pageable
-    );
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
+    @Query("SELECT p FROM ProductEntity p WHERE p.id IN :ids")
+    List<ProductEntity> findAllWithDetailsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ============== ESCRITURAS CONDICIONALES ==============
+    // La propiedad y la versión (If-Match) se verifican en el WHERE: sin SELECT previo.
+    // 0 filas afectadas = no existe, no es del usuario o cambió la versión
+    // (el servicio distingue 404/403/412). expectedVersion null = sin condición.
+    // El UPDATE JPQL no pasa por @Version: la versión se incrementa a mano.
+
+    String OWNED_AND_CURRENT =
+           "p.id = :id AND (:privileged = true OR p.owner.id = :userId) " +
+           "AND (:expectedVersion IS NULL OR p.version = :expectedVersion)";
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE ProductEntity p " +
+           "SET p.name = :name, p.price = :price, p.description = :description, p.updatedAt = :updatedAt, " +
+           "p.version = p.version + 1 " +
+           "WHERE " + OWNED_AND_CURRENT)
+    int updateIfAllowed(
+            @Param("id") Long id,
+            @Param("userId") Long userId,
+            @Param("privileged") boolean privileged,
+            @Param("expectedVersion") Long expectedVersion,
+            @Param("name") String name,
+            @Param("price") Double price,
+            @Param("description") String description,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // PATCH: la entidad administrada solo si la condición se cumple (mismo WHERE que las escrituras)
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
+    @Query("SELECT p FROM ProductEntity p WHERE " + OWNED_AND_CURRENT)
+    Optional<ProductEntity> findIfAllowed(
+            @Param("id") Long id,
+            @Param("userId") Long userId,
+            @Param("privileged") boolean privileged,
+            @Param("expectedVersion") Long expectedVersion);
+
+    // Hibernate borra primero las filas de product_categories con la misma condición
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ProductEntity p WHERE " + OWNED_AND_CURRENT)
+    int deleteIfAllowed(
+            @Param("id") Long id,
+            @Param("userId") Long userId,
+            @Param("privileged") boolean privileged,
+            @Param("expectedVersion") Long expectedVersion);
+
+    // ============== EXPORTACIÓN (STREAMING) ==============
+
+    // Filas por viaje a la BD y por bloque de limpieza del contexto de persistencia
+    int EXPORT_FETCH_SIZE = 500;
 
     /**
-     * Busca productos de un usuario con filtros opcionales y paginación
-     * NOTA: Usa LEFT JOIN p.categories para relación Many-to-Many
+     * IDs de todos los productos como Stream con cursor JDBC de solo avance
+     *
+     * - fetchSize: el driver trae EXPORT_FETCH_SIZE filas por vez (en PostgreSQL
+     *   solo funciona dentro de una transacción)
+     * - Solo IDs: el consumidor hidrata cada bloque de EXPORT_FETCH_SIZE con
+     *   findAllWithDetailsByIdIn (owner + categorías en UN SELECT). Con entidades
+     *   por cursor, las categorías se cargaban fila a fila: @BatchSize solo agrupa
+     *   las colecciones de entidades que ya están en el contexto de persistencia.
+     *
+     * Debe consumirse dentro de @Transactional y cerrarse (try-with-resources).
      */
-    @Query("SELECT DISTINCT p FROM ProductEntity p " +
-           "LEFT JOIN p.categories c " +
-           "WHERE p.owner.id = :userId " +
-           "AND (:name IS NULL OR LOWER(p.name) LIKE LOWER(CONCAT('%', :name, '%'))) " +
-           "AND (:minPrice IS NULL OR p.price >= :minPrice) " +
-           "AND (:maxPrice IS NULL OR p.price <= :maxPrice) " +
-           "AND (:categoryId IS NULL OR c.id = :categoryId)")
-    Page<ProductEntity> findByUserIdWithFilters(
-        @Param("userId") Long userId,
-        @Param("name") String name,
-        @Param("minPrice") Double minPrice,
-        @Param("maxPrice") Double maxPrice,
-        @Param("categoryId") Long categoryId,
-        Pageable pageable
-    );
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE)
+    })
+    @Query("SELECT p.id FROM ProductEntity p ORDER BY p.id")
+    Stream<Long> streamIdsForExport();
 
     // ============== CONSULTAS CON SLICE PARA PERFORMANCE ==============
 
@@ -107,6 +193,7 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
      * Productos de una categoría usando Slice
      * Usa LEFT JOIN para relación Many-to-Many
      */
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER)
     @Query("SELECT DISTINCT p FROM ProductEntity p " +
            "LEFT JOIN p.categories c " +
            "WHERE c.id = :categoryId " +
@@ -116,6 +203,7 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
     /**
      * Productos creados después de una fecha usando Slice
      */
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER)
     @Query("SELECT p FROM ProductEntity p WHERE p.createdAt > :date ORDER BY p.createdAt DESC")
     Slice<ProductEntity> findCreatedAfter(@Param("date") LocalDateTime date, Pageable pageable);
 
@@ -143,6 +231,7 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
     /**
      * Productos de un usuario con filtros (sin paginación - legacy)
      */
+    @EntityGraph(ProductEntity.GRAPH_WITH_OWNER_AND_CATEGORIES)
     @Query("SELECT DISTINCT p FROM ProductEntity p " +
            "LEFT JOIN p.categories c " +
            "WHERE p.owner.id = :userId " +
@@ -159,14 +248,13 @@ public interface ProductRepository extends JpaRepository<ProductEntity, Long> {
     );
 
     /**
-     * Consulta con TODAS las categorías especificadas
+     * Pares (productId, categoryId) de los productos dados
+     *
+     * LEFT JOIN: un producto sin categorías aparece con categoryId null.
+     * Lo usa CategoryMembershipIndex para resincronizar tras una escritura.
      */
-    @Query("SELECT p FROM ProductEntity p " +
-           "WHERE SIZE(p.categories) >= :categoryCount " +
-           "AND :categoryCount = " +
-           "(SELECT COUNT(c) FROM p.categories c WHERE c.id IN :categoryIds)")
-    List<ProductEntity> findByAllCategories(
-        @Param("categoryIds") List<Long> categoryIds,
-        @Param("categoryCount") long categoryCount
-    );
-}
\ No newline at end of file
+    @Query("SELECT p.id, c.id FROM ProductEntity p " +
+           "LEFT JOIN p.categories c " +
+           "WHERE p.id IN :ids")
+    List<Object[]> findCategoryLinks(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,88 @@
+package ec.edu.ups.icc.fundamentos01.products.repository;
+
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+
+/**
+ * ProductSortKey: Claves de ordenamiento para paginación por cursor (keyset)
+ *
+ * Mismas propiedades que acepta ProductServiceImpl.isValidSortProperty.
+ * Cada clave sabe:
+ * - su ruta JPQL (para ORDER BY y el predicado de búsqueda)
+ * - si admite NULL (updatedAt, description → se ordenan con NULLS LAST)
+ * - cómo leer el valor de la entidad y serializarlo en el cursor
+ */
+public enum ProductSortKey {
+
+    ID("id", "p.id", false, ProductEntity::getId),
+    NAME("name", "p.name", false, ProductEntity::getName),
+    PRICE("price", "p.price", false, ProductEntity::getPrice),
+    CREATED_AT("createdAt", "p.createdAt", false, ProductEntity::getCreatedAt),
+    UPDATED_AT("updatedAt", "p.updatedAt", true, ProductEntity::getUpdatedAt),
+    OWNER_NAME("owner.name", "p.owner.name", false, product -> product.getOwner().getName()),
+    OWNER_EMAIL("owner.email", "p.owner.email", false, product -> product.getOwner().getEmail()),
+    DESCRIPTION("description", "p.description", true, ProductEntity::getDescription);
+
+    private final String property;
+    private final String path;
+    private final boolean nullable;
+    private final Function<ProductEntity, Object> accessor;
+
+    ProductSortKey(String property, String path, boolean nullable, Function<ProductEntity, Object> accessor) {
+        this.property = property;
+        this.path = path;
+        this.nullable = nullable;
+        this.accessor = accessor;
+    }
+
+    /**
+     * @return la clave de la propiedad, o null si no se permite ordenar por ella
+     */
+    public static ProductSortKey fromProperty(String property) {
+        for (ProductSortKey key : values()) {
+            if (key.property.equals(property)) {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    public Object valueOf(ProductEntity product) {
+        return accessor.apply(product);
+    }
+
+    /**
+     * Valor → texto del cursor
+     */
+    public String format(Object value) {
+        return value.toString();
+    }
+
+    /**
+     * Texto del cursor → valor con el tipo de la columna
+     *
+     * @throws IllegalArgumentException si el texto no corresponde al tipo
+     */
+    public Object parse(String text) {
+        return switch (this) {
+            case ID -> Long.valueOf(text);
+            case PRICE -> Double.valueOf(text);
+            case CREATED_AT, UPDATED_AT -> LocalDateTime.parse(text);
+            default -> text;
+        };
+    }
+}
@@ -0,0 +1,31 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Locale;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
+
+/**
+ * Cómo se combinan varias categorías en una búsqueda (?categoryIds=1,2&mode=...)
+ *
+ * - ALL:  el producto está en TODAS las categorías (AND)
+ * - ANY:  está en al menos una (OR)
+ * - NONE: no está en ninguna (NOT OR)
+ */
+public enum CategoryMatchMode {
+
+    ALL, ANY, NONE;
+
+    /**
+     * @throws BadRequestException si el valor no es all, any ni none
+     */
+    public static CategoryMatchMode parse(String value) {
+        if (value == null || value.isBlank()) {
+            return ANY;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Modo de categorías no válido: " + value + " (all, any o none)");
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import javax.sql.DataSource;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+
+/**
+ * CategoryMembershipIndex: Un Roaring bitmap de ids de producto por categoría
+ *
+ * PROBLEMA:
+ * - "Productos en todas estas categorías" era un COUNT correlacionado por fila
+ *   (findByAllCategories) y "en alguna / en ninguna" no existía
+ *
+ * SOLUCIÓN:
+ * - categoryId → RoaringBitmap con los ids de sus productos (+ uno con todos)
+ * - ALL / ANY / NONE = AND / OR / ANDNOT de bitmaps comprimidos: microsegundos
+ *   aun con cientos de miles de productos por categoría
+ *
+ * Los ids se guardan como int: se asume id de producto < 2^31 (IDENTITY).
+ *
+ * Es eventualmente consistente (por nodo): SqlProductSearchBackend solo lo
+ * usa para estimateCount() y filtra páginas y totales en SQL. Solo existe
+ * con ese backend.
+ *
+ * FRESCURA (igual que CategoryRegistry):
+ * - Carga completa al arrancar: recorrido de products y product_categories
+ * - ProductsChangedEvent después del commit → se recargan los vínculos de esos ids
+ * - Durante una carga completa esos ids también se acumulan y se vuelven a
+ *   leer después del reemplazo (el recorrido pudo leerlos antes del cambio)
+ * - Cada category-index.refresh-interval → recarga completa (otros nodos)
+ */
+@Component
+@ConditionalOnProperty(prefix = "product-search", name = "backend", havingValue = "sql", matchIfMissing = true)
+public class CategoryMembershipIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CategoryMembershipIndex.class);
+
+    private static final int SCAN_FETCH_SIZE = 10_000;
+
+    private final ProductRepository productRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private RoaringBitmap allProducts = new RoaringBitmap();
+    private Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+
+    /**
+     * Ids cambiados mientras corre rebuild() (null si no hay carga en curso);
+     * protegido por el write lock
+     */
+    private Set<Long> changedDuringRebuild;
+
+    public CategoryMembershipIndex(ProductRepository productRepo,
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager) {
+        this.productRepo = productRepo;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(SCAN_FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    // ============== CONSULTA ==============
+
+    /**
+     * Ids de producto que cumplen la combinación de categorías (bitmap nuevo, del llamador)
+     *
+     * Una categoría sin productos (o inexistente) es un bitmap vacío:
+     * ALL → vacío, ANY / NONE → se ignora.
+     */
+    public RoaringBitmap match(Set<Long> categoryIds, CategoryMatchMode mode) {
+        lock.readLock().lock();
+        try {
+            List<RoaringBitmap> members = new ArrayList<>(categoryIds.size());
+            for (Long categoryId : categoryIds) {
+                RoaringBitmap bitmap = byCategory.get(categoryId);
+                if (bitmap == null) {
+                    if (mode == CategoryMatchMode.ALL) {
+                        return new RoaringBitmap();
+                    }
+                    continue;
+                }
+                members.add(bitmap);
+            }
+
+            return switch (mode) {
+                case ALL -> FastAggregation.and(members.iterator());
+                case ANY -> FastAggregation.or(members.iterator());
+                case NONE -> RoaringBitmap.andNot(allProducts, FastAggregation.or(members.iterator()));
+            };
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ============== ACTUALIZACIÓN ==============
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${category-index.refresh-interval:300000}",
+            initialDelayString = "${category-index.refresh-interval:300000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        RoaringBitmap products = new RoaringBitmap();
+        Map<Long, RoaringBitmap> categories = new HashMap<>();
+
+        try {
+            // Dentro de una transacción: el driver de PostgreSQL solo usa cursor (fetch size) sin autocommit
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.query("SELECT id FROM products",
+                        rs -> {
+                            products.add(Math.toIntExact(rs.getLong(1)));
+                        });
+                jdbcTemplate.query("SELECT product_id, category_id FROM product_categories",
+                        rs -> {
+                            categories.computeIfAbsent(rs.getLong(2), key -> new RoaringBitmap())
+                                    .add(Math.toIntExact(rs.getLong(1)));
+                        });
+            });
+        } catch (RuntimeException e) {
+            // Sin reemplazo: los bitmaps actuales ya recibieron esos cambios
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        products.runOptimize();
+        categories.values().forEach(RoaringBitmap::runOptimize);
+
+        Set<Long> changed;
+        lock.writeLock().lock();
+        try {
+            allProducts = products;
+            byCategory = categories;
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.debug("Índice de categorías recargado: {} productos, {} categorías",
+                products.getCardinality(), categories.size());
+
+        if (!changed.isEmpty()) {
+            refresh(changed);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        refresh(event.productIds());
+    }
+
+    /**
+     * Vuelve a leer los vínculos de los productos cambiados (una consulta)
+     */
+    private void refresh(Collection<Long> productIds) {
+        List<Object[]> links = productRepo.findCategoryLinks(productIds);
+
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(productIds);
+            }
+            for (Long productId : productIds) {
+                int id = Math.toIntExact(productId);
+                allProducts.remove(id);
+                byCategory.values().forEach(bitmap -> bitmap.remove(id));
+            }
+            for (Object[] link : links) {
+                int id = Math.toIntExact((Long) link[0]);
+                allProducts.add(id);
+                if (link[1] != null) {
+                    byCategory.computeIfAbsent((Long) link[1], key -> new RoaringBitmap()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.ServiceUnavailableException;
+import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductSortKey;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductSearchIndex.Candidate;
+import ec.edu.ups.icc.fundamentos01.users.services.UserUpdatedEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Búsqueda en memoria con ProductSearchIndex (product-search.backend=memory)
+ *
+ * Para el tráfico de búsqueda más alto: ninguna consulta a la BD para la
+ * fase 1 (IDs); solo la hidratación de la página. También sirve para H2 /
+ * pruebas porque no depende de extensiones de la BD.
+ *
+ * Mismos filtros y orden que SqlProductSearchBackend; RELEVANCE es la
+ * similitud de trigramas (como similarity() de pg_trgm).
+ *
+ * FRESCURA:
+ * - Carga completa al arrancar por streaming (ids por cursor + un SELECT por bloque)
+ * - Hasta terminar la primera carga las búsquedas responden 503: un índice
+ *   vacío devolvería resultados vacíos como si fueran correctos
+ * - ProductsChangedEvent después del commit → se recargan solo esos ids
+ *   (un id que ya no existe se quita)
+ * - Durante una carga completa los ids cambiados también se acumulan y se
+ *   vuelven a leer después del reemplazo: el recorrido pudo leerlos antes
+ *   del cambio y el índice nuevo los perdería
+ * - UserUpdatedEvent → se recargan los productos de ese dueño (ownerName y
+ *   el orden OWNER_NAME guardan su nombre)
+ * - La compactación corre en un hilo propio: refresh() se ejecuta en el hilo
+ *   de la petición (listener después del commit) y no debe esperarla
+ */
+@Component
+@ConditionalOnProperty(prefix = "product-search", name = "backend", havingValue = "memory")
+public class InMemoryProductSearchBackend implements ProductSearchBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryProductSearchBackend.class);
+
+    private final ProductRepository productRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private ProductSearchIndex index = new ProductSearchIndex();
+
+    /**
+     * false hasta el primer reemplazo del índice
+     */
+    private volatile boolean ready;
+
+    /**
+     * Ids cambiados mientras corre rebuild() (null si no hay carga en curso);
+     * protegido por el write lock
+     */
+    private Set<Long> changedDuringRebuild;
+
+    /**
+     * Ids cambiados mientras se arma una copia compactada (null si no hay
+     * compactación en curso); protegido por el write lock
+     */
+    private Set<Long> changedDuringCompaction;
+
+    /**
+     * Un solo hilo: nunca hay dos compactaciones a la vez
+     */
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-index-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public InMemoryProductSearchBackend(ProductRepository productRepo,
+            PlatformTransactionManager transactionManager,
+            EntityManager entityManager) {
+        this.productRepo = productRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+    }
+
+    // ============== CONSULTA ==============
+
+    @Override
+    public Slice<Long> findIdSlice(ProductSearchCriteria criteria, Pageable pageable) {
+        requireReady();
+        Comparator<Candidate> order = comparator(pageable.getSort(), criteria.name());
+        ToDoubleFunction<IndexedProduct> relevance = relevance(pageable.getSort(), criteria.name());
+
+        ProductSearchIndex.SearchResult result;
+        lock.readLock().lock();
+        try {
+            result = index.search(criteria, order, relevance,
+                    (int) pageable.getOffset(), pageable.getPageSize() + 1);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Long> ids = result.ids();
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    /**
+     * Cardinalidad del BitSet de coincidencias: ya es barato, sin consultar la BD
+     */
+    @Override
+    public long count(ProductSearchCriteria criteria) {
+        requireReady();
+        lock.readLock().lock();
+        try {
+            return index.matching(criteria).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sin índice todavía: null (sin estimación) y el total se resuelve por otro modo
+     */
+    @Override
+    public Long estimateCount(ProductSearchCriteria criteria) {
+        return ready ? count(criteria) : null;
+    }
+
+    @Override
+    public ProductFacets facets(ProductSearchCriteria criteria, double[] priceBounds) {
+        requireReady();
+        ProductSearchCriteria base = criteria.withoutCategories();
+
+        lock.readLock().lock();
+        try {
+            return index.facets(base, priceBounds);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void requireReady() {
+        if (!ready) {
+            throw new ServiceUnavailableException(
+                    "El índice de búsqueda se está cargando, intente de nuevo en unos segundos");
+        }
+    }
+
+    /**
+     * Puntaje de similitud si el orden pide "relevance" con texto; null si no
+     */
+    private static ToDoubleFunction<IndexedProduct> relevance(Sort sort, String text) {
+        if (text == null || sort.getOrderFor(RELEVANCE) == null) {
+            return null;
+        }
+        Set<String> textGrams = paddedGrams(text);
+        return product -> similarity(textGrams, paddedGrams(product.name()));
+    }
+
+    private static Comparator<Candidate> comparator(Sort sort, String text) {
+        Comparator<Candidate> comparator = null;
+
+        for (Sort.Order order : sort) {
+            Comparator<Candidate> next;
+            if (RELEVANCE.equals(order.getProperty())) {
+                if (text == null) {
+                    continue;
+                }
+                // Más similar primero en ASC y en DESC: "relevance" no tiene dirección.
+                // El puntaje lo calcula search() una vez por candidato (relevance())
+                next = Comparator.comparingDouble(Candidate::score).reversed();
+            } else {
+                ProductSortKey key = ProductSortKey.fromProperty(order.getProperty());
+                if (key == null) {
+                    throw new BadRequestException("Propiedad de ordenamiento no válida: " + order.getProperty());
+                }
+                next = byKey(key, order.isDescending());
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+
+        Comparator<Candidate> byId = Comparator.comparing(candidate -> candidate.product().id());
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Comparator<Candidate> byKey(ProductSortKey key, boolean descending) {
+        Comparator<Comparable> values = descending ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        // NULLS LAST en ambas direcciones, igual que en SQL
+        return Comparator.comparing(
+                candidate -> (Comparable) candidate.product().sortValues()[key.ordinal()],
+                Comparator.nullsLast(values));
+    }
+
+    // ============== ACTUALIZACIÓN ==============
+
+    /**
+     * Índice nuevo desde un recorrido por streaming; reemplaza al actual al terminar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        ProductSearchIndex loaded = new ProductSearchIndex();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Long> ids = productRepo.streamIdsForExport()) {
+                    List<Long> chunk = new ArrayList<>(ProductRepository.EXPORT_FETCH_SIZE);
+                    for (Long id : (Iterable<Long>) ids::iterator) {
+                        chunk.add(id);
+                        if (chunk.size() == ProductRepository.EXPORT_FETCH_SIZE) {
+                            loadChunk(loaded, chunk);
+                        }
+                    }
+                    loadChunk(loaded, chunk);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Sin reemplazo: el índice actual ya recibió esos cambios
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        Set<Long> changed;
+        lock.writeLock().lock();
+        try {
+            index = loaded;
+            changed = changedDuringRebuild;
+            changedDuringRebuild = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Índice de búsqueda en memoria: {} productos", loaded.size());
+
+        if (!changed.isEmpty()) {
+            refresh(changed);
+            logger.info("Índice de búsqueda en memoria: {} productos cambiados durante la carga", changed.size());
+        }
+    }
+
+    /**
+     * Un bloque de IDs → UN SELECT con owner y categorías
+     */
+    private void loadChunk(ProductSearchIndex loaded, List<Long> chunk) {
+        if (!chunk.isEmpty()) {
+            for (ProductEntity product : productRepo.findAllWithDetailsByIdIn(chunk)) {
+                loaded.put(IndexedProduct.of(product));
+            }
+        }
+        entityManager.clear();
+        chunk.clear();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        refresh(event.productIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        List<Long> ids = productRepo.findIdsByOwnerId(event.userId());
+        if (!ids.isEmpty()) {
+            refresh(ids);
+        }
+    }
+
+    /**
+     * Vuelve a leer esos ids de la BD y los reemplaza en el índice
+     */
+    private void refresh(Collection<Long> productIds) {
+        List<ProductEntity> current = productRepo.findAllWithDetailsByIdIn(productIds);
+
+        boolean compact;
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.addAll(productIds);
+            }
+            if (changedDuringCompaction != null) {
+                changedDuringCompaction.addAll(productIds);
+            }
+            productIds.forEach(index::remove);
+            for (ProductEntity product : current) {
+                index.put(IndexedProduct.of(product));
+            }
+            compact = changedDuringCompaction == null && index.needsCompaction();
+            if (compact) {
+                changedDuringCompaction = new HashSet<>();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (compact) {
+            compactor.execute(this::compact);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        compactor.shutdownNow();
+    }
+
+    /**
+     * Copia compactada armada FUERA del write lock
+     *
+     * - Read lock solo para copiar la lista de vigentes (las búsquedas siguen)
+     * - El índice nuevo se arma sin lock
+     * - Write lock para reaplicar los ids cambiados mientras tanto y reemplazar;
+     *   si rebuild() ya reemplazó el índice, la copia se descarta
+     * - Si falla, el índice actual sigue sirviendo y el próximo refresh() reintenta
+     */
+    private void compact() {
+        ProductSearchIndex source;
+        ProductSearchIndex compacted;
+        try {
+            List<IndexedProduct> products;
+            lock.readLock().lock();
+            try {
+                source = index;
+                products = source.liveProducts();
+            } finally {
+                lock.readLock().unlock();
+            }
+            compacted = ProductSearchIndex.of(products);
+        } catch (RuntimeException ex) {
+            logger.warn("Compactación del índice de productos fallida", ex);
+            lock.writeLock().lock();
+            try {
+                changedDuringCompaction = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (index == source) {
+                for (Long id : changedDuringCompaction) {
+                    IndexedProduct product = source.get(id);
+                    compacted.remove(id);
+                    if (product != null) {
+                        compacted.put(product);
+                    }
+                }
+                index = compacted;
+            }
+            changedDuringCompaction = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // ============== SIMILITUD ==============
+
+    /**
+     * Trigramas con relleno, como pg_trgm ("  lap", ..., "op ")
+     */
+    private static Set<String> paddedGrams(String text) {
+        return ProductSearchIndex.grams("  " + text + " ");
+    }
+
+    private static double similarity(Set<String> a, Set<String> b) {
+        int shared = 0;
+        for (String gram : a) {
+            if (b.contains(gram)) {
+                shared++;
+            }
+        }
+        int union = a.size() + b.size() - shared;
+        return union == 0 ? 0 : (double) shared / union;
+    }
+}
@@ -0,0 +1,50 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Locale;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductSortKey;
+
+/**
+ * Copia inmutable de lo que filtran y ordenan las búsquedas en memoria
+ *
+ * name / ownerName en minúsculas; sortValues: un valor por ProductSortKey
+ * (índice = ordinal) para ordenar sin volver a la entidad.
+ */
+record IndexedProduct(
+        Long id,
+        String name,
+        Long ownerId,
+        String ownerName,
+        Double price,
+        long[] categoryIds,
+        Object[] sortValues) {
+
+    static IndexedProduct of(ProductEntity product) {
+        long[] categoryIds = new long[product.getCategories().size()];
+        int i = 0;
+        for (CategoryEntity category : product.getCategories()) {
+            categoryIds[i++] = category.getId();
+        }
+
+        ProductSortKey[] keys = ProductSortKey.values();
+        Object[] sortValues = new Object[keys.length];
+        for (ProductSortKey key : keys) {
+            sortValues[key.ordinal()] = key.valueOf(product);
+        }
+
+        return new IndexedProduct(
+                product.getId(),
+                lower(product.getName()),
+                product.getOwner().getId(),
+                lower(product.getOwner().getName()),
+                product.getPrice(),
+                categoryIds,
+                sortValues);
+    }
+
+    private static String lower(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+}
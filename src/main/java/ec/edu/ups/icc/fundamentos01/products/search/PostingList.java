@@ -0,0 +1,88 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Lista de posiciones (slots) comprimida: deltas en varint sobre un byte[]
+ *
+ * Los slots de ProductSearchIndex solo crecen, así que agregar siempre es
+ * al final: delta = slot - último (1 byte mientras los slots estén a < 128
+ * de distancia, contra 4 de un int[]). Solo se recorre en orden.
+ */
+final class PostingList {
+
+    private byte[] bytes = new byte[4];
+    private int length;
+    private int size;
+    private int last = -1;
+
+    void add(int slot) {
+        if (slot <= last) {
+            throw new IllegalArgumentException("Los slots deben agregarse en orden creciente");
+        }
+        int delta = slot - last;
+        while ((delta & ~0x7F) != 0) {
+            append((byte) ((delta & 0x7F) | 0x80));
+            delta >>>= 7;
+        }
+        append((byte) delta);
+        last = slot;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Marca todos los slots de la lista en "target"
+     */
+    void addTo(BitSet target) {
+        int slot = -1;
+        int position = 0;
+        while (position < length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            slot += delta;
+            target.set(slot);
+        }
+    }
+
+    /**
+     * Slots de la lista que también están en "candidates" (intersección)
+     */
+    BitSet retain(BitSet candidates) {
+        BitSet kept = new BitSet();
+        int slot = -1;
+        int position = 0;
+        while (position < length) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            slot += delta;
+            if (candidates.get(slot)) {
+                kept.set(slot);
+            }
+        }
+        return kept;
+    }
+
+    private void append(byte b) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[length++] = b;
+    }
+}
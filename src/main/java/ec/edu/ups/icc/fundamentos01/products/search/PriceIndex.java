@@ -0,0 +1,101 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Precios ordenados en arreglos primitivos (double[] + int[] de slots en paralelo)
+ *
+ * - Rango [min, max]: búsqueda binaria del inicio y recorrido hasta max
+ * - Altas: a un búfer pendiente (recorrido lineal); al llenarse se mezcla
+ *   con el arreglo ordenado en O(n), sin reordenar todo
+ * - Bajas: el slot queda hasta la próxima mezcla; la máscara de slots
+ *   vivos de ProductSearchIndex lo descarta en las consultas
+ */
+final class PriceIndex {
+
+    private static final int MAX_PENDING = 4096;
+
+    private double[] prices = new double[0];
+    private int[] slots = new int[0];
+
+    private double[] pendingPrices = new double[64];
+    private int[] pendingSlots = new int[64];
+    private int pending;
+
+    void add(int slot, double price) {
+        if (pending == pendingPrices.length) {
+            pendingPrices = Arrays.copyOf(pendingPrices, pending * 2);
+            pendingSlots = Arrays.copyOf(pendingSlots, pending * 2);
+        }
+        pendingPrices[pending] = price;
+        pendingSlots[pending] = slot;
+        pending++;
+    }
+
+    boolean needsMerge() {
+        return pending >= MAX_PENDING;
+    }
+
+    /**
+     * Marca en "target" los slots con precio en [min, max] (null = sin límite)
+     */
+    void collect(Double min, Double max, BitSet target) {
+        int from = min == null ? 0 : lowerBound(prices, min);
+        for (int i = from; i < prices.length && (max == null || prices[i] <= max); i++) {
+            target.set(slots[i]);
+        }
+        for (int i = 0; i < pending; i++) {
+            double price = pendingPrices[i];
+            if ((min == null || price >= min) && (max == null || price <= max)) {
+                target.set(pendingSlots[i]);
+            }
+        }
+    }
+
+    /**
+     * Mezcla el búfer pendiente con el arreglo ordenado y descarta slots muertos
+     */
+    void merge(BitSet live) {
+        Integer[] order = new Integer[pending];
+        for (int i = 0; i < pending; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(pendingPrices[a], pendingPrices[b]));
+
+        double[] mergedPrices = new double[prices.length + pending];
+        int[] mergedSlots = new int[prices.length + pending];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < prices.length || j < pending) {
+            boolean fromBase = j == pending
+                    || (i < prices.length && prices[i] <= pendingPrices[order[j]]);
+            double price = fromBase ? prices[i] : pendingPrices[order[j]];
+            int slot = fromBase ? slots[i++] : pendingSlots[order[j++]];
+            if (live.get(slot)) {
+                mergedPrices[size] = price;
+                mergedSlots[size] = slot;
+                size++;
+            }
+        }
+
+        prices = Arrays.copyOf(mergedPrices, size);
+        slots = Arrays.copyOf(mergedSlots, size);
+        pending = 0;
+    }
+
+    private static int lowerBound(double[] values, double key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,47 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+
+/**
+ * Configuración de los totales de páginas de productos (prefijo "product-count")
+ *
+ * - default-mode: modo cuando el request no envía ?count= ni X-Count-Mode
+ * - maximum-size / ttl: caché de totales exactos por filtro normalizado
+ */
+@Configuration
+@ConfigurationProperties(prefix = "product-count")
+public class ProductCountProperties {
+
+    private CountMode defaultMode = CountMode.EXACT;
+    private Long maximumSize = 10000L;
+    private Long ttl = 30000L;
+
+    // GETTERS Y SETTERS
+    public CountMode getDefaultMode() {
+        return defaultMode;
+    }
+
+    public void setDefaultMode(CountMode defaultMode) {
+        this.defaultMode = defaultMode;
+    }
+
+    public Long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(Long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    public Long getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Long ttl) {
+        this.ttl = ttl;
+    }
+
+}
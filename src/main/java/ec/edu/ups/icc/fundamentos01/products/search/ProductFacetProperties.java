@@ -0,0 +1,41 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración de las facetas de /api/products/search (prefijo "product-search.facets")
+ *
+ * - price-buckets: límites inferiores de los rangos de precio cuando el
+ *   request no envía ?priceBuckets=... ([0, 10), [10, 25), ..., [1000, ∞))
+ * - timeout: tope en milisegundos de la consulta de facetas del backend sql;
+ *   si se excede, la respuesta lleva facets.complete = false
+ */
+@Configuration
+@ConfigurationProperties(prefix = "product-search.facets")
+public class ProductFacetProperties {
+
+    private List<Double> priceBuckets = new ArrayList<>(List.of(0.0, 10.0, 25.0, 50.0, 100.0, 250.0, 500.0, 1000.0));
+    private long timeout = 250L;
+
+    // GETTERS Y SETTERS
+    public List<Double> getPriceBuckets() {
+        return priceBuckets;
+    }
+
+    public void setPriceBuckets(List<Double> priceBuckets) {
+        this.priceBuckets = priceBuckets;
+    }
+
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+}
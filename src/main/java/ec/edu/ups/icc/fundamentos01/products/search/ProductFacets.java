@@ -0,0 +1,28 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Conteos de facetas de una búsqueda
+ *
+ * - categoryCounts: categoryId → productos que cumplen los filtros y están
+ *   en esa categoría (solo categorías con al menos uno)
+ * - priceBucketCounts[i]: productos con precio en [bounds[i], bounds[i + 1]);
+ *   el último rango no tiene tope
+ * - complete: false si el cálculo se cortó por tiempo (conteos vacíos)
+ */
+public record ProductFacets(Map<Long, Long> categoryCounts, long[] priceBucketCounts, boolean complete) {
+
+    public static ProductFacets incomplete(double[] priceBounds) {
+        return new ProductFacets(Map.of(), new long[priceBounds.length], false);
+    }
+
+    /**
+     * Rango del precio: i tal que bounds[i] <= price < bounds[i + 1]; -1 si es menor que bounds[0]
+     */
+    static int bucketOf(double price, double[] bounds) {
+        int index = Arrays.binarySearch(bounds, price);
+        return index >= 0 ? index : -index - 2;
+    }
+}
@@ -0,0 +1,48 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+/**
+ * ProductSearchBackend: Fase 1 de las búsquedas con filtros (IDs paginados)
+ *
+ * La página de IDs y su total van por separado: ProductTotalCounter decide
+ * si el total es exacto (count), de caché o estimado (estimateCount).
+ *
+ * ProductServiceImpl hidrata los IDs con findAllWithDetailsByIdIn, igual que
+ * en la paginación en dos fases. Implementaciones (product-search.backend):
+ * - sql:    JPQL dinámico; en PostgreSQL los LIKE '%x%' usan índices GIN pg_trgm
+ * - memory: índice invertido de trigramas en memoria (H2, pruebas, un solo nodo)
+ *
+ * Orden: las propiedades de ProductSortKey o RELEVANCE (similitud del
+ * nombre con el texto buscado; sin texto equivale a ordenar por id).
+ */
+public interface ProductSearchBackend {
+
+    String RELEVANCE = "relevance";
+
+    /**
+     * IDs de la página sin total; hasNext confiable (se leen size + 1)
+     */
+    Slice<Long> findIdSlice(ProductSearchCriteria criteria, Pageable pageable);
+
+    /**
+     * Total exacto de productos que cumplen el criterio
+     */
+    long count(ProductSearchCriteria criteria);
+
+    /**
+     * Total aproximado sin recorrer los datos, o null si no se puede estimar
+     */
+    Long estimateCount(ProductSearchCriteria criteria);
+
+    /**
+     * Conteos por categoría y por rango de precio en una sola pasada
+     *
+     * Facetas disyuntivas: se ignoran categoryId / categoryIds del criterio,
+     * así cada categoría muestra cuántos productos tendría al elegirla.
+     *
+     * @param priceBounds límites inferiores de los rangos, estrictamente crecientes
+     */
+    ProductFacets facets(ProductSearchCriteria criteria, double[] priceBounds);
+}
@@ -0,0 +1,56 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Filtros de búsqueda de productos (todos opcionales)
+ *
+ * Mismo significado que los filtros de /api/products/search:
+ * - name / ownerName: "contiene", sin distinguir mayúsculas
+ * - minPrice / maxPrice: rango cerrado
+ * - categoryId: el producto pertenece a esa categoría
+ * - categoryIds + categoryMode: pertenece a todas / alguna / ninguna (ALL / ANY / NONE)
+ * - userId: productos de ese dueño
+ *
+ * Los textos se normalizan una vez (trim + minúsculas; vacío = sin filtro).
+ */
+public record ProductSearchCriteria(
+        Long userId,
+        String name,
+        String ownerName,
+        Double minPrice,
+        Double maxPrice,
+        Long categoryId,
+        Set<Long> categoryIds,
+        CategoryMatchMode categoryMode) {
+
+    // Sin filtros: todo el catálogo
+    public static final ProductSearchCriteria ALL = new ProductSearchCriteria(null, null, null, null, null, null);
+
+    public ProductSearchCriteria {
+        name = normalize(name);
+        ownerName = normalize(ownerName);
+        categoryIds = categoryIds == null || categoryIds.isEmpty() ? null : Set.copyOf(categoryIds);
+        categoryMode = categoryMode == null ? CategoryMatchMode.ANY : categoryMode;
+    }
+
+    public ProductSearchCriteria(Long userId, String name, String ownerName,
+            Double minPrice, Double maxPrice, Long categoryId) {
+        this(userId, name, ownerName, minPrice, maxPrice, categoryId, null, null);
+    }
+
+    /**
+     * Mismo criterio sin filtros de categoría (base de las facetas)
+     */
+    public ProductSearchCriteria withoutCategories() {
+        return new ProductSearchCriteria(userId, name, ownerName, minPrice, maxPrice, null);
+    }
+
+    public static String normalize(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+}
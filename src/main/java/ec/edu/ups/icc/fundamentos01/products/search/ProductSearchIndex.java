@@ -0,0 +1,348 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * ProductSearchIndex: Motor de búsqueda en memoria de productos
+ *
+ * Cada producto ocupa un "slot" (entero denso, solo crece). Estructuras:
+ * - Nombre: trigrama → PostingList (slots en varint + delta)
+ * - Precio: PriceIndex (arreglos primitivos ordenados por precio)
+ * - Categoría: categoryId → BitSet de slots (ALL / ANY / NONE = AND / OR / ANDNOT)
+ * - Dueño: ownerId → PostingList de slots; ownerId → nombre en minúsculas
+ * - live: BitSet de slots vigentes
+ *
+ * Una actualización no reescribe listas comprimidas: el slot anterior se
+ * marca muerto y el producto entra en un slot nuevo al final de cada lista.
+ * Cuando los muertos superan MAX_DEAD_RATIO se reconstruye: liveProducts()
+ * copia los vigentes y of() arma el índice nuevo (fuera del lock del backend).
+ *
+ * Consulta: cada filtro produce/recorta un BitSet (AND); el texto se
+ * confirma con contains() porque tener los trigramas no garantiza el orden.
+ *
+ * NO es thread-safe: InMemoryProductSearchBackend lo protege con un
+ * ReadWriteLock.
+ */
+final class ProductSearchIndex {
+
+    static final int GRAM = 3;
+
+    private static final double MAX_DEAD_RATIO = 0.25;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    private IndexedProduct[] docs = new IndexedProduct[1024];
+    private int nextSlot;
+    private int dead;
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> slotsByProduct = new HashMap<>();
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final PriceIndex prices = new PriceIndex();
+    private final Map<Long, BitSet> categories = new HashMap<>();
+    private final Map<Long, PostingList> owners = new HashMap<>();
+    private final Map<Long, String> ownerNames = new HashMap<>();
+
+    // ============== ESCRITURA ==============
+
+    void put(IndexedProduct product) {
+        remove(product.id());
+
+        int slot = nextSlot++;
+        if (slot == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        docs[slot] = product;
+        live.set(slot);
+        slotsByProduct.put(product.id(), slot);
+
+        for (String gram : grams(product.name())) {
+            postings.computeIfAbsent(gram, key -> new PostingList()).add(slot);
+        }
+        if (product.price() != null) {
+            prices.add(slot, product.price());
+            if (prices.needsMerge()) {
+                prices.merge(live);
+            }
+        }
+        for (long categoryId : product.categoryIds()) {
+            categories.computeIfAbsent(categoryId, key -> new BitSet()).set(slot);
+        }
+        owners.computeIfAbsent(product.ownerId(), key -> new PostingList()).add(slot);
+        ownerNames.put(product.ownerId(), product.ownerName());
+    }
+
+    void remove(Long productId) {
+        Integer slot = slotsByProduct.remove(productId);
+        if (slot == null) {
+            return;
+        }
+
+        // Las PostingList conservan el slot hasta compactar; live lo descarta
+        for (long categoryId : docs[slot].categoryIds()) {
+            BitSet members = categories.get(categoryId);
+            if (members != null) {
+                members.clear(slot);
+            }
+        }
+        docs[slot] = null;
+        live.clear(slot);
+        dead++;
+    }
+
+    int size() {
+        return slotsByProduct.size();
+    }
+
+    boolean needsCompaction() {
+        return dead >= MIN_DEAD_TO_COMPACT && dead > MAX_DEAD_RATIO * nextSlot;
+    }
+
+    /**
+     * Versión vigente de un producto (null si no está)
+     */
+    IndexedProduct get(Long productId) {
+        Integer slot = slotsByProduct.get(productId);
+        return slot == null ? null : docs[slot];
+    }
+
+    /**
+     * Copia de los productos vigentes en orden de slot (IndexedProduct es inmutable)
+     */
+    List<IndexedProduct> liveProducts() {
+        List<IndexedProduct> products = new ArrayList<>(size());
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1)) {
+            products.add(docs[slot]);
+        }
+        return products;
+    }
+
+    /**
+     * Índice nuevo solo con esos productos (mismo orden relativo de slots)
+     */
+    static ProductSearchIndex of(List<IndexedProduct> products) {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (IndexedProduct product : products) {
+            index.put(product);
+        }
+        return index;
+    }
+
+    // ============== CONSULTA ==============
+
+    SearchResult search(ProductSearchCriteria criteria, Comparator<Candidate> order, int offset, int limit) {
+        return search(criteria, order, null, offset, limit);
+    }
+
+    /**
+     * Página de ids ordenada por "order" + total de coincidencias
+     *
+     * Solo se ordenan offset + limit elementos (cola de prioridad acotada).
+     * "scorer" (opcional, p. ej. relevancia) se calcula UNA vez por candidato
+     * y viaja en Candidate.score; el candidato que no entra en la cola se
+     * reutiliza para el siguiente slot.
+     */
+    SearchResult search(ProductSearchCriteria criteria, Comparator<Candidate> order,
+            ToDoubleFunction<IndexedProduct> scorer, int offset, int limit) {
+        BitSet matching = matching(criteria);
+        int total = matching.cardinality();
+
+        int keep = (int) Math.min((long) offset + limit, total);
+        if (keep <= offset) {
+            return new SearchResult(List.of(), total);
+        }
+
+        // Cabeza de la cola = peor de los "keep" mejores
+        PriorityQueue<Candidate> best = new PriorityQueue<>(keep, order.reversed());
+        Candidate next = new Candidate();
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            next.product = docs[slot];
+            next.score = scorer == null ? 0 : scorer.applyAsDouble(next.product);
+            if (best.size() < keep) {
+                best.add(next);
+                next = new Candidate();
+            } else if (order.compare(next, best.peek()) < 0) {
+                Candidate evicted = best.poll();
+                best.add(next);
+                next = evicted;
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        List<Long> ids = new ArrayList<>(keep - offset);
+        for (Candidate candidate : sorted.subList(offset, keep)) {
+            ids.add(candidate.product.id());
+        }
+        return new SearchResult(ids, total);
+    }
+
+    /**
+     * Una pasada por los slots que cumplen el criterio: categorías + rango de precio
+     */
+    ProductFacets facets(ProductSearchCriteria criteria, double[] priceBounds) {
+        BitSet matching = matching(criteria);
+        Map<Long, long[]> perCategory = new HashMap<>();
+        long[] buckets = new long[priceBounds.length];
+
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            IndexedProduct product = docs[slot];
+            for (long categoryId : product.categoryIds()) {
+                perCategory.computeIfAbsent(categoryId, key -> new long[1])[0]++;
+            }
+            if (product.price() != null) {
+                int bucket = ProductFacets.bucketOf(product.price(), priceBounds);
+                if (bucket >= 0) {
+                    buckets[bucket]++;
+                }
+            }
+        }
+
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        perCategory.forEach((categoryId, count) -> categoryCounts.put(categoryId, count[0]));
+        return new ProductFacets(categoryCounts, buckets, true);
+    }
+
+    BitSet matching(ProductSearchCriteria criteria) {
+        BitSet result = (BitSet) live.clone();
+
+        if (criteria.categoryId() != null) {
+            BitSet members = categories.get(criteria.categoryId());
+            if (members == null) {
+                return new BitSet();
+            }
+            result.and(members);
+        }
+        if (criteria.categoryIds() != null) {
+            result = matchingCategories(criteria.categoryIds(), criteria.categoryMode(), result);
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        if (criteria.userId() != null) {
+            PostingList owned = owners.get(criteria.userId());
+            if (owned == null) {
+                return new BitSet();
+            }
+            result = owned.retain(result);
+        }
+        if (criteria.ownerName() != null) {
+            BitSet owned = new BitSet();
+            ownerNames.forEach((ownerId, ownerName) -> {
+                if (ownerName.contains(criteria.ownerName())) {
+                    owners.get(ownerId).addTo(owned);
+                }
+            });
+            result.and(owned);
+        }
+        if (criteria.minPrice() != null || criteria.maxPrice() != null) {
+            BitSet inRange = new BitSet();
+            prices.collect(criteria.minPrice(), criteria.maxPrice(), inRange);
+            result.and(inRange);
+        }
+        if (criteria.name() != null) {
+            result = matchingName(criteria.name(), result);
+        }
+        return result;
+    }
+
+    /**
+     * ALL: AND de los BitSet de cada categoría; ANY: OR; NONE: candidatos sin el OR
+     */
+    private BitSet matchingCategories(Set<Long> categoryIds, CategoryMatchMode mode, BitSet candidates) {
+        BitSet union = new BitSet();
+        for (Long categoryId : categoryIds) {
+            BitSet members = categories.get(categoryId);
+            if (mode == CategoryMatchMode.ALL) {
+                if (members == null) {
+                    return new BitSet();
+                }
+                candidates.and(members);
+            } else if (members != null) {
+                union.or(members);
+            }
+        }
+
+        switch (mode) {
+            case ANY -> candidates.and(union);
+            case NONE -> candidates.andNot(union);
+            case ALL -> {
+                // Ya intersectado
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Intersección de las listas de los trigramas del texto (la más corta
+     * primero) y confirmación con contains() sobre los sobrevivientes
+     */
+    private BitSet matchingName(String text, BitSet candidates) {
+        if (text.length() >= GRAM) {
+            List<PostingList> lists = new ArrayList<>();
+            for (String gram : grams(text)) {
+                PostingList list = postings.get(gram);
+                if (list == null) {
+                    return new BitSet();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            for (PostingList list : lists) {
+                candidates = list.retain(candidates);
+                if (candidates.isEmpty()) {
+                    return candidates;
+                }
+            }
+        }
+
+        for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+            if (!docs[slot].name().contains(text)) {
+                candidates.clear(slot);
+            }
+        }
+        return candidates;
+    }
+
+    // ============== TRIGRAMAS ==============
+
+    /**
+     * Ventanas de GRAM caracteres (para buscar "contiene")
+     */
+    static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    record SearchResult(List<Long> ids, long total) {
+    }
+
+    /**
+     * Producto + puntaje ya calculado; mutable para reutilizarlo en search()
+     */
+    static final class Candidate {
+
+        private IndexedProduct product;
+        private double score;
+
+        IndexedProduct product() {
+            return product;
+        }
+
+        double score() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ec.edu.ups.icc.fundamentos01.shared.dto.CountedPage;
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+import ec.edu.ups.icc.fundamentos01.users.services.UserUpdatedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * ProductTotalCounter: totalElements de las páginas de productos según CountMode
+ *
+ * PROBLEMA:
+ * - Cada Page ejecutaba un COUNT que en tablas grandes cuesta más que la página
+ *
+ * SOLUCIÓN:
+ * - La página se lee como Slice (size + 1 filas): si no hay siguiente y la
+ *   página tiene filas (o es la primera), el total es offset + filas y no se
+ *   cuenta nada (exacto). Una página vacía después del final no dice cuántas
+ *   filas hay antes: se cuenta como cualquier otra
+ * - Si hay siguiente, el total sale del modo pedido:
+ *   EXACT → COUNT; CACHED → caché por filtro normalizado (ProductSearchCriteria);
+ *   ESTIMATED → estimación del backend de búsqueda
+ * - Un total aproximado nunca es menor que offset + filas + 1 (ya se sabe que
+ *   existen al menos esos)
+ *
+ * CACHÉ (Caffeine, product-count.maximum-size / ttl):
+ * - Cada COUNT exacto se guarda
+ * - ProductsChangedEvent (o UserUpdatedEvent) después del commit → se vacía
+ *   completa: cualquier escritura puede cambiar el total de cualquier filtro
+ * - Cambios hechos en otros nodos: los cubre el TTL
+ */
+@Component
+public class ProductTotalCounter {
+
+    private final CountMode defaultMode;
+    private final Cache<ProductSearchCriteria, Long> totals;
+
+    public ProductTotalCounter(ProductCountProperties properties, MeterRegistry meterRegistry) {
+        this.defaultMode = properties.getDefaultMode();
+        this.totals = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtl()))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, totals, "productTotals");
+    }
+
+    /**
+     * Modo del request (?count= o X-Count-Mode); sin valor → product-count.default-mode
+     */
+    public CountMode mode(String requested) {
+        return CountMode.parse(requested, defaultMode);
+    }
+
+    /**
+     * Página con total según "mode"
+     *
+     * @param slice    contenido leído con size + 1 filas (hasNext confiable)
+     * @param key      filtro normalizado (llave de la caché)
+     * @param exact    COUNT exacto
+     * @param estimate estimación, o null si el backend no puede estimar
+     */
+    public <T> CountedPage<T> page(Slice<T> slice, CountMode mode, ProductSearchCriteria key,
+            LongSupplier exact, Supplier<Long> estimate) {
+
+        long offset = slice.getPageable().isPaged() ? slice.getPageable().getOffset() : 0;
+        long known = offset + slice.getNumberOfElements();
+        if (!slice.hasNext() && (slice.hasContent() || offset == 0)) {
+            return new CountedPage<>(slice.getContent(), slice.getPageable(), known, CountMode.EXACT);
+        }
+        // Mínimo para un total aproximado: lo leído + la siguiente (0 si la página está vacía)
+        long atLeast = slice.hasNext() ? known + 1 : 0;
+
+        if (mode == CountMode.ESTIMATED) {
+            Long estimated = estimate.get();
+            if (estimated != null) {
+                return counted(slice, Math.max(estimated, atLeast), CountMode.ESTIMATED);
+            }
+            mode = CountMode.CACHED;
+        }
+
+        if (mode == CountMode.CACHED) {
+            Long cached = totals.getIfPresent(key);
+            if (cached != null) {
+                return counted(slice, Math.max(cached, atLeast), CountMode.CACHED);
+            }
+        }
+
+        long total = exact.getAsLong();
+        totals.put(key, total);
+        return counted(slice, total, CountMode.EXACT);
+    }
+
+    private static <T> CountedPage<T> counted(Slice<T> slice, long total, CountMode accuracy) {
+        return new CountedPage<>(slice.getContent(), slice.getPageable(), total, accuracy);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsChanged(ProductsChangedEvent event) {
+        totals.invalidateAll();
+    }
+
+    // Un cambio de nombre cambia los totales filtrados por ownerName
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserUpdated(UserUpdatedEvent event) {
+        totals.invalidateAll();
+    }
+}
@@ -0,0 +1,16 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.util.Set;
+
+/**
+ * Productos creados, modificados o eliminados en la transacción actual
+ *
+ * Los índices en memoria lo escuchan después del commit y recargan esos ids
+ * (un id que ya no existe se quita del índice).
+ */
+public record ProductsChangedEvent(Set<Long> productIds) {
+
+    public static ProductsChangedEvent of(Long productId) {
+        return new ProductsChangedEvent(Set.of(productId));
+    }
+}
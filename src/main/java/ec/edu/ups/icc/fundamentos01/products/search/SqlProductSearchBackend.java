@@ -0,0 +1,467 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductSortKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Búsqueda en la BD con JPQL dinámico (backend por defecto)
+ *
+ * - Solo se agregan los filtros presentes (sin "(:x IS NULL OR ...)"):
+ *   el planificador ve predicados concretos
+ * - name / ownerName: LOWER(col) LIKE '%texto%' con el patrón armado en Java
+ *   (comodines % y _ escapados: siempre es "contiene" literal)
+ *
+ * POSTGRESQL (db/search/pg_trgm.sql, se aplica al arrancar, idempotente):
+ * - Índices GIN gin_trgm_ops sobre lower(products.name) y lower(users.name):
+ *   el mismo LIKE '%texto%' pasa de seq scan a bitmap index scan
+ * - RELEVANCE = similarity(lower(name), texto) de pg_trgm
+ *
+ * Se eligió pg_trgm y no tsvector: tsvector busca palabras completas y
+ * cambiaría el "contiene" actual ("lap" no encontraría "laptop").
+ *
+ * Otras BD (H2): mismos filtros; RELEVANCE = posición del texto en el nombre.
+ *
+ * VARIAS CATEGORÍAS (categoryIds + ALL / ANY / NONE):
+ * - Páginas y count(): siempre subconsultas EXISTS / NOT EXISTS / COUNT sobre
+ *   product_categories, la BD es la fuente de verdad
+ * - CategoryMembershipIndex es por nodo y eventualmente consistente (las
+ *   escrituras de otros nodos llegan con la recarga periódica): solo se usa
+ *   en estimateCount(), cuyo resultado ya se declara aproximado
+ *
+ * TOTALES: count() = COUNT con el mismo WHERE; estimateCount() = reltuples
+ * o EXPLAIN en PostgreSQL (ver ProductTotalCounter)
+ *
+ * FACETAS (SQL nativo, transacción propia con tope de tiempo):
+ * - PostgreSQL: una consulta con GROUPING SETS ((categoría), (rango de precio))
+ *   y statement_timeout local
+ * - Otras BD: un GROUP BY por categoría y otro por rango, cada uno con
+ *   timeout JDBC (jakarta.persistence.query.timeout, segundos enteros)
+ * - Si se excede product-search.facets.timeout → facetas incompletas, la
+ *   página de resultados no se ve afectada
+ */
+@Component
+@ConditionalOnProperty(prefix = "product-search", name = "backend", havingValue = "sql", matchIfMissing = true)
+public class SqlProductSearchBackend implements ProductSearchBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlProductSearchBackend.class);
+
+    private static final String TRIGRAM_SCRIPT = "db/search/pg_trgm.sql";
+
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+    private static final String QUERY_TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final DataSource dataSource;
+    private final CategoryMembershipIndex categoryIndex;
+    private final ProductFacetProperties facetProperties;
+    private final TransactionTemplate facetTransaction;
+
+    private volatile boolean postgres;
+    private volatile boolean trigramAvailable;
+
+    public SqlProductSearchBackend(DataSource dataSource,
+            CategoryMembershipIndex categoryIndex,
+            ProductFacetProperties facetProperties,
+            PlatformTransactionManager transactionManager) {
+        this.dataSource = dataSource;
+        this.categoryIndex = categoryIndex;
+        this.facetProperties = facetProperties;
+        // Transacción aparte: si la consulta se cancela por tiempo, solo se pierde esta
+        this.facetTransaction = new TransactionTemplate(transactionManager);
+        this.facetTransaction.setReadOnly(true);
+        this.facetTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public Slice<Long> findIdSlice(ProductSearchCriteria criteria, Pageable pageable) {
+        Filter filter = filter(criteria);
+        Map<String, Object> params = new HashMap<>(filter.params());
+        String orderBy = orderBy(pageable.getSort(), criteria, params);
+
+        TypedQuery<Long> query = entityManager.createQuery(
+                "SELECT p.id FROM ProductEntity p" + filter.where() + orderBy, Long.class);
+        params.forEach(query::setParameter);
+        List<Long> ids = query
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        boolean hasNext = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, pageable.getPageSize()) : ids, pageable, hasNext);
+    }
+
+    @Override
+    public long count(ProductSearchCriteria criteria) {
+        Filter filter = filter(criteria);
+
+        TypedQuery<Long> count = entityManager.createQuery(
+                "SELECT COUNT(p) FROM ProductEntity p" + filter.where(), Long.class);
+        filter.params().forEach(count::setParameter);
+        return count.getSingleResult();
+    }
+
+    /**
+     * Estimación de PostgreSQL (null en otras BD):
+     * - Sin filtros: pg_class.reltuples (lo mantienen ANALYZE / autovacuum)
+     * - Solo categoryIds: cardinalidad del bitmap de este nodo (puede atrasarse
+     *   hasta category-index.refresh-interval respecto de otros nodos)
+     * - Resto: filas estimadas por EXPLAIN de la misma condición
+     * - categoryIds junto a otros filtros: null (se usa la caché)
+     */
+    @Override
+    public Long estimateCount(ProductSearchCriteria criteria) {
+        if (!postgres) {
+            return null;
+        }
+        if (criteria.categoryIds() != null) {
+            return onlyCategorySet(criteria)
+                    ? categoryIndex.match(criteria.categoryIds(), criteria.categoryMode()).getLongCardinality()
+                    : null;
+        }
+
+        if (criteria.equals(ProductSearchCriteria.ALL)) {
+            Number reltuples = (Number) entityManager.createNativeQuery(
+                    "SELECT reltuples FROM pg_class WHERE oid = CAST('products' AS regclass)")
+                    .getSingleResult();
+            // -1: la tabla nunca se analizó → EXPLAIN (usa el tamaño en páginas)
+            if (reltuples.longValue() >= 0) {
+                return reltuples.longValue();
+            }
+        }
+
+        Map<String, Object> params = new HashMap<>();
+        StringBuilder sql = new StringBuilder("EXPLAIN SELECT 1").append(nativeWhere(criteria, params, false));
+        if (criteria.categoryId() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM product_categories pc" +
+                    " WHERE pc.product_id = p.id AND pc.category_id = :categoryId)");
+            params.put("categoryId", criteria.categoryId());
+        }
+
+        Query explain = entityManager.createNativeQuery(sql.toString());
+        params.forEach(explain::setParameter);
+        // Primera línea del plan: "Seq Scan on products p  (cost=... rows=N width=...)"
+        Matcher rows = PLAN_ROWS.matcher(String.valueOf(explain.getResultList().get(0)));
+        return rows.find() ? Long.valueOf(rows.group(1)) : null;
+    }
+
+    /**
+     * WHERE en JPQL con solo los filtros presentes (sin "(:x IS NULL OR ...)")
+     */
+    private Filter filter(ProductSearchCriteria criteria) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        Map<String, Object> params = new HashMap<>();
+
+        if (criteria.userId() != null) {
+            where.append(" AND p.owner.id = :userId");
+            params.put("userId", criteria.userId());
+        }
+        if (criteria.name() != null) {
+            where.append(" AND LOWER(p.name) LIKE :namePattern ESCAPE '\\'");
+            params.put("namePattern", containsPattern(criteria.name()));
+        }
+        if (criteria.ownerName() != null) {
+            where.append(" AND LOWER(p.owner.name) LIKE :ownerPattern ESCAPE '\\'");
+            params.put("ownerPattern", containsPattern(criteria.ownerName()));
+        }
+        if (criteria.minPrice() != null) {
+            where.append(" AND p.price >= :minPrice");
+            params.put("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            where.append(" AND p.price <= :maxPrice");
+            params.put("maxPrice", criteria.maxPrice());
+        }
+        if (criteria.categoryId() != null) {
+            where.append(" AND EXISTS (SELECT 1 FROM p.categories c WHERE c.id = :categoryId)");
+            params.put("categoryId", criteria.categoryId());
+        }
+
+        if (criteria.categoryIds() != null) {
+            appendCategorySet(criteria, where, params);
+        }
+        return new Filter(where.toString(), params);
+    }
+
+    private record Filter(String where, Map<String, Object> params) {
+    }
+
+    // ============== FACETAS ==============
+
+    @Override
+    public ProductFacets facets(ProductSearchCriteria criteria, double[] priceBounds) {
+        Map<String, Object> params = new HashMap<>();
+        String where = nativeWhere(criteria, params, true);
+        String bucket = bucketExpression(priceBounds, params);
+
+        try {
+            return facetTransaction.execute(status -> postgres
+                    ? groupingSetsFacets(where, bucket, params, priceBounds)
+                    : separateFacets(where, bucket, params, priceBounds));
+        } catch (PersistenceException | DataAccessException e) {
+            logger.warn("Facetas omitidas (tiempo excedido o error de la BD): {}", e.getMessage());
+            return ProductFacets.incomplete(priceBounds);
+        }
+    }
+
+    /**
+     * PostgreSQL: ambas facetas en un recorrido; GROUPING() indica a qué conjunto pertenece la fila
+     */
+    private ProductFacets groupingSetsFacets(String where, String bucket,
+            Map<String, Object> params, double[] priceBounds) {
+        entityManager.createNativeQuery("SET LOCAL statement_timeout = " + facetProperties.getTimeout())
+                .executeUpdate();
+
+        List<Object[]> rows = nativeRows(
+                "SELECT f.category_id, f.bucket, GROUPING(f.category_id), COUNT(DISTINCT f.id) " +
+                "FROM (SELECT p.id, pc.category_id, " + bucket + " AS bucket" + where + ") f " +
+                "GROUP BY GROUPING SETS ((f.category_id), (f.bucket))",
+                params, null);
+        return fromGroupingRows(rows, priceBounds);
+    }
+
+    /**
+     * Filas [category_id, bucket, GROUPING(category_id), count]:
+     * GROUPING = 0 → conteo de categoría; 1 → conteo de rango (bucket -1 se descarta)
+     */
+    static ProductFacets fromGroupingRows(List<Object[]> rows, double[] priceBounds) {
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        long[] buckets = new long[priceBounds.length];
+        for (Object[] row : rows) {
+            long count = ((Number) row[3]).longValue();
+            if (((Number) row[2]).intValue() == 0) {
+                if (row[0] != null) {
+                    categoryCounts.put(((Number) row[0]).longValue(), count);
+                }
+            } else if (row[1] != null && ((Number) row[1]).intValue() >= 0) {
+                buckets[((Number) row[1]).intValue()] = count;
+            }
+        }
+        return new ProductFacets(categoryCounts, buckets, true);
+    }
+
+    /**
+     * Sin statement_timeout: cada consulta lleva el tope como timeout JDBC,
+     * que se mide en segundos (se redondea hacia arriba, mínimo 1 s)
+     */
+    private ProductFacets separateFacets(String where, String bucket,
+            Map<String, Object> params, double[] priceBounds) {
+        int timeout = (int) Math.max(1, (facetProperties.getTimeout() + 999) / 1000) * 1000;
+
+        Map<Long, Long> categoryCounts = new HashMap<>();
+        for (Object[] row : nativeRows(
+                "SELECT pc.category_id, COUNT(DISTINCT p.id)" + where +
+                " AND pc.category_id IS NOT NULL GROUP BY pc.category_id",
+                params, timeout)) {
+            categoryCounts.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+
+        long[] buckets = new long[priceBounds.length];
+        for (Object[] row : nativeRows(
+                "SELECT f.bucket, COUNT(DISTINCT f.id) " +
+                "FROM (SELECT p.id, " + bucket + " AS bucket" + where + ") f " +
+                "GROUP BY f.bucket",
+                params, timeout)) {
+            int index = ((Number) row[0]).intValue();
+            if (index >= 0) {
+                buckets[index] = ((Number) row[1]).longValue();
+            }
+        }
+        return new ProductFacets(categoryCounts, buckets, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> nativeRows(String sql, Map<String, Object> params, Integer timeoutMillis) {
+        Query query = entityManager.createNativeQuery(sql);
+        params.forEach(query::setParameter);
+        if (timeoutMillis != null) {
+            query.setHint(QUERY_TIMEOUT_HINT, timeoutMillis);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * FROM + WHERE nativos con los filtros de texto, dueño y precio (sin categorías)
+     *
+     * joinCategories (facetas): LEFT JOIN product_categories, así un producto
+     * sin categorías cuenta igual en los rangos de precio.
+     */
+    private static String nativeWhere(ProductSearchCriteria criteria, Map<String, Object> params,
+            boolean joinCategories) {
+        StringBuilder sql = new StringBuilder(" FROM products p");
+        if (criteria.ownerName() != null) {
+            sql.append(" JOIN users u ON u.id = p.user_id");
+        }
+        if (joinCategories) {
+            sql.append(" LEFT JOIN product_categories pc ON pc.product_id = p.id");
+        }
+        sql.append(" WHERE 1 = 1");
+
+        if (criteria.userId() != null) {
+            sql.append(" AND p.user_id = :userId");
+            params.put("userId", criteria.userId());
+        }
+        if (criteria.name() != null) {
+            sql.append(" AND LOWER(p.name) LIKE :namePattern ESCAPE '\\'");
+            params.put("namePattern", containsPattern(criteria.name()));
+        }
+        if (criteria.ownerName() != null) {
+            sql.append(" AND LOWER(u.name) LIKE :ownerPattern ESCAPE '\\'");
+            params.put("ownerPattern", containsPattern(criteria.ownerName()));
+        }
+        if (criteria.minPrice() != null) {
+            sql.append(" AND p.price >= :minPrice");
+            params.put("minPrice", criteria.minPrice());
+        }
+        if (criteria.maxPrice() != null) {
+            sql.append(" AND p.price <= :maxPrice");
+            params.put("maxPrice", criteria.maxPrice());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * CASE con el índice del rango: -1 por debajo del primer límite, n - 1 para el último (sin tope)
+     */
+    private static String bucketExpression(double[] priceBounds, Map<String, Object> params) {
+        StringBuilder bucket = new StringBuilder("CASE");
+        for (int i = 0; i < priceBounds.length; i++) {
+            bucket.append(" WHEN p.price < :bound").append(i).append(" THEN ").append(i - 1);
+            params.put("bound" + i, priceBounds[i]);
+        }
+        return bucket.append(" ELSE ").append(priceBounds.length - 1).append(" END").toString();
+    }
+
+    // ============== VARIAS CATEGORÍAS ==============
+
+    private static boolean onlyCategorySet(ProductSearchCriteria criteria) {
+        return criteria.userId() == null && criteria.name() == null && criteria.ownerName() == null
+                && criteria.minPrice() == null && criteria.maxPrice() == null && criteria.categoryId() == null;
+    }
+
+    private static void appendCategorySet(ProductSearchCriteria criteria,
+            StringBuilder where, Map<String, Object> params) {
+        params.put("categoryIds", criteria.categoryIds());
+        switch (criteria.categoryMode()) {
+            case ALL -> {
+                where.append(" AND (SELECT COUNT(c) FROM p.categories c WHERE c.id IN :categoryIds) = :categoryCount");
+                params.put("categoryCount", (long) criteria.categoryIds().size());
+            }
+            case ANY -> where.append(" AND EXISTS (SELECT 1 FROM p.categories c WHERE c.id IN :categoryIds)");
+            case NONE -> where.append(" AND NOT EXISTS (SELECT 1 FROM p.categories c WHERE c.id IN :categoryIds)");
+        }
+    }
+
+    /**
+     * ORDER BY según las propiedades del Pageable; id desempata siempre
+     */
+    private String orderBy(Sort sort, ProductSearchCriteria criteria, Map<String, Object> params) {
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        boolean hasId = false;
+
+        for (Sort.Order order : sort) {
+            String direction = order.isDescending() ? " DESC" : " ASC";
+
+            if (RELEVANCE.equals(order.getProperty())) {
+                if (criteria.name() == null) {
+                    continue;
+                }
+                if (trigramAvailable) {
+                    // Más similar primero en ASC y en DESC: "relevance" no tiene dirección
+                    orderBy.append("function('similarity', LOWER(p.name), :relevanceText) DESC, ");
+                } else {
+                    orderBy.append("LOCATE(:relevanceText, LOWER(p.name)) ASC, LENGTH(p.name) ASC, ");
+                }
+                params.put("relevanceText", criteria.name());
+                continue;
+            }
+
+            ProductSortKey key = ProductSortKey.fromProperty(order.getProperty());
+            if (key == null) {
+                throw new BadRequestException("Propiedad de ordenamiento no válida: " + order.getProperty());
+            }
+            orderBy.append(key.getPath()).append(direction);
+            if (key.isNullable()) {
+                orderBy.append(" NULLS LAST");
+            }
+            orderBy.append(", ");
+            hasId |= key == ProductSortKey.ID;
+        }
+
+        if (hasId) {
+            orderBy.setLength(orderBy.length() - 2);
+        } else {
+            orderBy.append("p.id ASC");
+        }
+        return orderBy.toString();
+    }
+
+    private static String containsPattern(String text) {
+        String escaped = text
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return "%" + escaped + "%";
+    }
+
+    // ============== ÍNDICES (POSTGRESQL) ==============
+
+    /**
+     * Crea pg_trgm y los índices GIN si la BD es PostgreSQL
+     *
+     * Sin permisos para CREATE EXTENSION la búsqueda sigue funcionando
+     * (seq scan) y RELEVANCE usa el orden portable.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureTrigramIndexes() {
+        try (Connection connection = dataSource.getConnection()) {
+            String database = connection.getMetaData().getDatabaseProductName();
+            if (!"PostgreSQL".equalsIgnoreCase(database)) {
+                logger.debug("Índices de trigramas omitidos: la BD es {}", database);
+                return;
+            }
+            postgres = true;
+
+            new ResourceDatabasePopulator(new ClassPathResource(TRIGRAM_SCRIPT)).populate(connection);
+            trigramAvailable = true;
+            logger.info("Índices de trigramas (pg_trgm) listos para la búsqueda de productos");
+        } catch (SQLException | RuntimeException e) {
+            logger.warn("No se pudieron crear los índices pg_trgm; la búsqueda usará seq scan: {}",
+                    e.getMessage());
+        }
+    }
+}
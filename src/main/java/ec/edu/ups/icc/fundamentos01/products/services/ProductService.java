@@ -1,29 +1,46 @@
 package ec.edu.ups.icc.fundamentos01.products.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Slice;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateResultDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFacetsDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import ec.edu.ups.icc.fundamentos01.shared.dto.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.shared.dto.PageableDto;
 
 public interface ProductService {
 
     ProductResponseDto create(CreateProductDto dto);
 
+    BulkCreateResultDto createBulk(List<CreateProductDto> items);
+
     List<ProductResponseDto> findAll();
 
+    // Exportación NDJSON en streaming (memoria constante)
+    void streamAll(OutputStream output) throws IOException;
+
     ProductResponseDto findById(Long id);
 
+    String findETag(Long id);
+
     List<ProductResponseDto> findByUserId(Long id);
 
     List<ProductResponseDto> findByCategoryId(Long id);
 
-    ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser);
+    ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser, Long expectedVersion);
 
-    void delete(Long id, UserDetailsImpl currentUser);
+    ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto, UserDetailsImpl currentUser,
+            Long expectedVersion);
+
+    void delete(Long id, UserDetailsImpl currentUser, Long expectedVersion);
 
     Page<ProductResponseDto> findAllPaginado(PageableDto pageableDto);
 
@@ -31,12 +48,23 @@ public interface ProductService {
 
     Page<ProductResponseDto> findWithFilters(
         String name,
+        String ownerName,
         Double minPrice,
         Double maxPrice,
         Long categoryId,
+        Set<Long> categoryIds,
+        String categoryMode,
         PageableDto pageableDto
     );
 
+    ProductFacetsDto findFacets(
+        String name,
+        String ownerName,
+        Double minPrice,
+        Double maxPrice,
+        List<Double> priceBuckets
+    );
+
     Page<ProductResponseDto> findByUserIdWithFilters(
         Long userId,
         String name,
@@ -45,4 +73,25 @@ public interface ProductService {
         Long categoryId,
         PageableDto pageableDto
     );
+
+    CursorPageDto<ProductResponseDto> findWithCursor(
+        String name,
+        Double minPrice,
+        Double maxPrice,
+        Long categoryId,
+        String sort,
+        int size,
+        String cursor
+    );
+
+    CursorPageDto<ProductResponseDto> findByUserIdWithCursor(
+        Long userId,
+        String name,
+        Double minPrice,
+        Double maxPrice,
+        Long categoryId,
+        String sort,
+        int size,
+        String cursor
+    );
 }
\ No newline at end of file
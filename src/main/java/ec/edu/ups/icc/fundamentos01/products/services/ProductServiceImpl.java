@@ -1,48 +1,131 @@
 package ec.edu.ups.icc.fundamentos01.products.services;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.service.CategoryRegistry;
 import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
 import ec.edu.ups.icc.fundamentos01.exceptions.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.PreconditionFailedException;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateProductsDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateResultDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductFacetsDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
 import ec.edu.ups.icc.fundamentos01.products.models.Product;
 import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductJdbcRepository;
 import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductSortKey;
+import ec.edu.ups.icc.fundamentos01.products.search.CategoryMatchMode;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductFacetProperties;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductFacets;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductSearchBackend;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductSearchCriteria;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductTotalCounter;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductsChangedEvent;
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import ec.edu.ups.icc.fundamentos01.security.utils.RoleMask;
+import ec.edu.ups.icc.fundamentos01.security.utils.TokenHasher;
+import ec.edu.ups.icc.fundamentos01.shared.dto.CountedPage;
+import ec.edu.ups.icc.fundamentos01.shared.dto.CursorPageDto;
 import ec.edu.ups.icc.fundamentos01.shared.dto.PageableDto;
+import ec.edu.ups.icc.fundamentos01.shared.http.EntityTags;
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CursorCodec;
 import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
 @Service
 public class ProductServiceImpl implements ProductService {
 
+    // Roles que pueden modificar productos ajenos (máscara precalculada)
+    private static final long PRIVILEGED_ROLES = RoleMask.of(RoleName.ROLE_ADMIN, RoleName.ROLE_MODERATOR);
+
+    // Formato del cursor: v2|propiedad|asc|filtros|último id|=último valor ("-" si es NULL)
+    private static final String CURSOR_VERSION = "v2";
+    private static final String CURSOR_SEPARATOR = "|";
+    private static final int CURSOR_PARTS = 6;
+    private static final int FINGERPRINT_LENGTH = 22; // 128 bits en Base64 URL
+
+    // Tope de categoryIds en /search (cada una es un bitmap a combinar)
+    private static final int MAX_FILTER_CATEGORIES = 50;
+
+    // Tope de rangos de precio en las facetas (uno por rama del CASE en SQL)
+    private static final int MAX_PRICE_BUCKETS = 20;
+
     private final ProductRepository productRepo;
     private final UserRepository userRepo;
     private final CategoryRepository categoryRepo;
+    private final CategoryRegistry categoryRegistry;
+    private final CursorCodec cursorCodec;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final ProductJdbcRepository productJdbcRepo;
+    private final Validator validator;
+    private final ProductSearchBackend searchBackend;
+    private final ApplicationEventPublisher events;
+    private final ProductFacetProperties facetProperties;
+    private final ProductTotalCounter totalCounter;
 
     public ProductServiceImpl(ProductRepository productRepo,
             UserRepository userRepo,
-            CategoryRepository categoryRepository) {
+            CategoryRepository categoryRepository,
+            CategoryRegistry categoryRegistry,
+            CursorCodec cursorCodec,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            ProductJdbcRepository productJdbcRepo,
+            Validator validator,
+            ProductSearchBackend searchBackend,
+            ApplicationEventPublisher events,
+            ProductFacetProperties facetProperties,
+            ProductTotalCounter totalCounter) {
         this.productRepo = productRepo;
         this.categoryRepo = categoryRepository;
+        this.categoryRegistry = categoryRegistry;
         this.userRepo = userRepo;
+        this.cursorCodec = cursorCodec;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.productJdbcRepo = productJdbcRepo;
+        this.validator = validator;
+        this.searchBackend = searchBackend;
+        this.events = events;
+        this.facetProperties = facetProperties;
+        this.totalCounter = totalCounter;
     }
 
     @Override
@@ -59,10 +142,137 @@ public class ProductServiceImpl implements ProductService {
         Product product = Product.fromDto(dto);
         ProductEntity entity = product.toEntity(owner, categories);
         ProductEntity saved = productRepo.save(entity);
+        events.publishEvent(ProductsChangedEvent.of(saved.getId()));
 
         return toResponseDto(saved);
     }
 
+    /**
+     * Carga masiva: validación por conjunto + INSERT en batches JDBC
+     *
+     * Consultas fijas sin importar el tamaño del lote:
+     * - 1 SELECT de usuarios existentes, 1 de nombres usados
+     * - Categorías contra CategoryRegistry (memoria)
+     * - 1 SELECT para reservar todos los ids
+     * - INSERTs en batches de ProductJdbcRepository.BATCH_SIZE
+     *
+     * Cada producto se valida por separado; los rechazados no detienen al resto.
+     */
+    @Override
+    @Transactional
+    public BulkCreateResultDto createBulk(List<CreateProductDto> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BadRequestException("Debe enviar al menos un producto");
+        }
+        if (items.size() > BulkCreateProductsDto.MAX_ITEMS) {
+            throw new BadRequestException(
+                    "El lote no puede superar " + BulkCreateProductsDto.MAX_ITEMS + " productos");
+        }
+
+        // ============== BÚSQUEDAS POR CONJUNTO ==============
+        Set<Long> ownerIds = new HashSet<>();
+        Set<Long> categoryIds = new HashSet<>();
+        Set<String> names = new HashSet<>();
+        for (CreateProductDto item : items) {
+            if (item == null) {
+                continue;
+            }
+            if (item.userId != null) {
+                ownerIds.add(item.userId);
+            }
+            if (item.categoryIds != null) {
+                categoryIds.addAll(item.categoryIds);
+            }
+            if (item.name != null) {
+                names.add(item.name);
+            }
+        }
+
+        Set<Long> existingOwners = ownerIds.isEmpty() ? Set.of() : userRepo.findExistingIds(ownerIds);
+        Set<Long> missingCategories = categoryIds.isEmpty() ? Set.of() : categoryRegistry.findMissing(categoryIds);
+        Set<String> takenNames = names.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(productRepo.findExistingNames(names));
+
+        // ============== VALIDACIÓN POR PRODUCTO ==============
+        List<BulkCreateResultDto.ItemResultDto> results = new ArrayList<>(items.size());
+        List<BulkCreateResultDto.ItemResultDto> accepted = new ArrayList<>();
+        List<CreateProductDto> acceptedItems = new ArrayList<>();
+
+        for (int i = 0; i < items.size(); i++) {
+            CreateProductDto item = items.get(i);
+            List<String> errors = validateBulkItem(item, existingOwners, missingCategories, takenNames);
+
+            BulkCreateResultDto.ItemResultDto result = new BulkCreateResultDto.ItemResultDto();
+            result.index = i;
+            if (errors.isEmpty()) {
+                takenNames.add(item.name); // un nombre repetido dentro del lote también se rechaza
+                accepted.add(result);
+                acceptedItems.add(item);
+            } else {
+                result.status = BulkCreateResultDto.ItemStatus.REJECTED;
+                result.errors = errors;
+            }
+            results.add(result);
+        }
+
+        // ============== INSERCIÓN EN BATCH ==============
+        if (!acceptedItems.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+
+            List<ProductJdbcRepository.NewProductRow> rows = new ArrayList<>(acceptedItems.size());
+            for (CreateProductDto item : acceptedItems) {
+                rows.add(new ProductJdbcRepository.NewProductRow(
+                        item.name, item.price, item.description,
+                        item.userId, now, item.categoryIds));
+            }
+            List<Long> ids = productJdbcRepo.insertAll(rows);
+
+            for (int i = 0; i < accepted.size(); i++) {
+                accepted.get(i).status = BulkCreateResultDto.ItemStatus.CREATED;
+                accepted.get(i).id = ids.get(i);
+            }
+            events.publishEvent(new ProductsChangedEvent(Set.copyOf(ids)));
+        }
+
+        BulkCreateResultDto response = new BulkCreateResultDto();
+        response.received = items.size();
+        response.created = acceptedItems.size();
+        response.rejected = items.size() - acceptedItems.size();
+        response.results = results;
+        return response;
+    }
+
+    private List<String> validateBulkItem(CreateProductDto item, Set<Long> existingOwners,
+            Set<Long> missingCategories, Set<String> takenNames) {
+
+        List<String> errors = new ArrayList<>();
+        if (item == null) {
+            errors.add("El producto no puede ser nulo");
+            return errors;
+        }
+
+        for (ConstraintViolation<CreateProductDto> violation : validator.validate(item)) {
+            errors.add(violation.getMessage());
+        }
+        if (!errors.isEmpty()) {
+            return errors;
+        }
+
+        if (!existingOwners.contains(item.userId)) {
+            errors.add("Usuario no encontrado con ID: " + item.userId);
+        }
+        for (Long categoryId : item.categoryIds) {
+            if (missingCategories.contains(categoryId)) {
+                errors.add("Categoría no encontrada: " + categoryId);
+            }
+        }
+        if (takenNames.contains(item.name)) {
+            errors.add("El nombre del producto ya está registrado");
+        }
+        return errors;
+    }
+
     @Override
     public List<ProductResponseDto> findAll() {
         return productRepo.findAll()
@@ -71,6 +281,54 @@ public class ProductServiceImpl implements ProductService {
                 .toList();
     }
 
+    /**
+     * Exportación NDJSON: un ProductResponseDto por línea
+     *
+     * Memoria constante sin importar el tamaño de la tabla:
+     * - Los IDs llegan por cursor JDBC en bloques de EXPORT_FETCH_SIZE
+     * - Cada bloque se hidrata en UN SELECT (owner + categorías) y se escribe
+     *   con el generador de Jackson
+     * - Al cerrar el bloque: flush al cliente + clear() del contexto de persistencia
+     *
+     * Sentencias: 1 (cursor de IDs) + 1 por bloque de EXPORT_FETCH_SIZE productos.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(OutputStream output) throws IOException {
+        // Sin flush por producto: se envía al cliente una vez por bloque
+        ObjectWriter writer = objectMapper.writerFor(ProductResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+
+        try (Stream<Long> ids = productRepo.streamIdsForExport()) {
+            List<Long> chunk = new ArrayList<>(ProductRepository.EXPORT_FETCH_SIZE);
+            for (Long id : (Iterable<Long>) ids::iterator) {
+                chunk.add(id);
+                if (chunk.size() == ProductRepository.EXPORT_FETCH_SIZE) {
+                    writeChunk(writer, generator, chunk);
+                }
+            }
+            writeChunk(writer, generator, chunk);
+        }
+        generator.close();
+    }
+
+    /**
+     * Hidrata y escribe un bloque de la exportación, luego lo libera
+     */
+    private void writeChunk(ObjectWriter writer, JsonGenerator generator, List<Long> chunk)
+            throws IOException {
+        for (ProductEntity product : findAllInOrder(chunk)) {
+            writer.writeValue(generator, toResponseDto(product));
+            generator.writeRaw('\n');
+        }
+        generator.flush();
+        entityManager.clear();
+        chunk.clear();
+    }
+
     @Override
     public ProductResponseDto findById(Long id) {
         return productRepo.findById(id)
@@ -78,6 +336,40 @@ public class ProductServiceImpl implements ProductService {
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
     }
 
+    /**
+     * ETag actual para validar If-None-Match sin cargar el producto
+     *
+     * Mismo cálculo que toResponseDto: versión del producto, del dueño y suma
+     * de las versiones de las categorías tal como se mostrarían (CategoryRegistry).
+     * Las versiones solo crecen y el conjunto de categorías ya está cubierto por
+     * la versión del producto, así que la suma cambia si cambia cualquiera.
+     */
+    @Override
+    public String findETag(Long id) {
+        List<Object[]> rows = productRepo.findTagVersionsById(id);
+        if (rows.isEmpty()) {
+            throw new NotFoundException("Producto no encontrado con ID: " + id);
+        }
+
+        long categoriesVersion = 0;
+        for (Object[] row : rows) {
+            if (row[2] != null) {
+                categoriesVersion += displayedCategoryVersion((Long) row[2], (Long) row[3]);
+            }
+        }
+        Object[] first = rows.get(0);
+        return EntityTags.of(id, (Long) first[0], (Long) first[1], categoriesVersion);
+    }
+
+    /**
+     * Versión de la categoría cuyos datos se muestran: la copia de
+     * CategoryRegistry si existe, si no la de la fila
+     */
+    private long displayedCategoryVersion(Long categoryId, long rowVersion) {
+        CategoryRegistry.CachedCategory cached = categoryRegistry.get(categoryId);
+        return cached != null ? cached.version() : rowVersion;
+    }
+
     @Override
     public List<ProductResponseDto> findByUserId(Long userId) {
         if (!userRepo.existsById(userId)) {
@@ -92,7 +384,7 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     public List<ProductResponseDto> findByCategoryId(Long categoryId) {
-        if (!categoryRepo.existsById(categoryId)) {
+        if (!categoryRegistry.contains(categoryId)) {
             throw new NotFoundException("Categoría no encontrada con ID: " + categoryId);
         }
 
@@ -104,43 +396,141 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    public ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser) {
-        ProductEntity existing = productRepo.findById(id)
+    public ProductResponseDto update(Long id, UpdateProductDto dto, UserDetailsImpl currentUser,
+            Long expectedVersion) {
+        validateCategoryIds(dto.categoryIds);
+
+        // 1. UPDATE condicionado a la propiedad y a la versión (sin cargar el producto antes)
+        int updated = productRepo.updateIfAllowed(
+                id, currentUser.getId(), currentUser.hasAnyRole(PRIVILEGED_ROLES), expectedVersion,
+                dto.name, dto.price, dto.description, LocalDateTime.now());
+        if (updated == 0) {
+            throw rejectedWrite(id, currentUser);
+        }
+
+        // 2. Estado final para la respuesta (owner + categorías en un SELECT)
+        ProductEntity product = productRepo.findById(id)
                 .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
 
-        validateOwnership(existing, currentUser);
+        // 3. product_categories solo si el conjunto cambió
+        applyCategoryDiff(product, dto.categoryIds);
 
-        Set<CategoryEntity> categories = validateAndGetCategories(dto.categoryIds);
+        // 4. flush: la versión de la respuesta (ETag) es la que quedó en la BD
+        productRepo.flush();
+        events.publishEvent(ProductsChangedEvent.of(id));
+        return toResponseDto(product);
+    }
 
-        Product product = Product.fromEntity(existing);
-        product.update(dto);
+    /**
+     * PATCH: solo los campos enviados y solo si cambian
+     *
+     * Se modifica la entidad administrada (no se reconstruye con Product.toEntity):
+     * - Dirty checking + @DynamicUpdate → UPDATE solo de columnas cambiadas
+     * - Sin cambios → ninguna sentencia de escritura
+     * - categoryIds null → categorías intactas
+     * - Propiedad e If-Match en el WHERE de la lectura (findIfAllowed, igual
+     *   que update/delete); sin fila → rejectedWrite decide 404/403/412
+     * - El UPDATE lleva "WHERE version = ?" (una escritura concurrente → 409)
+     */
+    @Override
+    @Transactional
+    public ProductResponseDto partialUpdate(Long id, PartialUpdateProductDto dto, UserDetailsImpl currentUser,
+            Long expectedVersion) {
+        ProductEntity product = productRepo.findIfAllowed(
+                id, currentUser.getId(), currentUser.hasAnyRole(PRIVILEGED_ROLES), expectedVersion)
+                .orElseThrow(() -> rejectedWrite(id, currentUser));
+
+        if (dto.name != null && !dto.name.equals(product.getName())) {
+            product.setName(dto.name);
+        }
+        if (dto.price != null && !dto.price.equals(product.getPrice())) {
+            product.setPrice(dto.price);
+        }
+        if (dto.description != null && !dto.description.equals(product.getDescription())) {
+            product.setDescription(dto.description);
+        }
+        if (dto.categoryIds != null) {
+            validateCategoryIds(dto.categoryIds);
+            applyCategoryDiff(product, dto.categoryIds);
+        }
 
-        ProductEntity updated = product.toEntity(existing.getOwner(), categories);
-        updated.setId(id);
+        productRepo.flush();
+        events.publishEvent(ProductsChangedEvent.of(id));
+        return toResponseDto(product);
+    }
 
-        ProductEntity saved = productRepo.save(updated);
-        return toResponseDto(saved);
+    /**
+     * Ajusta las categorías del producto al conjunto pedido
+     *
+     * Solo quita/agrega las diferencias: Hibernate emite un DELETE o INSERT en
+     * product_categories por vínculo cambiado, nada si el conjunto es igual.
+     */
+    private void applyCategoryDiff(ProductEntity product, Set<Long> categoryIds) {
+        Set<Long> currentIds = new HashSet<>();
+        for (CategoryEntity category : product.getCategories()) {
+            currentIds.add(category.getId());
+        }
+        if (currentIds.equals(categoryIds)) {
+            return;
+        }
+
+        product.getCategories().removeIf(category -> !categoryIds.contains(category.getId()));
+        for (Long categoryId : categoryIds) {
+            if (!currentIds.contains(categoryId)) {
+                product.getCategories().add(categoryRepo.getReferenceById(categoryId));
+            }
+        }
     }
 
     @Override
     @Transactional
-    public void delete(Long id, UserDetailsImpl currentUser) {
-        ProductEntity product = productRepo.findById(id)
-                .orElseThrow(() -> new NotFoundException("Producto no encontrado con ID: " + id));
+    public void delete(Long id, UserDetailsImpl currentUser, Long expectedVersion) {
+        int deleted = productRepo.deleteIfAllowed(
+                id, currentUser.getId(), currentUser.hasAnyRole(PRIVILEGED_ROLES), expectedVersion);
+        if (deleted == 0) {
+            throw rejectedWrite(id, currentUser);
+        }
+        events.publishEvent(ProductsChangedEvent.of(id));
+    }
 
-        validateOwnership(product, currentUser);
+    /**
+     * Una escritura (o la lectura del PATCH) condicional no afectó filas:
+     * ¿no existe, no es del usuario o cambió la versión? UNA consulta extra
+     * (dueño + versión), solo en el camino de error.
+     */
+    private RuntimeException rejectedWrite(Long id, UserDetailsImpl currentUser) {
+        List<Object[]> rows = productRepo.findOwnerAndVersionById(id);
+        if (rows.isEmpty()) {
+            return new NotFoundException("Producto no encontrado con ID: " + id);
+        }
 
-        productRepo.delete(product);
+        Long ownerId = (Long) rows.get(0)[0];
+        if (!currentUser.hasAnyRole(PRIVILEGED_ROLES) && !ownerId.equals(currentUser.getId())) {
+            return new AccessDeniedException("No puedes modificar productos ajenos");
+        }
+        return new PreconditionFailedException(
+                "El producto fue modificado (If-Match no coincide, versión actual " + rows.get(0)[1] + ")");
     }
 
+    // ============== LECTURAS PAGINADAS ==============
+    // readOnly: las categorías de la página se cargan por lote (@BatchSize)
+    // dentro de la misma sesión, sin depender de open-in-view
+
     @Override
+    @Transactional(readOnly = true)
     public Page<ProductResponseDto> findAllPaginado(PageableDto pageableDto) {
         Pageable pageable = createPageable(pageableDto);
-        Page<ProductEntity> productPage = productRepo.findAll(pageable);
+        CountMode countMode = totalCounter.mode(pageableDto.getCount());
+        Slice<ProductEntity> productSlice = productRepo.findAllSlice(pageable);
+
+        ProductSearchCriteria all = ProductSearchCriteria.ALL;
+        CountedPage<ProductEntity> productPage = totalCounter.page(productSlice, countMode, all,
+                productRepo::count, () -> searchBackend.estimateCount(all));
         return productPage.map(this::toResponseDto);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Slice<ProductResponseDto> findAllSlice(PageableDto pageableDto) {
         Pageable pageable = createPageable(pageableDto);
         Slice<ProductEntity> productSlice = productRepo.findAllSlice(pageable);
@@ -148,20 +538,64 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ProductResponseDto> findWithFilters(
-            String name, Double minPrice, Double maxPrice, Long categoryId,
-            PageableDto pageableDto) {
+            String name, String ownerName, Double minPrice, Double maxPrice, Long categoryId,
+            Set<Long> categoryIds, String categoryMode, PageableDto pageableDto) {
 
         validateFilterParameters(minPrice, maxPrice);
-        Pageable pageable = createPageable(pageableDto);
+        validateCategoryFilter(categoryIds);
+        CategoryMatchMode mode = CategoryMatchMode.parse(categoryMode);
+        Pageable pageable = createSearchPageable(pageableDto);
 
-        Page<ProductEntity> productPage = productRepo.findWithFilters(
-                name, minPrice, maxPrice, categoryId, pageable);
+        return search(new ProductSearchCriteria(null, name, ownerName, minPrice, maxPrice, categoryId,
+                categoryIds, mode), pageable, pageableDto);
+    }
 
-        return productPage.map(this::toResponseDto);
+    /**
+     * Sin @Transactional: el backend abre su propia transacción con tope de
+     * tiempo, separada de la de la página de resultados
+     */
+    @Override
+    public ProductFacetsDto findFacets(
+            String name, String ownerName, Double minPrice, Double maxPrice, List<Double> priceBuckets) {
+
+        validateFilterParameters(minPrice, maxPrice);
+        double[] bounds = priceBounds(priceBuckets != null ? priceBuckets : facetProperties.getPriceBuckets());
+
+        ProductFacets facets = searchBackend.facets(
+                new ProductSearchCriteria(null, name, ownerName, minPrice, maxPrice, null), bounds);
+
+        ProductFacetsDto dto = new ProductFacetsDto();
+        dto.complete = facets.complete();
+
+        dto.categories = new ArrayList<>(facets.categoryCounts().size());
+        facets.categoryCounts().forEach((categoryId, count) -> {
+            CategoryRegistry.CachedCategory category = categoryRegistry.get(categoryId);
+            ProductFacetsDto.CategoryFacetDto facet = new ProductFacetsDto.CategoryFacetDto();
+            facet.id = categoryId;
+            facet.name = category != null ? category.name() : null;
+            facet.count = count;
+            dto.categories.add(facet);
+        });
+        // Más productos primero; id desempata
+        dto.categories.sort((a, b) -> a.count != b.count
+                ? Long.compare(b.count, a.count)
+                : Long.compare(a.id, b.id));
+
+        dto.priceBuckets = new ArrayList<>(bounds.length);
+        for (int i = 0; i < bounds.length; i++) {
+            ProductFacetsDto.PriceBucketDto bucket = new ProductFacetsDto.PriceBucketDto();
+            bucket.from = bounds[i];
+            bucket.to = i + 1 < bounds.length ? bounds[i + 1] : null;
+            bucket.count = facets.priceBucketCounts()[i];
+            dto.priceBuckets.add(bucket);
+        }
+        return dto;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ProductResponseDto> findByUserIdWithFilters(
             Long userId, String name, Double minPrice, Double maxPrice, Long categoryId,
             PageableDto pageableDto) {
@@ -171,36 +605,189 @@ public class ProductServiceImpl implements ProductService {
         }
 
         validateFilterParameters(minPrice, maxPrice);
-        Pageable pageable = createPageable(pageableDto);
+        Pageable pageable = createSearchPageable(pageableDto);
 
-        Page<ProductEntity> productPage = productRepo.findByUserIdWithFilters(
-                userId, name, minPrice, maxPrice, categoryId, pageable);
+        return search(new ProductSearchCriteria(userId, name, null, minPrice, maxPrice, categoryId),
+                pageable, pageableDto);
+    }
 
-        return productPage.map(this::toResponseDto);
+    // ============== PAGINACIÓN POR CURSOR (KEYSET) ==============
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductResponseDto> findWithCursor(
+            String name, Double minPrice, Double maxPrice, Long categoryId,
+            String sort, int size, String cursor) {
+
+        return cursorPage(null, name, minPrice, maxPrice, categoryId, sort, size, cursor);
     }
 
-    private void validateOwnership(ProductEntity product, UserDetailsImpl currentUser) {
-        if (hasAnyRole(currentUser, "ROLE_ADMIN", "ROLE_MODERATOR")) {
-            return;
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDto<ProductResponseDto> findByUserIdWithCursor(
+            Long userId, String name, Double minPrice, Double maxPrice, Long categoryId,
+            String sort, int size, String cursor) {
+
+        if (!userRepo.existsById(userId)) {
+            throw new NotFoundException("Usuario no encontrado con ID: " + userId);
+        }
+
+        return cursorPage(userId, name, minPrice, maxPrice, categoryId, sort, size, cursor);
+    }
+
+    /**
+     * Sin cursor: primera página según "sort" (ej: "price,desc").
+     * Con cursor: el orden y la posición salen del cursor; "sort" se ignora
+     * y los filtros deben ser los mismos con los que se generó.
+     */
+    private CursorPageDto<ProductResponseDto> cursorPage(
+            Long userId, String name, Double minPrice, Double maxPrice, Long categoryId,
+            String sort, int size, String cursor) {
+
+        validateFilterParameters(minPrice, maxPrice);
+        if (size < 1 || size > 100) {
+            throw new BadRequestException("El tamaño debe estar entre 1 y 100");
         }
 
-        if (!product.getOwner().getId().equals(currentUser.getId())) {
-            throw new AccessDeniedException("No puedes modificar productos ajenos");
+        String filters = filterFingerprint(userId, name, minPrice, maxPrice, categoryId);
+        ProductSortKey sortKey;
+        boolean descending;
+        Object afterValue = null;
+        Long afterId = null;
+
+        if (cursor == null || cursor.isBlank()) {
+            String[] parts = (sort == null || sort.isBlank() ? "id" : sort).split(",");
+            sortKey = ProductSortKey.fromProperty(parts[0].trim());
+            if (sortKey == null) {
+                throw new BadRequestException("Propiedad de ordenamiento no válida: " + parts[0].trim());
+            }
+            descending = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim());
+        } else {
+            String[] parts = cursorCodec.decode(cursor).split("\\" + CURSOR_SEPARATOR, CURSOR_PARTS);
+            sortKey = parts.length == CURSOR_PARTS && CURSOR_VERSION.equals(parts[0])
+                    ? ProductSortKey.fromProperty(parts[1])
+                    : null;
+            if (sortKey == null) {
+                throw new BadRequestException("Cursor de paginación inválido");
+            }
+            if (!filters.equals(parts[3])) {
+                throw new BadRequestException("El cursor no corresponde a los filtros de la consulta");
+            }
+            descending = "desc".equals(parts[2]);
+            afterId = Long.valueOf(parts[4]);
+            afterValue = parts[5].startsWith("=") ? sortKey.parse(parts[5].substring(1)) : null;
         }
+
+        // Se pide uno extra para saber si hay página siguiente sin contar
+        List<Long> ids = productRepo.findIdsAfter(
+                userId, name, minPrice, maxPrice, categoryId,
+                sortKey, descending, afterValue, afterId, size + 1);
+
+        boolean hasNext = ids.size() > size;
+        List<ProductEntity> products = findAllInOrder(hasNext ? ids.subList(0, size) : ids);
+
+        String nextCursor = null;
+        if (hasNext && !products.isEmpty()) {
+            ProductEntity last = products.get(products.size() - 1);
+            Object lastValue = sortKey.valueOf(last);
+            nextCursor = cursorCodec.encode(String.join(CURSOR_SEPARATOR,
+                    CURSOR_VERSION,
+                    sortKey.getProperty(),
+                    descending ? "desc" : "asc",
+                    filters,
+                    last.getId().toString(),
+                    lastValue == null ? "-" : "=" + sortKey.format(lastValue)));
+        }
+
+        List<ProductResponseDto> content = new ArrayList<>(products.size());
+        for (ProductEntity product : products) {
+            content.add(toResponseDto(product));
+        }
+        return new CursorPageDto<>(content, size, nextCursor);
     }
 
-    private boolean hasAnyRole(UserDetailsImpl user, String... roles) {
-        for (String role : roles) {
-            for (GrantedAuthority authority : user.getAuthorities()) {
-                if (authority.getAuthority().equals(role)) {
-                    return true;
-                }
+    /**
+     * Huella de los filtros: un cursor solo continúa la consulta que lo generó
+     *
+     * SHA-256 (truncado a 128 bits) de los filtros en forma canónica: cada
+     * campo con su nombre y "-" si es null, y el nombre con su longitud
+     * delante para que ningún valor pueda imitar a otro campo.
+     */
+    private static String filterFingerprint(
+            Long userId, String name, Double minPrice, Double maxPrice, Long categoryId) {
+        String canonical = "u=" + (userId == null ? "-" : userId)
+                + ";n=" + (name == null ? "-" : name.length() + ":" + name)
+                + ";min=" + (minPrice == null ? "-" : minPrice)
+                + ";max=" + (maxPrice == null ? "-" : maxPrice)
+                + ";c=" + (categoryId == null ? "-" : categoryId);
+        return TokenHasher.sha256(canonical).substring(0, FINGERPRINT_LENGTH);
+    }
+
+    /**
+     * Fase 1 (IDs) en el backend de búsqueda, total según ?count= y fase 2 (hidratación)
+     */
+    private CountedPage<ProductResponseDto> search(
+            ProductSearchCriteria criteria, Pageable pageable, PageableDto pageableDto) {
+
+        CountMode countMode = totalCounter.mode(pageableDto.getCount());
+        Slice<Long> idSlice = searchBackend.findIdSlice(criteria, pageable);
+        CountedPage<Long> idPage = totalCounter.page(idSlice, countMode, criteria,
+                () -> searchBackend.count(criteria), () -> searchBackend.estimateCount(criteria));
+        return hydratePage(idPage);
+    }
+
+    /**
+     * Paginación en dos fases - fase 2
+     *
+     * Carga los productos de la página en UN SELECT (owner + categorías)
+     * y respeta el orden de los IDs que devolvió la fase 1.
+     */
+    private CountedPage<ProductResponseDto> hydratePage(CountedPage<Long> idPage) {
+        List<ProductResponseDto> content = new ArrayList<>(idPage.getNumberOfElements());
+        for (ProductEntity product : findAllInOrder(idPage.getContent())) {
+            content.add(toResponseDto(product));
+        }
+
+        return new CountedPage<>(content, idPage.getPageable(), idPage.getTotalElements(),
+                idPage.getTotalAccuracy());
+    }
+
+    /**
+     * Productos completos en el orden de "ids"
+     * Un producto eliminado entre ambas consultas simplemente se omite.
+     */
+    private List<ProductEntity> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductEntity> productsById = new HashMap<>();
+        for (ProductEntity product : productRepo.findAllWithDetailsByIdIn(ids)) {
+            productsById.put(product.getId(), product);
+        }
+
+        List<ProductEntity> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductEntity product = productsById.get(id);
+            if (product != null) {
+                ordered.add(product);
             }
         }
-        return false;
+        return ordered;
     }
 
     private Pageable createPageable(PageableDto pageableDto) {
+        return createPageable(pageableDto, false);
+    }
+
+    /**
+     * Búsquedas: además de las propiedades de ProductSortKey admiten "relevance"
+     */
+    private Pageable createSearchPageable(PageableDto pageableDto) {
+        return createPageable(pageableDto, true);
+    }
+
+    private Pageable createPageable(PageableDto pageableDto, boolean allowRelevance) {
         int page = pageableDto.getPage();
         int size = pageableDto.getSize();
         String[] sort = pageableDto.getSort();
@@ -212,11 +799,11 @@ public class ProductServiceImpl implements ProductService {
             throw new BadRequestException("El tamaño debe estar entre 1 y 100");
         }
 
-        Sort sortObj = createSort(sort);
+        Sort sortObj = createSort(sort, allowRelevance);
         return PageRequest.of(page, size, sortObj);
     }
 
-    private Sort createSort(String[] sortParams) {
+    private Sort createSort(String[] sortParams, boolean allowRelevance) {
         if (sortParams == null || sortParams.length == 0) {
             return Sort.by("id");
         }
@@ -243,7 +830,8 @@ public class ProductServiceImpl implements ProductService {
                 }
             }
 
-            if (!isValidSortProperty(property)) {
+            boolean relevance = allowRelevance && ProductSearchBackend.RELEVANCE.equals(property);
+            if (!relevance && !isValidSortProperty(property)) {
                 throw new BadRequestException("Propiedad de ordenamiento no válida: " + property);
             }
 
@@ -258,10 +846,7 @@ public class ProductServiceImpl implements ProductService {
     }
 
     private boolean isValidSortProperty(String property) {
-        Set<String> allowedProperties = Set.of(
-                "id", "name", "price", "createdAt", "updatedAt",
-                "owner.name", "owner.email", "description");
-        return allowedProperties.contains(property);
+        return ProductSortKey.fromProperty(property) != null;
     }
 
     private void validateFilterParameters(Double minPrice, Double maxPrice) {
@@ -278,6 +863,41 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    /**
+     * Límites de los rangos de precio: finitos, no negativos y estrictamente crecientes
+     */
+    private double[] priceBounds(List<Double> priceBuckets) {
+        if (priceBuckets.isEmpty() || priceBuckets.size() > MAX_PRICE_BUCKETS) {
+            throw new BadRequestException("Se requieren entre 1 y " + MAX_PRICE_BUCKETS + " límites de precio");
+        }
+
+        double[] bounds = new double[priceBuckets.size()];
+        for (int i = 0; i < bounds.length; i++) {
+            Double bound = priceBuckets.get(i);
+            if (bound == null || !Double.isFinite(bound) || bound < 0) {
+                throw new BadRequestException("Límite de precio no válido: " + bound);
+            }
+            if (i > 0 && bound <= bounds[i - 1]) {
+                throw new BadRequestException("Los límites de precio deben ser estrictamente crecientes");
+            }
+            bounds[i] = bound;
+        }
+        return bounds;
+    }
+
+    private void validateCategoryFilter(Set<Long> categoryIds) {
+        if (categoryIds == null) {
+            return;
+        }
+        if (categoryIds.contains(null)) {
+            throw new BadRequestException("Los IDs de categoría no pueden ser nulos");
+        }
+        if (categoryIds.size() > MAX_FILTER_CATEGORIES) {
+            throw new BadRequestException(
+                    "No se puede filtrar por más de " + MAX_FILTER_CATEGORIES + " categorías");
+        }
+    }
+
     private ProductResponseDto toResponseDto(ProductEntity product) {
         ProductResponseDto dto = new ProductResponseDto();
 
@@ -287,6 +907,7 @@ public class ProductServiceImpl implements ProductService {
         dto.description = product.getDescription();
         dto.createdAt = product.getCreatedAt();
         dto.updatedAt = product.getUpdatedAt();
+        dto.version = product.getVersion();
 
         ProductResponseDto.UserSummaryDto userDto = new ProductResponseDto.UserSummaryDto();
         userDto.id = product.getOwner().getId();
@@ -295,25 +916,45 @@ public class ProductServiceImpl implements ProductService {
         dto.user = userDto;
 
         List<CategoryResponseDto> categoryDtos = new ArrayList<>();
+        long categoriesVersion = 0;
         for (CategoryEntity categoryEntity : product.getCategories()) {
+            // Datos desde CategoryRegistry: getId() no inicializa un proxy
+            CategoryRegistry.CachedCategory cached = categoryRegistry.get(categoryEntity.getId());
+            if (cached != null) {
+                categoryDtos.add(cached.toResponseDto());
+                categoriesVersion += cached.version();
+                continue;
+            }
             CategoryResponseDto categoryDto = new CategoryResponseDto();
             categoryDto.id = categoryEntity.getId();
             categoryDto.name = categoryEntity.getName();
             categoryDto.description = categoryEntity.getDescription();
             categoryDtos.add(categoryDto);
+            categoriesVersion += categoryEntity.getVersion();
         }
         dto.categories = categoryDtos;
+        dto.eTag = EntityTags.of(dto.id, dto.version, product.getOwner().getVersion(), categoriesVersion);
 
         return dto;
     }
 
+    private void validateCategoryIds(Set<Long> categoryIds) {
+        Set<Long> missing = categoryRegistry.findMissing(categoryIds);
+        if (!missing.isEmpty()) {
+            throw new NotFoundException("Categoría no encontrada: " + missing.iterator().next());
+        }
+    }
+
+    /**
+     * Valida el conjunto completo contra CategoryRegistry (sin consultas)
+     * y arma la relación con referencias: getReferenceById no ejecuta SELECT
+     */
     private Set<CategoryEntity> validateAndGetCategories(Set<Long> categoryIds) {
-        Set<CategoryEntity> categories = new HashSet<>();
+        validateCategoryIds(categoryIds);
 
+        Set<CategoryEntity> categories = new HashSet<>();
         for (Long categoryId : categoryIds) {
-            CategoryEntity category = categoryRepo.findById(categoryId)
-                    .orElseThrow(() -> new NotFoundException("Categoría no encontrada: " + categoryId));
-            categories.add(category);
+            categories.add(categoryRepo.getReferenceById(categoryId));
         }
 
         return categories;
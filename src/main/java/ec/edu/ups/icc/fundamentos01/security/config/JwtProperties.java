@@ -14,6 +14,12 @@ public class JwtProperties {
     private String issuer;
     private String header;
     private String prefix;
+    private Long verifiedCacheSize = 10000L;
+    private boolean claimsTrusted = false;
+    private Long claimsFreshness = 300000L;
+    private Long revocationExpectedInsertions = 100000L;
+    private Double revocationFalsePositiveRate = 0.01;
+    private Long revocationSyncOverlap = 60000L;
 
     // GETTERS Y SETTERS
     public String getSecret() {
@@ -64,4 +70,52 @@ public class JwtProperties {
         this.prefix = prefix;
     }
 
+    public Long getVerifiedCacheSize() {
+        return verifiedCacheSize;
+    }
+
+    public void setVerifiedCacheSize(Long verifiedCacheSize) {
+        this.verifiedCacheSize = verifiedCacheSize;
+    }
+
+    public boolean isClaimsTrusted() {
+        return claimsTrusted;
+    }
+
+    public void setClaimsTrusted(boolean claimsTrusted) {
+        this.claimsTrusted = claimsTrusted;
+    }
+
+    public Long getClaimsFreshness() {
+        return claimsFreshness;
+    }
+
+    public void setClaimsFreshness(Long claimsFreshness) {
+        this.claimsFreshness = claimsFreshness;
+    }
+
+    public Long getRevocationExpectedInsertions() {
+        return revocationExpectedInsertions;
+    }
+
+    public void setRevocationExpectedInsertions(Long revocationExpectedInsertions) {
+        this.revocationExpectedInsertions = revocationExpectedInsertions;
+    }
+
+    public Double getRevocationFalsePositiveRate() {
+        return revocationFalsePositiveRate;
+    }
+
+    public void setRevocationFalsePositiveRate(Double revocationFalsePositiveRate) {
+        this.revocationFalsePositiveRate = revocationFalsePositiveRate;
+    }
+
+    public Long getRevocationSyncOverlap() {
+        return revocationSyncOverlap;
+    }
+
+    public void setRevocationSyncOverlap(Long revocationSyncOverlap) {
+        this.revocationSyncOverlap = revocationSyncOverlap;
+    }
+
 }
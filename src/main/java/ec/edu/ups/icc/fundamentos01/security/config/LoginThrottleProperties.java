@@ -0,0 +1,73 @@
+package ec.edu.ups.icc.fundamentos01.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del límite de intentos de login (prefijo "login-throttle")
+ *
+ * Cada clave (IP o email) tiene un token bucket:
+ * - capacity: intentos seguidos permitidos (ráfaga)
+ * - refill-interval: milisegundos para recuperar UN intento
+ */
+@Configuration
+@ConfigurationProperties(prefix = "login-throttle")
+public class LoginThrottleProperties {
+
+    private boolean enabled = true;
+    private Long ipCapacity = 20L;
+    private Long ipRefillInterval = 3000L;
+    private Long emailCapacity = 5L;
+    private Long emailRefillInterval = 60000L;
+    private Long maximumKeys = 100000L;
+
+    // GETTERS Y SETTERS
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Long getIpCapacity() {
+        return ipCapacity;
+    }
+
+    public void setIpCapacity(Long ipCapacity) {
+        this.ipCapacity = ipCapacity;
+    }
+
+    public Long getIpRefillInterval() {
+        return ipRefillInterval;
+    }
+
+    public void setIpRefillInterval(Long ipRefillInterval) {
+        this.ipRefillInterval = ipRefillInterval;
+    }
+
+    public Long getEmailCapacity() {
+        return emailCapacity;
+    }
+
+    public void setEmailCapacity(Long emailCapacity) {
+        this.emailCapacity = emailCapacity;
+    }
+
+    public Long getEmailRefillInterval() {
+        return emailRefillInterval;
+    }
+
+    public void setEmailRefillInterval(Long emailRefillInterval) {
+        this.emailRefillInterval = emailRefillInterval;
+    }
+
+    public Long getMaximumKeys() {
+        return maximumKeys;
+    }
+
+    public void setMaximumKeys(Long maximumKeys) {
+        this.maximumKeys = maximumKeys;
+    }
+
+}
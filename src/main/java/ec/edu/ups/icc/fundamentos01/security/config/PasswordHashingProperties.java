@@ -0,0 +1,87 @@
+package ec.edu.ups.icc.fundamentos01.security.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuración del hashing de contraseñas con BCrypt (prefijo "password-hashing")
+ */
+@Configuration
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingProperties {
+
+    private Integer poolSize = 0;
+    private Integer queueCapacity = 64;
+    private Long waitMillis = 2000L;
+    private boolean calibrate = false;
+    private Long targetMillis = 100L;
+    private Integer strength = 10;
+    private Integer minStrength = 10;
+    private Integer maxStrength = 14;
+
+    // GETTERS Y SETTERS
+    public Integer getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(Integer poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(Integer queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public Long getWaitMillis() {
+        return waitMillis;
+    }
+
+    public void setWaitMillis(Long waitMillis) {
+        this.waitMillis = waitMillis;
+    }
+
+    public boolean isCalibrate() {
+        return calibrate;
+    }
+
+    public void setCalibrate(boolean calibrate) {
+        this.calibrate = calibrate;
+    }
+
+    public Long getTargetMillis() {
+        return targetMillis;
+    }
+
+    public void setTargetMillis(Long targetMillis) {
+        this.targetMillis = targetMillis;
+    }
+
+    public Integer getStrength() {
+        return strength;
+    }
+
+    public void setStrength(Integer strength) {
+        this.strength = strength;
+    }
+
+    public Integer getMinStrength() {
+        return minStrength;
+    }
+
+    public void setMinStrength(Integer minStrength) {
+        this.minStrength = minStrength;
+    }
+
+    public Integer getMaxStrength() {
+        return maxStrength;
+    }
+
+    public void setMaxStrength(Integer maxStrength) {
+        this.maxStrength = maxStrength;
+    }
+
+}
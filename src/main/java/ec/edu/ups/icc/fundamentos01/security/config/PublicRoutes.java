@@ -0,0 +1,32 @@
+package ec.edu.ups.icc.fundamentos01.security.config;
+
+import org.springframework.http.HttpMethod;
+
+import ec.edu.ups.icc.fundamentos01.security.utils.RoutePolicy;
+
+/**
+ * PublicRoutes: Única declaración de las reglas de acceso por ruta
+ *
+ * - SecurityConfig registra estas reglas (en este orden) en authorizeHttpRequests
+ * - JwtAuthenticationFilter NO procesa el JWT en las rutas públicas
+ *
+ * Cualquier ruta no listada requiere autenticación (anyRequest().authenticated()).
+ */
+public final class PublicRoutes {
+
+    public static final RoutePolicy POLICY = RoutePolicy.builder()
+        // Logout necesita el access token verificado por el filtro JWT
+        .authenticated(HttpMethod.POST, "/auth/logout")
+
+        // Endpoints públicos (sin autenticación)
+        .permitAll("/auth/**")
+        .permitAll("/status/**")
+        .permitAll("/actuator/**")
+
+        // Solo lectura de usuarios es pública (GET)
+        .permitAll(HttpMethod.GET, "/api/users/**")
+        .build();
+
+    private PublicRoutes() {
+    }
+}
@@ -4,7 +4,6 @@ package ec.edu.ups.icc.fundamentos01.security.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
@@ -13,14 +12,14 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import ec.edu.ups.icc.fundamentos01.security.filters.JwtAuthenticationEntryPoint;
 import ec.edu.ups.icc.fundamentos01.security.filters.JwtAuthenticationFilter;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsServiceImpl;
+import ec.edu.ups.icc.fundamentos01.security.utils.BoundedBCryptPasswordEncoder;
+import ec.edu.ups.icc.fundamentos01.security.utils.RoutePolicy;
 
 @Configuration
 @EnableWebSecurity
@@ -30,18 +29,41 @@ public class SecurityConfig {
     private final UserDetailsServiceImpl userDetailsService;
     private final JwtAuthenticationEntryPoint unauthorizedHandler;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PasswordHashingProperties passwordHashingProperties;
 
     public SecurityConfig(UserDetailsServiceImpl userDetailsService,
                           JwtAuthenticationEntryPoint unauthorizedHandler,
-                          JwtAuthenticationFilter jwtAuthenticationFilter) {
+                          JwtAuthenticationFilter jwtAuthenticationFilter,
+                          PasswordHashingProperties passwordHashingProperties) {
         this.userDetailsService = userDetailsService;
         this.unauthorizedHandler = unauthorizedHandler;
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.passwordHashingProperties = passwordHashingProperties;
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * PasswordEncoder: BCrypt en un pool dedicado y acotado
+     * 
+     * - El costo se fija con password-hashing.strength (igual en todos los
+     *   nodos), o se calibra al iniciar (password-hashing.calibrate, un nodo)
+     * - Pool lleno → 429 inmediato, sin bloquear threads de Tomcat
+     * - Espera acotada (password-hashing.wait-millis) → 429
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedBCryptPasswordEncoder passwordEncoder() {
+        PasswordHashingProperties props = passwordHashingProperties;
+
+        int strength = props.isCalibrate()
+            ? BoundedBCryptPasswordEncoder.calibrateStrength(
+                props.getTargetMillis(), props.getMinStrength(), props.getMaxStrength())
+            : props.getStrength();
+
+        int poolSize = props.getPoolSize() > 0
+            ? props.getPoolSize()
+            : Runtime.getRuntime().availableProcessors();
+
+        return new BoundedBCryptPasswordEncoder(strength, poolSize, props.getQueueCapacity(),
+            props.getWaitMillis());
     }
 
     /**
@@ -51,11 +73,15 @@ public class SecurityConfig {
      * 
      * Spring Security usa este provider para autenticar credenciales.
      * El constructor acepta directamente el UserDetailsService en Spring Boot 3.x/4.x
+     * 
+     * UserDetailsPasswordService: tras un login exitoso, si el hash guardado
+     * tiene un costo BCrypt distinto al actual, se re-hashea y se actualiza en BD.
      */
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -81,18 +107,20 @@ public class SecurityConfig {
             )
 
             // Configurar autorización de requests
-            .authorizeHttpRequests(auth -> auth
-                // Endpoints públicos (sin autenticación)
-                .requestMatchers("/auth/**").permitAll()
-                .requestMatchers("/status/**").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
-                
-                // Solo lectura de usuarios es pública (GET)
-                .requestMatchers(HttpMethod.GET, "/api/users/**").permitAll()
-                
+            .authorizeHttpRequests(auth -> {
+                // Reglas por ruta declaradas en PublicRoutes (mismo orden)
+                for (RoutePolicy.Rule rule : PublicRoutes.POLICY.rules()) {
+                    var matcher = auth.requestMatchers(rule.method(), rule.pattern());
+                    if (rule.access() == RoutePolicy.Access.PERMIT_ALL) {
+                        matcher.permitAll();
+                    } else {
+                        matcher.authenticated();
+                    }
+                }
+
                 // Todos los demás endpoints requieren autenticación
-                .anyRequest().authenticated()
-            );
+                auth.anyRequest().authenticated();
+            });
 
         // Agregar proveedor de autenticación
         http.authenticationProvider(authenticationProvider());
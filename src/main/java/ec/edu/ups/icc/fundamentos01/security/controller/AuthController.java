@@ -2,24 +2,32 @@ package ec.edu.ups.icc.fundamentos01.security.controller;
 
 // imports packages y clases....
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.web.bind.annotation.*;
 
 import ec.edu.ups.icc.fundamentos01.security.dtos.AuthResponseDto;
 import ec.edu.ups.icc.fundamentos01.security.dtos.LoginRequestDto;
+import ec.edu.ups.icc.fundamentos01.security.dtos.RefreshTokenRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.dtos.RegisterRequestDto;
+import ec.edu.ups.icc.fundamentos01.security.filters.JwtAuthenticationFilter;
 import ec.edu.ups.icc.fundamentos01.security.services.AuthService;
+import ec.edu.ups.icc.fundamentos01.security.services.LoginThrottleService;
+import ec.edu.ups.icc.fundamentos01.security.utils.VerifiedJwt;
 
 @RestController
 @RequestMapping("/auth") // Prefijo para todos los endpoints de autenticación
 public class AuthController {
 
     private final AuthService authService; // Servicio de lógica de autenticación
+    private final LoginThrottleService loginThrottleService; // Límite de intentos de login
 
-    public AuthController(AuthService authService) {
+    public AuthController(AuthService authService, LoginThrottleService loginThrottleService) {
         this.authService = authService;
+        this.loginThrottleService = loginThrottleService;
     }
 
     /**
@@ -27,10 +35,22 @@ public class AuthController {
      * POST /auth/login
      */
     @PostMapping("/login")
-    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequest) {
+    public ResponseEntity<AuthResponseDto> login(@Valid @RequestBody LoginRequestDto loginRequest,
+                                                 HttpServletRequest request) {
         // @Valid valida anotaciones en LoginRequestDto (email, password requeridos)
-        AuthResponseDto response = authService.login(loginRequest);
-        return ResponseEntity.ok(response); // 200 OK con JWT
+
+        // Límite por IP y email ANTES de la BD y BCrypt → 429
+        // (getRemoteAddr ya resuelve X-Forwarded-For: server.forward-headers-strategy)
+        loginThrottleService.checkLogin(request.getRemoteAddr(), loginRequest.getEmail());
+
+        try {
+            AuthResponseDto response = authService.login(loginRequest);
+            return ResponseEntity.ok(response); // 200 OK con JWT
+        } catch (AuthenticationException ex) {
+            // Solo los fallos cuentan contra el email
+            loginThrottleService.recordFailure(loginRequest.getEmail());
+            throw ex;
+        }
     }
 
     /**
@@ -43,4 +63,31 @@ public class AuthController {
         AuthResponseDto response = authService.register(registerRequest);
         return ResponseEntity.status(HttpStatus.CREATED).body(response); // 201 Created con JWT
     }
+
+    /**
+     * Refresh - Endpoint público (configurado en SecurityConfig)
+     * POST /auth/refresh
+     * 
+     * Cambia un refresh token por un nuevo access token sin enviar la contraseña
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponseDto> refresh(@Valid @RequestBody RefreshTokenRequestDto refreshRequest) {
+        AuthResponseDto response = authService.refresh(refreshRequest);
+        return ResponseEntity.ok(response); // 200 OK con nuevo JWT y refresh token
+    }
+
+    /**
+     * Logout - Requiere el access token en el header Authorization
+     * POST /auth/logout
+     * 
+     * Revoca el access token actual (por su jti) y, si se envía en el body,
+     * la familia del refresh token
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestAttribute(name = JwtAuthenticationFilter.VERIFIED_JWT_ATTRIBUTE, required = false) VerifiedJwt accessToken,
+            @RequestBody(required = false) RefreshTokenRequestDto refreshRequest) {
+        authService.logout(accessToken, refreshRequest);
+        return ResponseEntity.noContent().build(); // 204 No Content
+    }
 }
\ No newline at end of file
@@ -9,10 +9,12 @@ import java.util.Set;
  * Usado como respuesta en:
  * - POST /api/auth/login
  * - POST /api/auth/register
+ * - POST /api/auth/refresh
  * 
  * Ejemplo de respuesta JSON:
  * {
  *   "token": "eyJhbGciOiJIUzI1NiIsInR5cCI6IkpXVCJ9...",
+ *   "refreshToken": "q3Jx0Vb2...",
  *   "type": "Bearer",
  *   "userId": 1,
  *   "name": "Juan Pérez",
@@ -23,6 +25,7 @@ import java.util.Set;
 public class AuthResponseDto {
 
     private String token;
+    private String refreshToken;
     private String type = "Bearer";
     private Long userId;
     private String name;
@@ -52,6 +55,14 @@ public class AuthResponseDto {
         this.token = token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
     public String getType() {
         return type;
     }
@@ -0,0 +1,33 @@
+package ec.edu.ups.icc.fundamentos01.security.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * DTO para solicitudes de refresh
+ * 
+ * Usado en POST /auth/refresh
+ */
+public class RefreshTokenRequestDto {
+
+    @NotBlank(message = "El refresh token es obligatorio")
+    private String refreshToken;
+
+    // ============== CONSTRUCTORES ==============
+
+    public RefreshTokenRequestDto() {
+    }
+
+    public RefreshTokenRequestDto(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    // ============== GETTERS Y SETTERS ==============
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
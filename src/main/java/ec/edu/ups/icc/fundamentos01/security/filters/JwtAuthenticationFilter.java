@@ -16,8 +16,13 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import ec.edu.ups.icc.fundamentos01.security.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.security.config.PublicRoutes;
+import ec.edu.ups.icc.fundamentos01.security.services.TokenRevocationService;
+import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
 import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsServiceImpl;
+import ec.edu.ups.icc.fundamentos01.security.services.UserSecurityVersionRegistry;
 import ec.edu.ups.icc.fundamentos01.security.utils.JwtUtil;
+import ec.edu.ups.icc.fundamentos01.security.utils.VerifiedJwt;
 
 import java.io.IOException;
 
@@ -27,6 +32,11 @@ import java.io.IOException;
 @Component // Spring lo registra automáticamente como bean
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /**
+     * Atributo de la request con el token ya verificado (lo usa POST /auth/logout)
+     */
+    public static final String VERIFIED_JWT_ATTRIBUTE = JwtAuthenticationFilter.class.getName() + ".VERIFIED_JWT";
+
     /**
      * Logger para debugging y errores
      * 
@@ -42,13 +52,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil; // Para validar y extraer datos del JWT
     private final UserDetailsServiceImpl userDetailsService; // Para cargar usuario desde BD
     private final JwtProperties jwtProperties; // Configuración JWT (header, prefix)
+    private final UserSecurityVersionRegistry securityVersions; // Versiones de seguridad conocidas
+    private final TokenRevocationService tokenRevocationService; // Tokens revocados (logout)
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
             UserDetailsServiceImpl userDetailsService,
-            JwtProperties jwtProperties) {
+            JwtProperties jwtProperties,
+            UserSecurityVersionRegistry securityVersions,
+            TokenRevocationService tokenRevocationService) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
         this.jwtProperties = jwtProperties;
+        this.securityVersions = securityVersions;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    /**
+     * shouldNotFilter: Rutas públicas NO procesan el JWT
+     * 
+     * En rutas permitAll (ver PublicRoutes) un token ausente, inválido o
+     * expirado no cambia la respuesta: se evita el parseo, los logs y el
+     * camino de excepciones. La decisión es un recorrido del trie compilado.
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return PublicRoutes.POLICY.isPublic(request.getMethod(), path);
     }
 
     /**
@@ -77,19 +106,41 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = getJwtFromRequest(request);
 
             /**
-             * PASO 2: Validar y autenticar SOLO si hay token
+             * PASO 2: Verificar y decodificar el token en UN solo parseo
+             * 
+             * verifyAndDecode() retorna null si el token es inválido.
+             * Si el token se verificó hace poco, sale de la caché sin
+             * volver a calcular la firma HMAC.
              */
-            if (StringUtils.hasText(jwt) && jwtUtil.validateToken(jwt)) {
+            VerifiedJwt verifiedJwt = StringUtils.hasText(jwt) ? jwtUtil.verifyAndDecode(jwt) : null;
+
+            /**
+             * PASO 2.1: Descartar tokens revocados (logout)
+             * 
+             * El Bloom filter responde "no revocado" sin consultar la BD
+             * para casi todos los tokens.
+             */
+            if (verifiedJwt != null && tokenRevocationService.isRevoked(verifiedJwt.getTokenId())) {
+                logger.debug("Token revocado para: {}", verifiedJwt.getEmail());
+                verifiedJwt = null;
+            }
+
+            if (verifiedJwt != null) {
+
+                request.setAttribute(VERIFIED_JWT_ATTRIBUTE, verifiedJwt);
 
                 /**
-                 * PASO 3: Extraer email del token
+                 * PASO 3: Extraer email de los claims ya verificados
                  */
-                String email = jwtUtil.getEmailFromToken(jwt);
+                String email = verifiedJwt.getEmail();
 
                 /**
-                 * PASO 4: Cargar usuario desde base de datos
+                 * PASO 4: Obtener el usuario
+                 * 
+                 * - Modo claims-trusted con token fresco y versión vigente → desde los claims
+                 * - En cualquier otro caso → desde base de datos
                  */
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+                UserDetails userDetails = resolveUserDetails(verifiedJwt);
 
                 /**
                  * PASO 5: Crear objeto Authentication
@@ -161,7 +212,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                  *                          auth.getPrincipal();
                  * 
                  *                          En @PreAuthorize:
-                 *                          @PreAuthorize("hasRole('ADMIN')") ← Lee authorities
+                 *                          @PreAuthorize("@roleEvaluator.hasRole(authentication, 'ADMIN')") ← Lee la máscara
                  *                          de aquí
                  */
                 SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -199,6 +250,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    /**
+     * resolveUserDetails: Construye el principal de la request
+     * 
+     * Modo claims-trusted (jwt.claims-trusted = true):
+     * - Si el token es más reciente que jwt.claims-freshness
+     * - Y su versión de seguridad ("sv") es la última conocida
+     * → UserDetailsImpl se arma desde los claims, SIN SELECT a users/user_roles
+     * 
+     * En otro caso se carga y se registra la versión actual del usuario. Si
+     * este nodo no conocía al usuario, la carga va directo a la BD (un cambio
+     * hecho en otro nodo puede no estar reflejado en la caché local).
+     */
+    private UserDetailsImpl resolveUserDetails(VerifiedJwt verifiedJwt) {
+        if (isClaimsTrustable(verifiedJwt)) {
+            return UserDetailsImpl.fromJwt(verifiedJwt);
+        }
+
+        UserDetailsImpl userDetails = securityVersions.isKnown(verifiedJwt.getUserId())
+                ? userDetailsService.loadUserByUsername(verifiedJwt.getEmail())
+                : userDetailsService.reloadUserByUsername(verifiedJwt.getEmail());
+        securityVersions.record(userDetails.getId(), userDetails.getSecurityVersion());
+        return userDetails;
+    }
+
+    private boolean isClaimsTrustable(VerifiedJwt verifiedJwt) {
+        if (!jwtProperties.isClaimsTrusted() || verifiedJwt.getIssuedAt() == null) {
+            return false;
+        }
+
+        long tokenAgeMillis = System.currentTimeMillis() - verifiedJwt.getIssuedAt().toEpochMilli();
+        return tokenAgeMillis <= jwtProperties.getClaimsFreshness()
+                && securityVersions.isCurrent(verifiedJwt.getUserId(), verifiedJwt.getSecurityVersion());
+    }
+
     /**
      * getJwtFromRequest: Método helper para extraer JWT del header
      * 
@@ -0,0 +1,118 @@
+package ec.edu.ups.icc.fundamentos01.security.models;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import ec.edu.ups.icc.fundamentos01.core.entities.BaseModel;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import jakarta.persistence.*;
+
+/**
+ * ENTIDAD: Refresh token
+ * 
+ * Permite obtener nuevos access tokens SIN volver a enviar la contraseña.
+ * 
+ * - Nunca se guarda el token en claro: solo su hash SHA-256 (token_hash)
+ * - Rotación: cada uso marca el token como revocado y emite uno nuevo
+ *   de la misma familia (family_id)
+ * - Detección de reutilización: si llega un token ya revocado, alguien
+ *   copió el token → se revoca TODA la familia
+ * 
+ * Tabla en BD: refresh_tokens
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+    @Index(name = "idx_refresh_tokens_family", columnList = "family_id")
+})
+public class RefreshTokenEntity extends BaseModel {
+
+    /**
+     * Hash SHA-256 del token (Base64 URL, 43 caracteres)
+     * unique = true → índice único: el refresh es UNA búsqueda por índice
+     */
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    /**
+     * Familia de rotación: todos los tokens derivados del mismo login
+     */
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    /**
+     * Dueño del token
+     * ON DELETE CASCADE: al eliminar el usuario se eliminan sus refresh tokens
+     */
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private UserEntity user;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private boolean revoked;
+
+    // ============== CONSTRUCTORES ==============
+
+    public RefreshTokenEntity() {
+    }
+
+    public RefreshTokenEntity(String tokenHash, String familyId, UserEntity user, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.user = user;
+        this.expiresAt = expiresAt;
+    }
+
+    // ============== MÉTODOS HELPER ==============
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+
+    // ============== GETTERS Y SETTERS ==============
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public UserEntity getUser() {
+        return user;
+    }
+
+    public void setUser(UserEntity user) {
+        this.user = user;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public boolean isRevoked() {
+        return revoked;
+    }
+
+    public void setRevoked(boolean revoked) {
+        this.revoked = revoked;
+    }
+}
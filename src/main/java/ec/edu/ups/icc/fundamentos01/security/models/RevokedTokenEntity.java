@@ -0,0 +1,63 @@
+package ec.edu.ups.icc.fundamentos01.security.models;
+
+import java.time.LocalDateTime;
+
+import ec.edu.ups.icc.fundamentos01.core.entities.BaseModel;
+import jakarta.persistence.*;
+
+/**
+ * ENTIDAD: Access token revocado (logout)
+ *
+ * - Se identifica por el claim "jti" del JWT
+ * - expires_at = expiración del propio token: pasada esa fecha el token
+ *   ya es inválido por sí mismo y la fila se puede eliminar
+ * - Cada nodo sincroniza su Bloom filter por created_at con una ventana
+ *   solapada (no por id: los IDENTITY se asignan al insertar pero se
+ *   confirman en otro orden, y un id menor puede aparecer después)
+ *
+ * Tabla en BD: revoked_tokens
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_tokens_expires_at", columnList = "expires_at"),
+    @Index(name = "idx_revoked_tokens_created_at", columnList = "created_at")
+})
+public class RevokedTokenEntity extends BaseModel {
+
+    /**
+     * jti del token (UUID, 36 caracteres)
+     */
+    @Column(nullable = false, unique = true, length = 36)
+    private String jti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // ============== CONSTRUCTORES ==============
+
+    public RevokedTokenEntity() {
+    }
+
+    public RevokedTokenEntity(String jti, LocalDateTime expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    // ============== GETTERS Y SETTERS ==============
+
+    public String getJti() {
+        return jti;
+    }
+
+    public void setJti(String jti) {
+        this.jti = jti;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
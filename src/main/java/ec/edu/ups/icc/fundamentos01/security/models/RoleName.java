@@ -1,17 +1,31 @@
 package ec.edu.ups.icc.fundamentos01.security.models;
 
 public enum RoleName {
-    ROLE_USER("Usuario estándar con permisos básicos"),
-    ROLE_ADMIN("Administrador con permisos completos"),
-    ROLE_MODERATOR("Moderador con permisos intermedios");
+    ROLE_USER(0, "Usuario estándar con permisos básicos"),
+    ROLE_ADMIN(1, "Administrador con permisos completos"),
+    ROLE_MODERATOR(2, "Moderador con permisos intermedios");
 
+    /**
+     * Posición del rol en la máscara de roles (claim "rm" del JWT)
+     * Es explícita: reordenar el enum NO debe cambiar los bits de tokens ya emitidos
+     */
+    private final int bit;
     private final String description;
 
-    RoleName(String description) {
+    RoleName(int bit, String description) {
+        this.bit = bit;
         this.description = description;
     }
 
+    public long mask() {
+        return 1L << bit;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
     public String getDescription() {
         return description;
     }
-}
\ No newline at end of file
+}
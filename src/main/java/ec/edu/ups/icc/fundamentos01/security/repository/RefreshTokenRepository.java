@@ -0,0 +1,36 @@
+package ec.edu.ups.icc.fundamentos01.security.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ec.edu.ups.icc.fundamentos01.security.models.RefreshTokenEntity;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshTokenEntity, Long> {
+
+    // Buscar token por hash (índice único) junto con su usuario y roles
+    @Query("SELECT t FROM RefreshTokenEntity t JOIN FETCH t.user u LEFT JOIN FETCH u.roles " +
+           "WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshTokenEntity> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // Revocar UN token solo si sigue activo: 0 filas = otro request ya lo usó (reutilización)
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity t SET t.revoked = true WHERE t.id = :id AND t.revoked = false")
+    int revokeIfActive(@Param("id") Long id);
+
+    // Revocar todos los tokens de una familia (reutilización detectada o logout)
+    @Modifying
+    @Query("UPDATE RefreshTokenEntity t SET t.revoked = true WHERE t.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    // Limpieza periódica de tokens expirados
+    @Modifying
+    @Query("DELETE FROM RefreshTokenEntity t WHERE t.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,41 @@
+package ec.edu.ups.icc.fundamentos01.security.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ec.edu.ups.icc.fundamentos01.security.models.RevokedTokenEntity;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedTokenEntity, Long> {
+
+    // Confirmación exacta (solo cuando el Bloom filter da positivo)
+    boolean existsByJti(String jti);
+
+    // Reconstrucción: jti de revocaciones aún vigentes
+    @Query("SELECT r.jti FROM RevokedTokenEntity r WHERE r.expiresAt > :now")
+    List<String> findActiveJtis(@Param("now") LocalDateTime now);
+
+    // Sincronización incremental: revocaciones creadas desde el inicio de la ventana
+    @Query("SELECT r.jti FROM RevokedTokenEntity r WHERE r.createdAt > :since")
+    List<String> findJtisCreatedAfter(@Param("since") LocalDateTime since);
+
+    // Revocación idempotente: con dos logouts simultáneos del mismo token, el segundo no falla
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, expires_at, created_at, deleted) " +
+                   "VALUES (:jti, :expiresAt, :createdAt, false) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti,
+                       @Param("expiresAt") LocalDateTime expiresAt,
+                       @Param("createdAt") LocalDateTime createdAt);
+
+    // Limpieza periódica de revocaciones cuyo token ya expiró
+    @Modifying
+    @Query("DELETE FROM RevokedTokenEntity r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -11,13 +11,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
 import ec.edu.ups.icc.fundamentos01.exceptions.domain.ConflictException;
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.UnauthorizedException;
 import ec.edu.ups.icc.fundamentos01.security.dtos.AuthResponseDto;
 import ec.edu.ups.icc.fundamentos01.security.dtos.LoginRequestDto;
+import ec.edu.ups.icc.fundamentos01.security.dtos.RefreshTokenRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.dtos.RegisterRequestDto;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleEntity;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
 import ec.edu.ups.icc.fundamentos01.security.repository.RoleRepository;
 import ec.edu.ups.icc.fundamentos01.security.utils.JwtUtil;
+import ec.edu.ups.icc.fundamentos01.security.utils.VerifiedJwt;
 import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
 import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
 
@@ -34,23 +37,32 @@ public class AuthService {
     private final RoleRepository roleRepository;               // Gestión de roles
     private final PasswordEncoder passwordEncoder;             // Hash de passwords
     private final JwtUtil jwtUtil;                            // Generación de tokens
+    private final RefreshTokenService refreshTokenService;    // Refresh tokens
+    private final TokenRevocationService tokenRevocationService; // Revocación (logout)
 
     public AuthService(AuthenticationManager authenticationManager,
                        UserRepository userRepository,
                        RoleRepository roleRepository,
                        PasswordEncoder passwordEncoder,
-                       JwtUtil jwtUtil) {
+                       JwtUtil jwtUtil,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationService tokenRevocationService) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     /**
      * Login: Valida credenciales y retorna JWT
+     *
+     * Sin @Transactional: BCrypt (~100 ms) corre sin conexión del pool tomada.
+     * La carga del usuario, el re-hash (updatePassword) y el refresh token
+     * usan cada uno una transacción corta propia.
      */
-    @Transactional(readOnly = true) // Solo lectura, no modifica BD
     public AuthResponseDto login(LoginRequestDto loginRequest) {
         
         // 1. Validar email y password con Spring Security
@@ -78,14 +90,19 @@ public class AuthService {
             .map(item -> item.getAuthority()) // "ROLE_USER", "ROLE_ADMIN"
             .collect(Collectors.toSet());
 
-        // 5. Retornar JWT + datos del usuario
-        return new AuthResponseDto(
+        // 5. Emitir refresh token (transacción corta, después de BCrypt)
+        String refreshToken = refreshTokenService.issue(userDetails.getId());
+
+        // 6. Retornar JWT + refresh token + datos del usuario
+        AuthResponseDto response = new AuthResponseDto(
             jwt,                      // Token para autenticación
             userDetails.getId(),      // ID del usuario
             userDetails.getName(),    // Nombre completo
             userDetails.getEmail(),   // Email
             roles                     // Roles asignados
         );
+        response.setRefreshToken(refreshToken);
+        return response;
     }
 
     /**
@@ -129,13 +146,75 @@ public class AuthService {
             .map(role -> role.getName().name()) // RoleName.ROLE_USER → "ROLE_USER"
             .collect(Collectors.toSet());
 
-        // 6. Retornar JWT + datos del usuario registrado
-        return new AuthResponseDto(
+        // 6. Retornar JWT + refresh token + datos del usuario registrado
+        AuthResponseDto response = new AuthResponseDto(
+            jwt,
+            user.getId(),
+            user.getName(),
+            user.getEmail(),
+            roleNames
+        );
+        response.setRefreshToken(refreshTokenService.issue(user));
+        return response;
+    }
+
+    /**
+     * Refresh: Cambia un refresh token válido por un nuevo access token
+     * 
+     * - NO usa AuthenticationManager ni BCrypt
+     * - Rota el refresh token (el anterior queda revocado)
+     * - Si el token ya fue usado: se revoca toda su familia → 401
+     * 
+     * Sin @Transactional propio: la revocación por reutilización se confirma
+     * en RefreshTokenService.rotate() aunque se responda 401.
+     */
+    public AuthResponseDto refresh(RefreshTokenRequestDto refreshRequest) {
+
+        // 1. Validar y rotar el refresh token (una búsqueda por índice)
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshRequest.getRefreshToken());
+        UserEntity user = rotation.getUser();
+
+        // 2. Generar nuevo access token con los datos ACTUALES del usuario
+        UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+        String jwt = jwtUtil.generateTokenFromUserDetails(userDetails);
+
+        Set<String> roleNames = user.getRoles().stream()
+            .map(role -> role.getName().name())
+            .collect(Collectors.toSet());
+
+        // 3. Retornar nuevo JWT + nuevo refresh token
+        AuthResponseDto response = new AuthResponseDto(
             jwt,
             user.getId(),
             user.getName(),
             user.getEmail(),
             roleNames
         );
+        response.setRefreshToken(rotation.getRefreshToken());
+        return response;
+    }
+
+    /**
+     * Logout: Revoca el access token actual y opcionalmente su refresh token
+     * 
+     * - El access token queda inválido hasta su "exp" en todos los nodos
+     * - Si se envía el refresh token, se revoca toda su familia
+     */
+    @Transactional
+    public void logout(VerifiedJwt accessToken, RefreshTokenRequestDto refreshRequest) {
+
+        // 1. Sin access token válido no hay sesión que cerrar → 401
+        if (accessToken == null) {
+            throw new UnauthorizedException("Token de acceso requerido para cerrar sesión");
+        }
+
+        // 2. Revocar el access token por su jti
+        tokenRevocationService.revoke(accessToken.getTokenId(), accessToken.getExpiresAt());
+
+        // 3. Revocar la familia del refresh token (si se envió)
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null
+                && !refreshRequest.getRefreshToken().isBlank()) {
+            refreshTokenService.revokeFamilyOf(refreshRequest.getRefreshToken());
+        }
     }
-}
\ No newline at end of file
+}
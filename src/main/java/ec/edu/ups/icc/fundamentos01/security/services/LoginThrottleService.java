@@ -0,0 +1,125 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.time.Duration;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.TooManyRequestsException;
+import ec.edu.ups.icc.fundamentos01.security.config.LoginThrottleProperties;
+import ec.edu.ups.icc.fundamentos01.security.utils.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * LoginThrottleService: Límite de intentos de login por IP y por email
+ *
+ * PROBLEMA:
+ * - /auth/login es público y cada intento cuesta un SELECT + un BCrypt completo
+ * - Es la forma más barata de saturar la CPU (o de adivinar contraseñas)
+ *
+ * SOLUCIÓN:
+ * - Un token bucket por IP: cada intento consume (frena a un atacante que
+ *   prueba muchos emails)
+ * - Un token bucket por email: solo los intentos FALLIDOS consumen (frena
+ *   ataques distribuidos contra una cuenta). Si contaran los correctos,
+ *   cualquiera que conozca el email bloquearía al dueño desde varias IPs
+ * - Todo en memoria: se verifica ANTES de consultar la BD o hashear
+ *
+ * La IP es request.getRemoteAddr(): detrás de un proxy requiere
+ * server.forward-headers-strategy (ver application.yaml), si no todos los
+ * clientes comparten el bucket de la IP del proxy.
+ *
+ * Métricas en /actuator/metrics:
+ * - auth.login.throttle.allowed
+ * - auth.login.throttle.rejected (tag scope=ip|email)
+ * - auth.login.throttle.keys (tag scope=ip|email)
+ */
+@Service
+public class LoginThrottleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottleService.class);
+
+    private static final String LIMITED_MESSAGE =
+            "Demasiados intentos de inicio de sesión. Intente nuevamente más tarde";
+
+    private final boolean enabled;
+    private final TokenBucketRateLimiter ipLimiter;
+    private final TokenBucketRateLimiter emailLimiter;
+
+    private final Counter allowed;
+    private final Counter rejectedByIp;
+    private final Counter rejectedByEmail;
+
+    public LoginThrottleService(LoginThrottleProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.ipLimiter = new TokenBucketRateLimiter(
+                properties.getIpCapacity(),
+                Duration.ofMillis(properties.getIpRefillInterval()),
+                properties.getMaximumKeys());
+        this.emailLimiter = new TokenBucketRateLimiter(
+                properties.getEmailCapacity(),
+                Duration.ofMillis(properties.getEmailRefillInterval()),
+                properties.getMaximumKeys());
+
+        this.allowed = Counter.builder("auth.login.throttle.allowed")
+                .description("Intentos de login que pasaron el límite")
+                .register(meterRegistry);
+        this.rejectedByIp = Counter.builder("auth.login.throttle.rejected")
+                .description("Intentos de login rechazados con 429")
+                .tag("scope", "ip")
+                .register(meterRegistry);
+        this.rejectedByEmail = Counter.builder("auth.login.throttle.rejected")
+                .description("Intentos de login rechazados con 429")
+                .tag("scope", "email")
+                .register(meterRegistry);
+
+        Gauge.builder("auth.login.throttle.keys", ipLimiter, TokenBucketRateLimiter::trackedKeys)
+                .tag("scope", "ip")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.throttle.keys", emailLimiter, TokenBucketRateLimiter::trackedKeys)
+                .tag("scope", "email")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Consume un intento de la IP y verifica (sin consumir) el del email
+     *
+     * @throws TooManyRequestsException (429) si alguno de los dos está limitado
+     */
+    public void checkLogin(String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+
+        if (clientIp != null && !ipLimiter.tryAcquire(clientIp)) {
+            rejectedByIp.increment();
+            logger.debug("Login limitado por IP: {}", clientIp);
+            throw new TooManyRequestsException(LIMITED_MESSAGE);
+        }
+
+        if (email != null && emailLimiter.isLimited(emailKey(email))) {
+            rejectedByEmail.increment();
+            logger.debug("Login limitado por email: {}", email);
+            throw new TooManyRequestsException(LIMITED_MESSAGE);
+        }
+
+        allowed.increment();
+    }
+
+    /**
+     * Credenciales incorrectas: consume un intento del email
+     */
+    public void recordFailure(String email) {
+        if (enabled && email != null) {
+            emailLimiter.tryAcquire(emailKey(email));
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,170 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.UnauthorizedException;
+import ec.edu.ups.icc.fundamentos01.security.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.security.models.RefreshTokenEntity;
+import ec.edu.ups.icc.fundamentos01.security.repository.RefreshTokenRepository;
+import ec.edu.ups.icc.fundamentos01.security.utils.TokenHasher;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+
+/**
+ * RefreshTokenService: Emisión y rotación de refresh tokens
+ *
+ * FLUJO:
+ * 1. login/register → issue(): crea una familia nueva y retorna el token en claro
+ * 2. /auth/refresh  → rotate(): revoca el token usado y emite otro de la misma familia
+ * 3. Si llega un token ya revocado → reutilización → se revoca toda la familia
+ *
+ * El refresh NO usa BCrypt: es una búsqueda por índice (token_hash) + un INSERT.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final String INVALID_TOKEN_MESSAGE = "Refresh token inválido o expirado";
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final JwtProperties jwtProperties;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               JwtProperties jwtProperties) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.jwtProperties = jwtProperties;
+    }
+
+    /**
+     * Emite un refresh token de una familia NUEVA (login o registro)
+     *
+     * @return Token en claro (solo se entrega al cliente, en BD queda el hash)
+     */
+    @Transactional
+    public String issue(UserEntity user) {
+        return issueInFamily(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Igual que issue(UserEntity) para un login ya autenticado
+     *
+     * REQUIRES_NEW: un INSERT en su propia transacción corta; la conexión no
+     * se toma mientras corre BCrypt (getReferenceById: sin SELECT del usuario)
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId));
+    }
+
+    /**
+     * Rota un refresh token: lo revoca y emite uno nuevo de la misma familia
+     *
+     * La revocación es un UPDATE condicional (revoked = false en el WHERE):
+     * si dos requests usan el mismo token a la vez, ambos pueden leerlo
+     * activo, pero solo uno actualiza la fila. El otro recibe 0 filas y se
+     * trata como reutilización.
+     *
+     * noRollbackFor: la revocación de la familia por reutilización debe
+     * persistir aunque se responda 401.
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshTokenEntity current = refreshTokenRepository.findByTokenHash(TokenHasher.sha256(rawToken))
+                .orElseThrow(() -> new UnauthorizedException(INVALID_TOKEN_MESSAGE));
+
+        if (current.isRevoked()) {
+            throw reuseDetected(current);
+        }
+
+        if (current.isExpired()) {
+            throw new UnauthorizedException(INVALID_TOKEN_MESSAGE);
+        }
+
+        if (refreshTokenRepository.revokeIfActive(current.getId()) == 0) {
+            // Otro request lo revocó entre la lectura y el UPDATE
+            throw reuseDetected(current);
+        }
+        String next = issueInFamily(current.getUser(), current.getFamilyId());
+
+        return new Rotation(current.getUser(), next);
+    }
+
+    /**
+     * Revoca la familia completa de un refresh token (logout)
+     *
+     * Un token desconocido se ignora: el logout no revela si existía.
+     */
+    @Transactional
+    public void revokeFamilyOf(String rawToken) {
+        refreshTokenRepository.findByTokenHash(TokenHasher.sha256(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId()));
+    }
+
+    /**
+     * Limpieza periódica: elimina tokens expirados para mantener la tabla compacta
+     */
+    @Scheduled(cron = "${jwt.refresh-cleanup-cron:0 0 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Refresh tokens expirados eliminados: {}", deleted);
+        }
+    }
+
+    /**
+     * Token ya usado → copiado por un tercero: invalidar toda la familia
+     */
+    private UnauthorizedException reuseDetected(RefreshTokenEntity token) {
+        refreshTokenRepository.revokeFamily(token.getFamilyId());
+        logger.warn("Reutilización de refresh token detectada (usuario {}), familia revocada",
+                token.getUser().getId());
+        return new UnauthorizedException(INVALID_TOKEN_MESSAGE);
+    }
+
+    private String issueInFamily(UserEntity user, String familyId) {
+        String rawToken = TokenHasher.randomToken();
+        LocalDateTime expiresAt = LocalDateTime.now()
+                .plus(jwtProperties.getRefreshExpiration(), ChronoUnit.MILLIS);
+
+        refreshTokenRepository.save(new RefreshTokenEntity(
+                TokenHasher.sha256(rawToken), familyId, user, expiresAt));
+
+        return rawToken;
+    }
+
+    /**
+     * Resultado de una rotación: usuario dueño + nuevo refresh token en claro
+     */
+    public static class Rotation {
+
+        private final UserEntity user;
+        private final String refreshToken;
+
+        public Rotation(UserEntity user, String refreshToken) {
+            this.user = user;
+            this.refreshToken = refreshToken;
+        }
+
+        public UserEntity getUser() {
+            return user;
+        }
+
+        public String getRefreshToken() {
+            return refreshToken;
+        }
+    }
+}
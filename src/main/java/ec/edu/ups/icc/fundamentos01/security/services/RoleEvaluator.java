@@ -0,0 +1,46 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import ec.edu.ups.icc.fundamentos01.security.utils.RoleMask;
+
+/**
+ * RoleEvaluator: Verificación de roles por bits para @PreAuthorize
+ *
+ * Uso:
+ * @PreAuthorize("@roleEvaluator.hasRole(authentication, 'ADMIN')")
+ * @PreAuthorize("@roleEvaluator.hasAnyRole(authentication, 'ADMIN', 'MODERATOR')")
+ *
+ * A diferencia de hasRole('ADMIN') de Spring Security:
+ * - No recorre las authorities ni concatena "ROLE_" + nombre
+ * - Resuelve el nombre a su bit (mapa precalculado) y hace un AND con
+ *   la máscara de UserDetailsImpl
+ *
+ * Si el principal no es UserDetailsImpl se usa la lista de authorities.
+ */
+@Component("roleEvaluator")
+public class RoleEvaluator {
+
+    public boolean hasRole(Authentication authentication, String role) {
+        return hasMask(authentication, RoleMask.ofName(role));
+    }
+
+    public boolean hasAnyRole(Authentication authentication, String... roles) {
+        long required = 0L;
+        for (String role : roles) {
+            required |= RoleMask.ofName(role);
+        }
+        return hasMask(authentication, required);
+    }
+
+    private boolean hasMask(Authentication authentication, long required) {
+        if (authentication == null || !authentication.isAuthenticated() || required == 0L) {
+            return false;
+        }
+        if (authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return user.hasAnyRole(required);
+        }
+        return RoleMask.hasAny(RoleMask.fromAuthorities(authentication.getAuthorities()), required);
+    }
+}
@@ -0,0 +1,204 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ec.edu.ups.icc.fundamentos01.security.config.JwtProperties;
+import ec.edu.ups.icc.fundamentos01.security.repository.RevokedTokenRepository;
+import ec.edu.ups.icc.fundamentos01.security.utils.BloomFilter;
+
+/**
+ * TokenRevocationService: Revocación de access tokens por "jti"
+ *
+ * PROBLEMA:
+ * - Un JWT es válido hasta su "exp" aunque el usuario haga logout
+ * - Consultar una tabla de revocados en CADA request agrega un SELECT al camino caliente
+ *
+ * SOLUCIÓN:
+ * - Tabla revoked_tokens como fuente de verdad
+ * - Bloom filter en memoria por nodo delante de la tabla:
+ *   · Negativo (casi todas las requests) → no revocado, SIN consultar BD
+ *   · Positivo → se confirma con existsByJti (puede ser falso positivo)
+ *
+ * CICLO DE VIDA DEL FILTRO:
+ * - Al arrancar: se construye con las revocaciones no expiradas
+ * - Cada jwt.revocation-sync-interval: agrega las revocaciones creadas desde
+ *   la sincronización anterior MENOS jwt.revocation-sync-overlap (incluidas
+ *   las hechas en otros nodos). No se sincroniza por id: los IDENTITY se
+ *   confirman fuera de orden y un "último id visto" saltaría filas. Releer la
+ *   ventana solapada es inocuo: un jti ya presente no se vuelve a insertar
+ * - Cada jwt.revocation-rebuild-cron: se reconstruye desde cero para
+ *   descartar las ya expiradas (un Bloom filter no permite eliminar). Los
+ *   jti agregados durante la reconstrucción se acumulan y se vuelven a
+ *   insertar en el filtro nuevo antes del reemplazo: la consulta pudo no
+ *   verlos y el filtro nuevo los perdería (un falso negativo)
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtProperties jwtProperties;
+
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastSync;
+
+    /**
+     * false hasta la primera construcción: mientras tanto se consulta la BD
+     */
+    private volatile boolean ready;
+
+    /**
+     * Jti agregados mientras corre rebuild() (null si no hay reconstrucción
+     * en curso); protegido por el monitor de filterLock junto con el reemplazo
+     */
+    private Set<String> addedDuringRebuild;
+    private final Object filterLock = new Object();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  JwtProperties jwtProperties) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtProperties = jwtProperties;
+        this.filter = newFilter();
+    }
+
+    /**
+     * ¿El token fue revocado?
+     *
+     * Tokens sin jti (emitidos antes de soportar revocación) no son revocables.
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (ready && !filter.mightContain(jti)) {
+            return false;
+        }
+        return revokedTokenRepository.existsByJti(jti);
+    }
+
+    /**
+     * Revoca un access token hasta su expiración
+     */
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null) {
+            return;
+        }
+
+        // INSERT ... ON CONFLICT DO NOTHING: sin carrera entre comprobar y guardar
+        revokedTokenRepository.insertIfAbsent(
+                jti, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()), LocalDateTime.now());
+
+        // Visible en este nodo de inmediato; los demás lo reciben en la próxima sincronización
+        put(jti);
+    }
+
+    /**
+     * Construye el filtro al arrancar la aplicación
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Sincronización incremental: agrega al filtro las revocaciones nuevas
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation-sync-interval:5000}")
+    @Transactional(readOnly = true)
+    public void sync() {
+        if (!ready) {
+            return;
+        }
+
+        // El inicio se toma ANTES de consultar: lo confirmado durante la
+        // consulta entra en la ventana de la siguiente sincronización
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> jtis = revokedTokenRepository.findJtisCreatedAfter(
+                lastSync.minus(jwtProperties.getRevocationSyncOverlap(), ChronoUnit.MILLIS));
+
+        for (String jti : jtis) {
+            if (!filter.mightContain(jti)) {
+                put(jti);
+            }
+        }
+        lastSync = startedAt;
+    }
+
+    /**
+     * Reconstrucción completa: descarta revocaciones expiradas del filtro y de la BD
+     *
+     * El instante de corte se toma ANTES de leer los jti: una revocación
+     * confirmada después (aunque su created_at sea anterior) cae dentro de la
+     * ventana solapada de la siguiente sincronización.
+     */
+    @Scheduled(cron = "${jwt.revocation-rebuild-cron:0 30 * * * *}")
+    @Transactional
+    public void rebuild() {
+        synchronized (filterLock) {
+            addedDuringRebuild = new HashSet<>();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int deleted;
+        List<String> activeJtis;
+        try {
+            deleted = revokedTokenRepository.deleteExpired(now);
+            activeJtis = revokedTokenRepository.findActiveJtis(now);
+        } catch (RuntimeException e) {
+            synchronized (filterLock) {
+                addedDuringRebuild = null;
+            }
+            throw e;
+        }
+
+        BloomFilter rebuilt = newFilter();
+        activeJtis.forEach(rebuilt::put);
+
+        synchronized (filterLock) {
+            addedDuringRebuild.forEach(rebuilt::put);
+            addedDuringRebuild = null;
+            filter = rebuilt;
+        }
+        lastSync = now;
+        ready = true;
+
+        logger.info("Filtro de tokens revocados reconstruido: {} activos, {} expirados eliminados",
+                activeJtis.size(), deleted);
+    }
+
+    /**
+     * Agrega al filtro actual y, si hay una reconstrucción en curso, también
+     * al acumulado que se reinsertará en el filtro nuevo
+     */
+    private void put(String jti) {
+        synchronized (filterLock) {
+            filter.put(jti);
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.add(jti);
+            }
+        }
+    }
+
+    private BloomFilter newFilter() {
+        return new BloomFilter(
+                jwtProperties.getRevocationExpectedInsertions(),
+                jwtProperties.getRevocationFalsePositiveRate());
+    }
+}
@@ -0,0 +1,137 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import ec.edu.ups.icc.fundamentos01.security.config.UserCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * UserDetailsCache: Caché de UserDetailsImpl por email
+ *
+ * PROPÓSITO:
+ * - Evitar el SELECT de users + JOIN de user_roles en CADA request autenticada
+ * - Los usuarios cambian muy poco comparado con la cantidad de requests
+ *
+ * CARACTERÍSTICAS:
+ * - Concurrente (Caffeine), acotada por tamaño (user-cache.maximum-size)
+ * - Cada entrada expira tras user-cache.ttl aunque nadie la invalide
+ * - Se invalida al modificar/eliminar/registrar un usuario (ver UserEntityListener)
+ * - Índice id → email de las entradas: invalidar por id es O(1) aunque el
+ *   email haya cambiado (sin recorrer la caché)
+ * - Aciertos, fallos y desalojos se publican en /actuator/metrics
+ *   (cache.gets, cache.evictions, ... con tag cache=userDetails)
+ */
+@Component
+public class UserDetailsCache {
+
+    private final boolean enabled;
+    private final Cache<String, UserDetailsImpl> cache;
+
+    /**
+     * Email con el que está guardado cada usuario; se limpia cuando la
+     * entrada sale de la caché (desalojo, expiración o invalidación)
+     */
+    private final ConcurrentMap<Long, String> emailsById = new ConcurrentHashMap<>();
+
+    public UserDetailsCache(UserCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTtl()))
+                .executor(Runnable::run)
+                .removalListener((String email, UserDetailsImpl user, RemovalCause cause) -> {
+                    if (user != null && cause != RemovalCause.REPLACED) {
+                        emailsById.remove(user.getId(), email);
+                    }
+                })
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+
+    /**
+     * Retorna el usuario en caché o lo carga con el loader (y lo guarda)
+     *
+     * Si el loader lanza excepción (usuario no existe) no se guarda nada.
+     */
+    public UserDetailsImpl get(String email, Function<String, UserDetailsImpl> loader) {
+        if (!enabled) {
+            return loader.apply(email);
+        }
+        String[] previous = new String[1];
+        UserDetailsImpl user = cache.get(email, key -> {
+            UserDetailsImpl loaded = loader.apply(key);
+            previous[0] = emailsById.put(loaded.getId(), key);
+            return loaded;
+        });
+        invalidateOther(previous[0], email);
+        return user;
+    }
+
+    /**
+     * Guarda una copia recién leída de la BD (reemplaza la anterior)
+     */
+    public void put(String email, UserDetailsImpl user) {
+        if (enabled) {
+            String previous = emailsById.put(user.getId(), email);
+            cache.put(email, user);
+            invalidateOther(previous, email);
+        }
+    }
+
+    /**
+     * El usuario estaba guardado con otro email (lo cambió): esa entrada sobra
+     */
+    private void invalidateOther(String previousEmail, String email) {
+        if (previousEmail != null && !previousEmail.equals(email)) {
+            cache.invalidate(previousEmail);
+        }
+    }
+
+    /**
+     * Invalida las entradas de un usuario
+     *
+     * - Por email: la entrada actual
+     * - Por id: entradas guardadas con un email anterior (cambio de email)
+     *
+     * Si hay transacción activa se repite tras el COMMIT, para que una request
+     * concurrente no vuelva a cachear los datos previos al cambio.
+     */
+    public void evictUser(Long userId, String email) {
+        evictNow(userId, email);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(userId, email);
+                }
+            });
+        }
+    }
+
+    private void evictNow(Long userId, String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+        if (userId != null) {
+            String cachedEmail = emailsById.remove(userId);
+            if (cachedEmail != null) {
+                cache.invalidate(cachedEmail);
+            }
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package ec.edu.ups.icc.fundamentos01.security.services;
 
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+import ec.edu.ups.icc.fundamentos01.security.utils.RoleMask;
+import ec.edu.ups.icc.fundamentos01.security.utils.VerifiedJwt;
 import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
 
 public class UserDetailsImpl implements UserDetails {
 
@@ -16,31 +17,60 @@ public class UserDetailsImpl implements UserDetails {
     private final String email;
     private final String password;
     private final Collection<? extends GrantedAuthority> authorities;
+    private final long securityVersion;
+
+    /**
+     * Roles como bits (ver RoleMask): verificar un rol es un AND
+     */
+    private final long roleMask;
 
     public UserDetailsImpl(Long id, String name, String email, String password,
                           Collection<? extends GrantedAuthority> authorities) {
+        this(id, name, email, password, authorities, 0L);
+    }
+
+    public UserDetailsImpl(Long id, String name, String email, String password,
+                          Collection<? extends GrantedAuthority> authorities,
+                          long securityVersion) {
         this.id = id;
         this.name = name;
         this.email = email;
         this.password = password;
         this.authorities = authorities;
+        this.securityVersion = securityVersion;
+        this.roleMask = RoleMask.fromAuthorities(authorities);
     }
 
     /**
      * Factory method para crear UserDetailsImpl desde UserEntity
      */
     public static UserDetailsImpl build(UserEntity user) {
-        // Convertir roles a authorities de Spring Security
-        Collection<GrantedAuthority> authorities = user.getRoles().stream()
-            .map(role -> new SimpleGrantedAuthority(role.getName().name()))
-            .collect(Collectors.toList());
-
+        // Convertir roles a authorities de Spring Security (listas compartidas por máscara)
         return new UserDetailsImpl(
             user.getId(),
             user.getName(),
             user.getEmail(),
             user.getPassword(),
-            authorities
+            RoleMask.authorities(user.getRoleMask()),
+            user.getSecurityVersion()
+        );
+    }
+
+    /**
+     * Factory method para crear UserDetailsImpl desde los claims de un JWT verificado
+     *
+     * Modo "claims-trusted": NO consulta la base de datos.
+     * - El password queda en null (no se necesita: ya autenticamos con el JWT)
+     * - Los roles salen de la máscara del token (claim "rm")
+     */
+    public static UserDetailsImpl fromJwt(VerifiedJwt jwt) {
+        return new UserDetailsImpl(
+            jwt.getUserId(),
+            jwt.getName(),
+            jwt.getEmail(),
+            null,
+            RoleMask.authorities(jwt.getRoleMask()),
+            jwt.getSecurityVersion() != null ? jwt.getSecurityVersion() : 0L
         );
     }
 
@@ -58,6 +88,27 @@ public class UserDetailsImpl implements UserDetails {
         return email;
     }
 
+    public long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    // ============== VERIFICACIÓN DE ROLES ==============
+
+    public boolean hasRole(RoleName roleName) {
+        return (roleMask & roleName.mask()) != 0;
+    }
+
+    /**
+     * @param requiredMask: Máscara precalculada con RoleMask.of(...)
+     */
+    public boolean hasAnyRole(long requiredMask) {
+        return RoleMask.hasAny(roleMask, requiredMask);
+    }
+
     // ============== MÉTODOS DE UserDetails ==============
 
     @Override
@@ -1,6 +1,7 @@
 package ec.edu.ups.icc.fundamentos01.security.services;
 
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -13,7 +14,7 @@ import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
  * UserDetailsServiceImpl: Carga usuarios desde la base de datos
  */
 @Service // Componente de Spring (se inyecta automáticamente)
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     /**
      * Repositorio para acceder a la base de datos
@@ -22,13 +23,20 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     private final UserRepository userRepository;
 
+    /**
+     * Caché de usuarios ya cargados (acotada por tamaño y TTL)
+     */
+    private final UserDetailsCache userDetailsCache;
+
     /**
      * Constructor: Spring inyecta UserRepository automáticamente
      * 
      * @param userRepository: Repositorio de usuarios
+     * @param userDetailsCache: Caché de UserDetailsImpl por email
      */
-    public UserDetailsServiceImpl(UserRepository userRepository) {
+    public UserDetailsServiceImpl(UserRepository userRepository, UserDetailsCache userDetailsCache) {
         this.userRepository = userRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     /**
@@ -37,23 +45,34 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * SecurityContext.setAuthentication(userDetails)
      * 
      * @param email: Email del usuario (lo llamamos username por el contrato)
-     * @return UserDetails: Usuario convertido a formato Spring Security
+     * @return UserDetailsImpl: Usuario convertido a formato Spring Security
      * @throws UsernameNotFoundException: Si el usuario no existe
      * 
-     * @Transactional(readOnly = true):
-     *                         - readOnly = true: Optimización para consultas SELECT
-     *                         - Permite a Hibernate/PostgreSQL optimizar la query
-     *                         - NO permite operaciones de escritura (INSERT,
-     *                         UPDATE, DELETE)
-     *                         - Si intentamos modificar, lanza excepción
+     * Primero consulta UserDetailsCache; solo si no está se va a la BD.
+     * 
+     * Sin @Transactional aquí: un acierto de caché NO debe abrir transacción
+     * ni pedir conexión al pool. findByEmail ya es transaccional (readOnly)
+     * en el repositorio y los roles se cargan en la misma consulta (@EntityGraph).
      */
     @Override
-    @Transactional(readOnly = true)
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public UserDetailsImpl loadUserByUsername(String email) throws UsernameNotFoundException {
+        return userDetailsCache.get(email, this::loadFromDatabase);
+    }
+
+    /**
+     * Igual que loadUserByUsername pero siempre desde la BD; reemplaza la entrada de la caché
+     */
+    public UserDetailsImpl reloadUserByUsername(String email) throws UsernameNotFoundException {
+        UserDetailsImpl user = loadFromDatabase(email);
+        userDetailsCache.put(email, user);
+        return user;
+    }
+
+    private UserDetailsImpl loadFromDatabase(String email) {
         /**
          * 1. Buscar usuario por email en la base de datos
          * 
-         * Nota: Los roles se cargan automáticamente por FetchType.EAGER
+         * Nota: Los roles se cargan en la misma consulta (@EntityGraph en findByEmail)
          */
         UserEntity user = userRepository.findByEmail(email)
                 /**
@@ -72,4 +91,30 @@ public class UserDetailsServiceImpl implements UserDetailsService {
          */
         return UserDetailsImpl.build(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * updatePassword: Guarda un hash re-calculado con el costo BCrypt actual
+     * 
+     * Lo invoca DaoAuthenticationProvider tras un login exitoso cuando
+     * passwordEncoder.upgradeEncoding() detecta un costo distinto.
+     * 
+     * UPDATE por JPQL (solo la columna password) en una transacción corta:
+     * login() no abre transacción, así BCrypt no retiene una conexión.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+
+        UserDetailsImpl current = (UserDetailsImpl) user;
+        userDetailsCache.evictUser(current.getId(), current.getEmail());
+
+        return new UserDetailsImpl(
+                current.getId(),
+                current.getName(),
+                current.getEmail(),
+                newPassword,
+                current.getAuthorities(),
+                current.getSecurityVersion());
+    }
+}
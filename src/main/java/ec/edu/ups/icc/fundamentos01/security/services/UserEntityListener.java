@@ -0,0 +1,34 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * UserEntityListener: Invalida UserDetailsCache cuando cambia un UserEntity
+ *
+ * Se registra con @EntityListeners en UserEntity y cubre TODOS los caminos:
+ * - UserServiceImpl.update / partialUpdate → @PostUpdate
+ * - UserServiceImpl.delete                → @PostRemove
+ * - AuthService.register                  → @PostPersist
+ * - UserEntity.addRole (incrementa securityVersion → la entidad queda sucia) → @PostUpdate
+ *
+ * Hibernate crea el listener a través de Spring, por eso recibe
+ * UserDetailsCache por constructor.
+ */
+public class UserEntityListener {
+
+    private final UserDetailsCache userDetailsCache;
+
+    public UserEntityListener(UserDetailsCache userDetailsCache) {
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(UserEntity user) {
+        userDetailsCache.evictUser(user.getId(), user.getEmail());
+    }
+}
@@ -0,0 +1,83 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import java.time.Duration;
+
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import ec.edu.ups.icc.fundamentos01.security.config.JwtProperties;
+
+/**
+ * UserSecurityVersionRegistry: Últimas versiones de seguridad conocidas por este nodo
+ *
+ * PROPÓSITO:
+ * - En modo "claims-trusted" el filtro JWT NO consulta la BD
+ * - Este registro permite detectar tokens cuya versión de seguridad ("sv")
+ *   quedó desactualizada por un cambio del usuario (roles, email, password...)
+ * - Si la versión del token no coincide → se vuelve a cargar el usuario desde BD
+ *
+ * ALCANCE:
+ * - Es local a cada nodo: se alimenta de los cambios hechos en este nodo
+ *   y de las cargas desde BD
+ * - Un usuario SIN entrada no es confiable: la primera request se resuelve
+ *   contra la BD (fuera de la caché de usuarios) y registra su versión; desde
+ *   entonces sus tokens con esa versión se aceptan por claims
+ * - Un cambio hecho en OTRO nodo después de esa carga se detecta como máximo
+ *   al vencer la entrada (jwt.claims-freshness), que obliga a otra carga
+ */
+@Component
+public class UserSecurityVersionRegistry {
+
+    /**
+     * Versión usada para usuarios eliminados (ningún token puede coincidir)
+     */
+    private static final long DELETED = -1L;
+
+    private static final long MAX_TRACKED_USERS = 100_000L;
+
+    private final Cache<Long, Long> versions;
+
+    public UserSecurityVersionRegistry(JwtProperties jwtProperties) {
+        this.versions = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_USERS)
+                .expireAfterWrite(Duration.ofMillis(jwtProperties.getClaimsFreshness()))
+                .build();
+    }
+
+    /**
+     * Registra la versión de seguridad actual de un usuario
+     */
+    public void record(Long userId, long securityVersion) {
+        versions.put(userId, securityVersion);
+    }
+
+    /**
+     * Marca un usuario como eliminado: sus tokens dejan de ser confiables
+     */
+    public void markDeleted(Long userId) {
+        versions.put(userId, DELETED);
+    }
+
+    /**
+     * ¿Este nodo tiene una versión vigente del usuario?
+     */
+    public boolean isKnown(Long userId) {
+        return versions.getIfPresent(userId) != null;
+    }
+
+    /**
+     * ¿La versión del token coincide con la última conocida?
+     *
+     * - Token sin claim "sv" (emitido antes de esta versión) → NO
+     * - Usuario desconocido en este nodo → NO (se carga una vez desde la BD)
+     */
+    public boolean isCurrent(Long userId, Long tokenVersion) {
+        if (tokenVersion == null) {
+            return false;
+        }
+        Long known = versions.getIfPresent(userId);
+        return known != null && known.equals(tokenVersion);
+    }
+}
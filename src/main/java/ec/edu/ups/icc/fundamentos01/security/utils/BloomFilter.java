@@ -0,0 +1,88 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * BloomFilter: Conjunto probabilístico de Strings, seguro entre threads
+ *
+ * - mightContain() = false → el valor NUNCA se agregó (sin falsos negativos)
+ * - mightContain() = true  → PROBABLEMENTE se agregó (falsos positivos ≈ falsePositiveRate)
+ * - No permite eliminar: para "olvidar" valores se reconstruye uno nuevo
+ *
+ * Dimensionamiento (fórmulas estándar):
+ * m = -n · ln(p) / ln(2)²   bits
+ * k = m / n · ln(2)         funciones hash
+ *
+ * Ejemplo: 100.000 valores con p = 1% → ~120 KB y k = 7
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final int numHashes;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1L, expectedInsertions);
+        long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2));
+        int numWords = (int) Math.max(1L, (m + 63) >>> 6);
+
+        this.words = new AtomicLongArray(numWords);
+        this.numBits = (long) numWords << 6;
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / n * LN2));
+    }
+
+    public void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1L;
+
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, numBits);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+
+            // CAS solo si el bit aún no está encendido
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, m) -> current | m);
+            }
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1) | 1L;
+
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, numBits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a de 64 bits sobre los caracteres (sin crear byte[] intermedio)
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Finalizador de MurmurHash3 (fmix64): distribuye los bits del hash
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
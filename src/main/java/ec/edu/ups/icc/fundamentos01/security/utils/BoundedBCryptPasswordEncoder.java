@@ -0,0 +1,172 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.TooManyRequestsException;
+
+/**
+ * BoundedBCryptPasswordEncoder: BCrypt ejecutado en un pool dedicado y acotado
+ *
+ * PROBLEMA:
+ * - BCrypt es CARO a propósito (~100 ms por hash)
+ * - Ejecutado en el thread de Tomcat, una ráfaga de /auth/login ocupa
+ *   todos los workers y deja sin threads al resto de endpoints
+ *
+ * SOLUCIÓN:
+ * - encode() y matches() se ejecutan en un pool de tamaño fijo
+ * - La cola de espera es acotada
+ * - Si el pool y la cola están llenos → TooManyRequestsException (429) INMEDIATA
+ *   en lugar de bloquear otro thread de Tomcat
+ * - La espera del thread de Tomcat también es acotada (waitMillis): si el
+ *   hash no termina a tiempo se cancela y se responde 429
+ *
+ * Además upgradeEncoding() detecta hashes con un costo MENOR al actual, para
+ * que DaoAuthenticationProvider los re-hashee tras un login exitoso. Nunca
+ * baja el costo: nodos con costos distintos no re-hashean la misma cuenta
+ * de un lado a otro.
+ */
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedBCryptPasswordEncoder.class);
+
+    /**
+     * Formato BCrypt: $2a$10$<53 caracteres de salt + hash>
+     * El grupo 2 es el costo (strength)
+     */
+    private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2([ayb])?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+    private static final String CALIBRATION_PASSWORD = "Calibracion123";
+    private static final int CALIBRATION_SAMPLES = 3;
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long waitMillis;
+
+    public BoundedBCryptPasswordEncoder(int strength, int poolSize, int queueCapacity, long waitMillis) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.waitMillis = waitMillis;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Calibra el costo de BCrypt para este hardware
+     *
+     * Mide el tiempo de un hash con minStrength y sube el costo mientras
+     * el tiempo estimado (cada +1 duplica el trabajo) no supere targetMillis.
+     *
+     * Ejemplo: 40 ms con costo 10 y objetivo 100 ms → costo 11 (~80 ms)
+     */
+    public static int calibrateStrength(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+
+        // Calentamiento (JIT) antes de medir
+        probe.encode(CALIBRATION_PASSWORD);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            probe.encode(CALIBRATION_PASSWORD);
+        }
+        double estimatedMillis = (System.nanoTime() - start) / 1_000_000.0 / CALIBRATION_SAMPLES;
+
+        int strength = minStrength;
+        while (strength < maxStrength && estimatedMillis * 2 <= targetMillis) {
+            strength++;
+            estimatedMillis *= 2;
+        }
+
+        logger.info("BCrypt calibrado: costo {} (~{} ms por hash, objetivo {} ms)",
+                strength, Math.round(estimatedMillis), targetMillis);
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * ¿El hash almacenado usa un costo menor al actual?
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+        if (!matcher.matches()) {
+            return false;
+        }
+        return Integer.parseInt(matcher.group(2)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Detiene el pool al cerrar el contexto de Spring
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException ex) {
+            throw new TooManyRequestsException(
+                    "Demasiadas solicitudes de autenticación en curso. Intente nuevamente en unos segundos");
+        }
+
+        try {
+            return future.get(waitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            throw new TooManyRequestsException(
+                    "Demasiadas solicitudes de autenticación en curso. Intente nuevamente en unos segundos");
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException("Hash de contraseña interrumpido", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error al procesar la contraseña", ex.getCause());
+        }
+    }
+}
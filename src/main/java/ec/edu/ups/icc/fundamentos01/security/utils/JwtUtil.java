@@ -3,13 +3,15 @@ package ec.edu.ups.icc.fundamentos01.security.utils;
 
 // imports packages y clases....
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.security.SignatureException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import ec.edu.ups.icc.fundamentos01.security.config.JwtProperties;
@@ -17,7 +19,8 @@ import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
 
 import javax.crypto.SecretKey;
 import java.util.Date;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -27,6 +30,27 @@ public class JwtUtil {
     private final JwtProperties jwtProperties;
     private final SecretKey key;
 
+    /**
+     * Parser JWT construido UNA sola vez
+     *
+     * JwtParser es inmutable y thread-safe: no hace falta reconstruirlo
+     * (Jwts.parser().verifyWith(key).build()) en cada request.
+     */
+    private final JwtParser parser;
+
+    /**
+     * Caché de tokens ya verificados
+     *
+     * - Clave: hash SHA-256 del token (no guardamos el token en claro)
+     * - Valor: VerifiedJwt inmutable
+     * - Acotada por tamaño (jwt.verified-cache-size)
+     * - Cada entrada expira exactamente en el "exp" del token
+     *
+     * Un cliente que repite el mismo token se salta la verificación HMAC
+     * y la decodificación del payload.
+     */
+    private final Cache<String, VerifiedJwt> verifiedTokens;
+
     /**
      * Constructor: Inicializa JwtUtil con propiedades y clave secreta
      * 
@@ -55,6 +79,15 @@ public class JwtUtil {
          * - Verificar tokens al validarlos (verifyWith)
          */
         this.key = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+
+        this.parser = Jwts.parser()
+            .verifyWith(key)
+            .build();
+
+        this.verifiedTokens = Caffeine.newBuilder()
+            .maximumSize(jwtProperties.getVerifiedCacheSize())
+            .expireAfter(new ExpireAtTokenExpiration())
+            .build();
     }
 
     /**
@@ -81,21 +114,23 @@ public class JwtUtil {
         //          expiration = 1800000 ms (30 minutos)
         //          expiryDate = 2024-01-26 10:30:00
 
-        // 3. Extraer roles del usuario y convertir a String
-        //    Ejemplo: [ROLE_USER, ROLE_ADMIN] → "ROLE_USER,ROLE_ADMIN"
-        String roles = userPrincipal.getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)  // Extrae "ROLE_USER", "ROLE_ADMIN"
-            .collect(Collectors.joining(","));     // Une con comas
+        // 3. Roles del usuario como máscara de bits (ver RoleMask)
+        //    Ejemplo: [ROLE_USER, ROLE_ADMIN] → 0b011 = 3
+        long roleMask = userPrincipal.getRoleMask();
 
         // 4. Construir y firmar el token JWT
         return Jwts.builder()
+            // ID del token (jti): permite revocarlo antes de que expire (logout)
+            .id(UUID.randomUUID().toString())             // "9f1c2a4e-..."
+
             // Subject: Identificador único del usuario (su ID)
             .subject(String.valueOf(userPrincipal.getId()))  // "1"
             
             // Claims personalizados (datos adicionales en el payload)
             .claim("email", userPrincipal.getEmail())     // "pablo@example.com"
             .claim("name", userPrincipal.getName())       // "Pablo Torres"
-            .claim("roles", roles)                        // "ROLE_USER,ROLE_ADMIN"
+            .claim("rm", roleMask)                        // 3 (ROLE_USER | ROLE_ADMIN)
+            .claim("sv", userPrincipal.getSecurityVersion()) // Versión de seguridad: 3
             
             // Issuer: Quién emitió el token
             .issuer(jwtProperties.getIssuer())            // "fundamentos01-api"
@@ -126,15 +161,13 @@ public class JwtUtil {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtProperties.getExpiration());
 
-        String roles = userDetails.getAuthorities().stream()
-            .map(GrantedAuthority::getAuthority)
-            .collect(Collectors.joining(","));
-
         return Jwts.builder()
+            .id(UUID.randomUUID().toString())
             .subject(String.valueOf(userDetails.getId()))
             .claim("email", userDetails.getEmail())
             .claim("name", userDetails.getName())
-            .claim("roles", roles)
+            .claim("rm", userDetails.getRoleMask())
+            .claim("sv", userDetails.getSecurityVersion())
             .issuer(jwtProperties.getIssuer())
             .issuedAt(now)
             .expiration(expiryDate)
@@ -154,11 +187,9 @@ public class JwtUtil {
      * @return Long: ID del usuario
      */
     public Long getUserIdFromToken(String token) {
-        // 1. Parsear y validar el token
-        Claims claims = Jwts.parser()
-            .verifyWith(key)              // Verifica firma con clave secreta
-            .build()                      // Construye el parser
-            .parseSignedClaims(token)     // Parsea el token
+        // 1. Parsear y validar el token (parser reutilizado)
+        Claims claims = parser
+            .parseSignedClaims(token)     // Verifica firma y parsea el token
             .getPayload();                // Obtiene el payload (claims)
 
         // 2. Extraer el subject (ID del usuario)
@@ -173,9 +204,7 @@ public class JwtUtil {
      * Similar a getUserIdFromToken pero extrae un claim personalizado
      */
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(key)
-            .build()
+        Claims claims = parser
             .parseSignedClaims(token)
             .getPayload();
 
@@ -183,6 +212,40 @@ public class JwtUtil {
         return claims.get("email", String.class);
     }
 
+    /**
+     * Verifica y decodifica el token en UNA sola operación
+     *
+     * Se usa en JwtAuthenticationFilter en CADA REQUEST:
+     * - Antes: validateToken() + getEmailFromToken() → 2 parseos y 2 firmas HMAC
+     * - Ahora: 1 parseo, o 0 si el token ya está en la caché de verificados
+     *
+     * @param token: Token completo (sin "Bearer ")
+     * @return VerifiedJwt inmutable, o null si el token es inválido
+     */
+    public VerifiedJwt verifyAndDecode(String token) {
+        String cacheKey = TokenHasher.sha256(token);
+
+        // 1. Camino rápido: token verificado recientemente y aún no expirado
+        VerifiedJwt cached = verifiedTokens.getIfPresent(cacheKey);
+        if (cached != null) {
+            return cached;
+        }
+
+        // 2. Verificar firma, formato y expiración
+        Claims claims = parseClaims(token);
+        if (claims == null) {
+            return null;
+        }
+
+        VerifiedJwt verified = VerifiedJwt.fromClaims(claims);
+
+        // 3. Guardar en caché solo tokens con "exp" (la entrada vive hasta entonces)
+        if (verified.getExpiresAt() != null) {
+            verifiedTokens.put(cacheKey, verified);
+        }
+        return verified;
+    }
+
     /**
      * Valida el token JWT
      * 
@@ -191,22 +254,25 @@ public class JwtUtil {
      * 2. Formato: ¿El token tiene estructura correcta?
      * 3. Expiración: ¿El token aún es válido?
      * 
-     * Se usa en JwtAuthenticationFilter en CADA REQUEST
-     * 
      * @param authToken: Token completo (sin "Bearer ")
      * @return boolean: true si válido, false si inválido
      */
     public boolean validateToken(String authToken) {
+        return verifyAndDecode(authToken) != null;
+    }
+
+    /**
+     * Parsea el token con el parser compartido
+     *
+     * @return Claims verificados, o null si el token es inválido
+     */
+    private Claims parseClaims(String authToken) {
         try {
             // Intenta parsear el token
             // Si algo falla, lanza excepción
-            Jwts.parser()
-                .verifyWith(key)              // Verifica firma con nuestra clave
-                .build()
-                .parseSignedClaims(authToken);
-            
-            // Si llegamos aquí, el token es VÁLIDO
-            return true;
+            return parser
+                .parseSignedClaims(authToken)
+                .getPayload();
             
         } catch (SignatureException ex) {
             // Firma inválida: Token modificado o clave incorrecta
@@ -234,6 +300,28 @@ public class JwtUtil {
         }
         
         // Si cayó en cualquier catch, el token es INVÁLIDO
-        return false;
+        return null;
+    }
+
+    /**
+     * Política de expiración de la caché: cada entrada vive hasta el "exp" del token
+     */
+    private static class ExpireAtTokenExpiration implements Expiry<String, VerifiedJwt> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+            long remainingMillis = value.getExpiresAt().toEpochMilli() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
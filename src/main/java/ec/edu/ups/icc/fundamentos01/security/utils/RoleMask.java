@@ -0,0 +1,118 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+
+/**
+ * RoleMask: Roles representados como bits de un long
+ *
+ * Cada RoleName ocupa un bit (RoleName.getBit()):
+ * ROLE_USER = 0b001, ROLE_ADMIN = 0b010, ROLE_MODERATOR = 0b100
+ *
+ * - Verificar un rol = un AND, sin recorrer authorities ni comparar Strings
+ * - En el JWT viaja como número (claim "rm"): [ROLE_USER, ROLE_ADMIN] → 3
+ * - Las listas de authorities se precalculan por máscara y se comparten
+ *
+ * Ejemplo:
+ * long mask = RoleMask.of(RoleName.ROLE_ADMIN, RoleName.ROLE_MODERATOR);
+ * RoleMask.hasAny(user.getRoleMask(), mask) → true si es ADMIN o MODERATOR
+ */
+public final class RoleMask {
+
+    /**
+     * Nombre del rol (con y sin prefijo "ROLE_") → bit
+     * Permite resolver hasRole('ADMIN') sin concatenar Strings
+     */
+    private static final Map<String, Long> MASK_BY_NAME = new HashMap<>();
+
+    /**
+     * Authorities inmutables por cada máscara posible (índice = máscara)
+     */
+    private static final List<List<GrantedAuthority>> AUTHORITIES_BY_MASK;
+
+    static {
+        int maxBit = 0;
+        for (RoleName role : RoleName.values()) {
+            MASK_BY_NAME.put(role.name(), role.mask());
+            MASK_BY_NAME.put(role.name().substring("ROLE_".length()), role.mask());
+            maxBit = Math.max(maxBit, role.getBit());
+        }
+
+        int combinations = 1 << (maxBit + 1);
+        List<List<GrantedAuthority>> authorities = new ArrayList<>(combinations);
+        for (int mask = 0; mask < combinations; mask++) {
+            List<GrantedAuthority> list = new ArrayList<>();
+            for (RoleName role : RoleName.values()) {
+                if ((mask & role.mask()) != 0) {
+                    list.add(new SimpleGrantedAuthority(role.name()));
+                }
+            }
+            authorities.add(List.copyOf(list));
+        }
+        AUTHORITIES_BY_MASK = List.copyOf(authorities);
+    }
+
+    private RoleMask() {
+    }
+
+    public static long of(RoleName... roles) {
+        long mask = 0L;
+        for (RoleName role : roles) {
+            mask |= role.mask();
+        }
+        return mask;
+    }
+
+    /**
+     * Máscara de un rol por nombre: "ADMIN" o "ROLE_ADMIN" (0 si no existe)
+     */
+    public static long ofName(String roleName) {
+        Long mask = MASK_BY_NAME.get(roleName);
+        return mask != null ? mask : 0L;
+    }
+
+    /**
+     * Máscara desde authorities de Spring Security (las desconocidas se ignoran)
+     */
+    public static long fromAuthorities(Collection<? extends GrantedAuthority> authorities) {
+        long mask = 0L;
+        for (GrantedAuthority authority : authorities) {
+            mask |= ofName(authority.getAuthority());
+        }
+        return mask;
+    }
+
+    /**
+     * Máscara desde el formato anterior del claim "roles": "ROLE_USER,ROLE_ADMIN"
+     */
+    public static long fromAuthorityNames(String csv) {
+        long mask = 0L;
+        if (csv == null || csv.isEmpty()) {
+            return mask;
+        }
+        for (String name : csv.split(",")) {
+            mask |= ofName(name);
+        }
+        return mask;
+    }
+
+    /**
+     * Authorities compartidas (inmutables) para una máscara
+     */
+    public static List<GrantedAuthority> authorities(long mask) {
+        // Bits desconocidos (roles que este nodo no conoce) se ignoran
+        return AUTHORITIES_BY_MASK.get((int) (mask & (AUTHORITIES_BY_MASK.size() - 1)));
+    }
+
+    public static boolean hasAny(long userMask, long requiredMask) {
+        return (userMask & requiredMask) != 0;
+    }
+}
@@ -0,0 +1,189 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.HttpMethod;
+
+/**
+ * RoutePolicy: Reglas de acceso por ruta compiladas en un trie de segmentos
+ *
+ * Se declara UNA vez (ver PublicRoutes) y se usa en dos lugares:
+ * - SecurityConfig.filterChain → registra las mismas reglas en Spring Security
+ * - JwtAuthenticationFilter.shouldNotFilter → salta el JWT en rutas públicas
+ *
+ * PATRONES SOPORTADOS:
+ * - "/api/users"      → segmentos literales
+ * - "/api/users/*"    → un segmento cualquiera
+ * - "/auth/**"        → cualquier resto (incluida la ruta "/auth" sola)
+ *
+ * SEMÁNTICA: igual que authorizeHttpRequests, gana la PRIMERA regla declarada
+ * que coincide; si ninguna coincide la ruta requiere autenticación.
+ *
+ * Ejemplo de trie para "/auth/**" y GET "/api/users/**":
+ * (raíz)
+ *  ├── auth   [** → regla 0]
+ *  └── api
+ *       └── users [** → regla 1 (GET)]
+ */
+public final class RoutePolicy {
+
+    public enum Access {
+        PERMIT_ALL,
+        AUTHENTICATED
+    }
+
+    private final List<Rule> rules;
+    private final Node root;
+
+    private RoutePolicy(List<Rule> rules) {
+        this.rules = List.copyOf(rules);
+        this.root = new Node();
+        for (int i = 0; i < this.rules.size(); i++) {
+            insert(i, this.rules.get(i));
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Reglas en orden de declaración (para registrarlas en Spring Security)
+     */
+    public List<Rule> rules() {
+        return rules;
+    }
+
+    /**
+     * ¿La ruta es pública (permitAll) para este método HTTP?
+     *
+     * @param method: "GET", "POST", ...
+     * @param path:   Ruta sin context path, ej: "/api/users/5"
+     */
+    public boolean isPublic(String method, String path) {
+        int ruleIndex = match(root, path, skipSlashes(path, 0), method, Integer.MAX_VALUE);
+        return ruleIndex != Integer.MAX_VALUE && rules.get(ruleIndex).access() == Access.PERMIT_ALL;
+    }
+
+    // ============== COMPILACIÓN ==============
+
+    private void insert(int index, Rule rule) {
+        Node node = root;
+        String[] segments = rule.pattern().split("/");
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.equals("**")) {
+                node.restRules.add(index);
+                return;
+            }
+            node = segment.equals("*")
+                ? node.wildcardChild()
+                : node.children.computeIfAbsent(segment, key -> new Node());
+        }
+        node.exactRules.add(index);
+    }
+
+    // ============== EVALUACIÓN ==============
+
+    /**
+     * Recorre el trie y retorna el menor índice de regla que coincide
+     *
+     * @param best: Mejor índice encontrado hasta ahora (poda ramas que no pueden mejorarlo)
+     */
+    private int match(Node node, String path, int start, String method, int best) {
+        best = firstMatching(node.restRules, method, best);
+
+        if (start >= path.length()) {
+            return firstMatching(node.exactRules, method, best);
+        }
+
+        int end = path.indexOf('/', start);
+        if (end < 0) {
+            end = path.length();
+        }
+        int next = skipSlashes(path, end);
+
+        Node child = node.children.isEmpty() ? null : node.children.get(path.substring(start, end));
+        if (child != null) {
+            best = match(child, path, next, method, best);
+        }
+        if (node.wildcard != null) {
+            best = match(node.wildcard, path, next, method, best);
+        }
+        return best;
+    }
+
+    private int firstMatching(List<Integer> candidates, String method, int best) {
+        for (int i = 0; i < candidates.size(); i++) {
+            int index = candidates.get(i);
+            if (index >= best) {
+                break; // candidatos ordenados: el resto tampoco mejora
+            }
+            HttpMethod ruleMethod = rules.get(index).method();
+            if (ruleMethod == null || ruleMethod.name().equals(method)) {
+                return index;
+            }
+        }
+        return best;
+    }
+
+    private static int skipSlashes(String path, int index) {
+        while (index < path.length() && path.charAt(index) == '/') {
+            index++;
+        }
+        return index;
+    }
+
+    // ============== ESTRUCTURAS ==============
+
+    /**
+     * Regla declarada: método (null = cualquiera) + patrón + acceso
+     */
+    public record Rule(HttpMethod method, String pattern, Access access) {
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new HashMap<>();
+        private final List<Integer> exactRules = new ArrayList<>();
+        private final List<Integer> restRules = new ArrayList<>();
+        private Node wildcard;
+
+        private Node wildcardChild() {
+            if (wildcard == null) {
+                wildcard = new Node();
+            }
+            return wildcard;
+        }
+    }
+
+    public static final class Builder {
+
+        private final List<Rule> rules = new ArrayList<>();
+
+        public Builder permitAll(String pattern) {
+            return add(null, pattern, Access.PERMIT_ALL);
+        }
+
+        public Builder permitAll(HttpMethod method, String pattern) {
+            return add(method, pattern, Access.PERMIT_ALL);
+        }
+
+        public Builder authenticated(HttpMethod method, String pattern) {
+            return add(method, pattern, Access.AUTHENTICATED);
+        }
+
+        private Builder add(HttpMethod method, String pattern, Access access) {
+            rules.add(new Rule(method, pattern, access));
+            return this;
+        }
+
+        public RoutePolicy build() {
+            return new RoutePolicy(rules);
+        }
+    }
+}
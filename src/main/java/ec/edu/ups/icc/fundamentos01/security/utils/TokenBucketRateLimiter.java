@@ -0,0 +1,96 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * TokenBucketRateLimiter: Token bucket por clave, sin locks y con memoria acotada
+ *
+ * ALGORITMO (GCRA, equivalente a un token bucket):
+ * - Cada clave guarda UN long: el "instante teórico" (TAT) en que el bucket
+ *   vuelve a estar lleno
+ * - Consumir un token = adelantar el TAT un refillInterval
+ * - Si el TAT queda más de capacity · refillInterval en el futuro → bucket vacío
+ * - La actualización es un compareAndSet: sin locks ni timers de recarga
+ *
+ * MEMORIA:
+ * - Las claves viven en Caffeine acotado por tamaño (desalojo tipo LRU)
+ * - Una clave inactiva más que el tiempo de recarga completa se elimina:
+ *   su bucket ya estaría lleno, equivale a no tenerla
+ */
+public class TokenBucketRateLimiter {
+
+    private final long refillIntervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(long capacity, Duration refillInterval, long maximumKeys) {
+        this(capacity, refillInterval, maximumKeys, System::nanoTime);
+    }
+
+    /**
+     * @param clock nanosegundos monotónicos (System::nanoTime; otro reloj en pruebas)
+     */
+    TokenBucketRateLimiter(long capacity, Duration refillInterval, long maximumKeys, LongSupplier clock) {
+        this.refillIntervalNanos = refillInterval.toNanos();
+        this.burstNanos = refillIntervalNanos * capacity;
+        this.clock = clock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                .ticker(clock::getAsLong)
+                .executor(Runnable::run)
+                .build();
+    }
+
+    /**
+     * Intenta consumir un token de la clave
+     *
+     * @return true si hay token disponible, false si la clave está limitada
+     */
+    public boolean tryAcquire(String key) {
+        AtomicLong state = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long now = clock.getAsLong();
+            long current = state.get();
+            long tat = current == Long.MIN_VALUE ? now : Math.max(current, now);
+            long next = tat + refillIntervalNanos;
+
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (state.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * ¿La clave está limitada? Consulta sin consumir (una clave sin bucket no lo está)
+     */
+    public boolean isLimited(String key) {
+        AtomicLong state = buckets.getIfPresent(key);
+        if (state == null) {
+            return false;
+        }
+        long now = clock.getAsLong();
+        long current = state.get();
+        long tat = current == Long.MIN_VALUE ? now : Math.max(current, now);
+        return tat + refillIntervalNanos - now > burstNanos;
+    }
+
+    /**
+     * Claves con bucket activo (para métricas)
+     */
+    public long trackedKeys() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,44 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * TokenHasher: Utilidades para tokens opacos
+ * 
+ * - sha256(): hash usado como clave en cachés y tablas (nunca guardamos el token en claro)
+ * - randomToken(): token aleatorio criptográficamente seguro (refresh tokens)
+ */
+public final class TokenHasher {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private TokenHasher() {
+    }
+
+    /**
+     * Hash SHA-256 del token en Base64 URL (43 caracteres)
+     */
+    public static String sha256(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                .digest(token.getBytes(StandardCharsets.UTF_8));
+            return ENCODER.encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Algoritmo SHA-256 no disponible", ex);
+        }
+    }
+
+    /**
+     * Token aleatorio de 256 bits en Base64 URL
+     */
+    public static String randomToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return ENCODER.encodeToString(bytes);
+    }
+}
@@ -0,0 +1,112 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * VerifiedJwt: Claims de un JWT cuya firma y expiración YA fueron verificadas
+ *
+ * Lo produce JwtUtil.verifyAndDecode() con UN SOLO parseo del token.
+ *
+ * Es inmutable:
+ * - Se puede compartir entre threads sin sincronización
+ * - Se puede guardar en la caché de tokens verificados de JwtUtil
+ *
+ * Ejemplo:
+ * VerifiedJwt jwt = jwtUtil.verifyAndDecode(token);
+ * jwt.getEmail()  → "pablo@example.com"
+ * jwt.getRoleMask() → 3 (ROLE_USER | ROLE_ADMIN, ver RoleMask)
+ */
+public final class VerifiedJwt {
+
+    private final String tokenId;
+    private final Long userId;
+    private final String email;
+    private final String name;
+    private final long roleMask;
+    private final Long securityVersion;
+    private final Instant issuedAt;
+    private final Instant expiresAt;
+
+    public VerifiedJwt(String tokenId, Long userId, String email, String name, long roleMask,
+                       Long securityVersion, Instant issuedAt, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.email = email;
+        this.name = name;
+        this.roleMask = roleMask;
+        this.securityVersion = securityVersion;
+        this.issuedAt = issuedAt;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Factory method para crear VerifiedJwt desde los Claims ya verificados
+     *
+     * El claim "rm" es la máscara de roles (ver JwtUtil.generateToken)
+     * Tokens anteriores traen "roles" como "ROLE_USER,ROLE_ADMIN" → se convierte a máscara
+     * El claim "sv" es la versión de seguridad del usuario al emitir el token
+     * (tokens antiguos no lo traen → null)
+     */
+    static VerifiedJwt fromClaims(Claims claims) {
+        Number roleMaskClaim = claims.get("rm", Number.class);
+        long roleMask = roleMaskClaim != null
+            ? roleMaskClaim.longValue()
+            : RoleMask.fromAuthorityNames(claims.get("roles", String.class));
+        Number securityVersion = claims.get("sv", Number.class);
+
+        return new VerifiedJwt(
+            claims.getId(),
+            Long.parseLong(claims.getSubject()),
+            claims.get("email", String.class),
+            claims.get("name", String.class),
+            roleMask,
+            securityVersion != null ? securityVersion.longValue() : null,
+            toInstant(claims.getIssuedAt()),
+            toInstant(claims.getExpiration())
+        );
+    }
+
+    private static Instant toInstant(Date date) {
+        return date != null ? date.toInstant() : null;
+    }
+
+    // ============== GETTERS ==============
+
+    /**
+     * jti del token (null en tokens emitidos antes de soportar revocación)
+     */
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getRoleMask() {
+        return roleMask;
+    }
+
+    public Long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
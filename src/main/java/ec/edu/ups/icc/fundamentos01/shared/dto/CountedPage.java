@@ -0,0 +1,35 @@
+package ec.edu.ups.icc.fundamentos01.shared.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+
+/**
+ * Page que indica de dónde salió totalElements
+ *
+ * Misma forma JSON que cualquier Page + "totalAccuracy": exact, cached o
+ * estimated. Con cached / estimated, totalElements y totalPages son
+ * aproximados (nunca menores que lo que ya se sabe que existe).
+ */
+public class CountedPage<T> extends PageImpl<T> {
+
+    private final CountMode totalAccuracy;
+
+    public CountedPage(List<T> content, Pageable pageable, long total, CountMode totalAccuracy) {
+        super(content, pageable, total);
+        this.totalAccuracy = totalAccuracy;
+    }
+
+    public CountMode getTotalAccuracy() {
+        return totalAccuracy;
+    }
+
+    @Override
+    public <U> CountedPage<U> map(Function<? super T, ? extends U> converter) {
+        return new CountedPage<>(getConvertedContent(converter), getPageable(), getTotalElements(), totalAccuracy);
+    }
+}
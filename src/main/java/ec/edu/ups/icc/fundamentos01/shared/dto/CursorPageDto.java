@@ -0,0 +1,42 @@
+package ec.edu.ups.icc.fundamentos01.shared.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * Página de una paginación por cursor
+ *
+ * - nextCursor: se envía como ?cursor=... para pedir la siguiente página
+ *   (null cuando no hay más resultados)
+ * - No incluye totalElements: contar todo es justo el costo que el cursor evita
+ */
+@JsonPropertyOrder({ "content", "size", "hasNext", "nextCursor" })
+public class CursorPageDto<T> {
+
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorPageDto(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isHasNext() {
+        return nextCursor != null;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
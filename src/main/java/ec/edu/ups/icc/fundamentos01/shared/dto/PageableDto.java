@@ -18,6 +18,9 @@ public class PageableDto {
 
     private String[] sort = {"id"};
 
+    // exact | cached | estimated (CountMode); null → valor por defecto
+    private String count;
+
     public PageableDto() {
     }
 
@@ -51,6 +54,14 @@ public class PageableDto {
         this.sort = sort;
     }
 
+    public String getCount() {
+        return count;
+    }
+
+    public void setCount(String count) {
+        this.count = count;
+    }
+
     public Pageable toPageable() {
         return PageRequest.of(page, size, createSort());
     }
@@ -0,0 +1,68 @@
+package ec.edu.ups.icc.fundamentos01.shared.http;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.PreconditionFailedException;
+
+/**
+ * EntityTags: ETags fuertes derivados de id + versión (@Version de VersionedModel)
+ *
+ * Formato: "<id>-<version>" (con comillas, RFC 9110)
+ * Con datos embebidos de otras entidades: "<id>-<version>.<v1>.<v2>...": cada
+ * vN es la versión (o suma de versiones) de lo embebido, así un cambio en el
+ * dueño o en una categoría también cambia el ETag del producto.
+ *
+ * - GET: el ETag se compara con If-None-Match usando solo la versión
+ *   (consulta de proyección), sin cargar ni serializar la entidad
+ * - PUT/PATCH/DELETE: If-Match se traduce a la versión esperada y viaja
+ *   en la misma escritura condicional (WHERE version = ?), sin locks
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    public static String of(Long id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * ETag de un recurso que embebe otras entidades versionadas
+     */
+    public static String of(Long id, long version, long... embeddedVersions) {
+        StringBuilder tag = new StringBuilder().append('"').append(id).append('-').append(version);
+        for (long embedded : embeddedVersions) {
+            tag.append('.').append(embedded);
+        }
+        return tag.append('"').toString();
+    }
+
+    /**
+     * Versión exigida por If-Match para este id
+     *
+     * Solo cuenta la versión propia (antes del primer "."): las escrituras
+     * condicionales modifican columnas del recurso, no lo embebido.
+     *
+     * @return null si no hay If-Match o es "*" (sin condición de versión)
+     * @throws PreconditionFailedException si ningún ETag corresponde a este id
+     *         (los ETags débiles nunca coinciden en If-Match)
+     */
+    public static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+
+        String prefix = "\"" + id + "-";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+                String versions = tag.substring(prefix.length(), tag.length() - 1);
+                int embedded = versions.indexOf('.');
+                try {
+                    return Long.parseLong(embedded < 0 ? versions : versions.substring(0, embedded));
+                } catch (NumberFormatException ignored) {
+                    // ETag ajeno con el mismo prefijo: seguir con el siguiente
+                }
+            }
+        }
+        throw new PreconditionFailedException("El recurso fue modificado (If-Match no coincide)");
+    }
+}
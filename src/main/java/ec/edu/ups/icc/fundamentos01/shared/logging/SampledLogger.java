@@ -0,0 +1,64 @@
+package ec.edu.ups.icc.fundamentos01.shared.logging;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+
+/**
+ * SampledLogger: Log con límite de mensajes por ventana de tiempo
+ *
+ * Para eventos masivos y repetitivos (401 de escáneres, 404, validaciones):
+ * - Se escriben como máximo maxPerWindow mensajes por ventana
+ * - El resto se descarta y solo se cuenta
+ * - Al abrir la siguiente ventana se escribe un resumen con los descartados
+ *
+ * Sin locks: un contador atómico por ventana.
+ *
+ * Ejemplo:
+ * SampledLogger log = new SampledLogger(logger, 10, 60_000);
+ * log.warn("Acceso no autenticado: {}", path);  // 10 por minuto como máximo
+ */
+public final class SampledLogger {
+
+    private final Logger logger;
+    private final int maxPerWindow;
+    private final long windowMillis;
+
+    private final AtomicLong windowStart = new AtomicLong();
+    private final AtomicInteger countInWindow = new AtomicInteger();
+
+    public SampledLogger(Logger logger, int maxPerWindow, long windowMillis) {
+        this.logger = logger;
+        this.maxPerWindow = maxPerWindow;
+        this.windowMillis = windowMillis;
+    }
+
+    public void warn(String format, Object... arguments) {
+        if (logger.isWarnEnabled() && tryAcquire()) {
+            logger.warn(format, arguments);
+        }
+    }
+
+    public void info(String format, Object... arguments) {
+        if (logger.isInfoEnabled() && tryAcquire()) {
+            logger.info(format, arguments);
+        }
+    }
+
+    private boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        long start = windowStart.get();
+
+        if (now - start >= windowMillis && windowStart.compareAndSet(start, now)) {
+            // Nueva ventana: reportar lo descartado en la anterior
+            int previous = countInWindow.getAndSet(0);
+            if (previous > maxPerWindow) {
+                logger.warn("{} mensajes similares omitidos en los últimos {} ms",
+                        previous - maxPerWindow, windowMillis);
+            }
+        }
+
+        return countInWindow.incrementAndGet() <= maxPerWindow;
+    }
+}
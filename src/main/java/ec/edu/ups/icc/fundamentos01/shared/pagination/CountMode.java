@@ -0,0 +1,45 @@
+package ec.edu.ups.icc.fundamentos01.shared.pagination;
+
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
+
+/**
+ * Cómo se obtiene totalElements de una página (?count=... o cabecera X-Count-Mode)
+ *
+ * - EXACT:     COUNT en la BD en cada request
+ * - CACHED:    último COUNT exacto del mismo filtro (TTL + invalidación al escribir)
+ * - ESTIMATED: estimación del planificador de la BD (sin recorrer la tabla)
+ *
+ * También es la precisión reportada en la respuesta (totalAccuracy): un
+ * modo sin dato disponible cae al siguiente más preciso (sin estimación →
+ * caché; caché vacía → exacto).
+ */
+public enum CountMode {
+
+    EXACT, CACHED, ESTIMATED;
+
+    public static final String HEADER = "X-Count-Mode";
+
+    /**
+     * @param value      valor del request (null o vacío → defaultMode)
+     * @throws BadRequestException si no es exact, cached ni estimated
+     */
+    public static CountMode parse(String value, CountMode defaultMode) {
+        if (value == null || value.isBlank()) {
+            return defaultMode;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Modo de conteo no válido: " + value + " (exact, cached o estimated)");
+        }
+    }
+
+    @JsonValue
+    public String value() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
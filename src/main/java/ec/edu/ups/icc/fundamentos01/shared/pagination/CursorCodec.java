@@ -0,0 +1,81 @@
+package ec.edu.ups.icc.fundamentos01.shared.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
+
+/**
+ * CursorCodec: Cursores de paginación opacos y a prueba de manipulación
+ *
+ * FORMATO: base64url(payload) + "." + base64url(HMAC-SHA256(payload)[0..16])
+ *
+ * - Opaco: el cliente solo lo devuelve tal cual en la siguiente petición
+ * - Firmado: un cursor editado (otro id, otro valor, otros filtros) no
+ *   pasa la verificación → 400, nunca llega a la consulta
+ */
+@Component
+public class CursorCodec {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int TAG_BYTES = 16;
+    private static final String INVALID_MESSAGE = "Cursor de paginación inválido";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    public CursorCodec(@Value("${pagination.cursor-secret}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    }
+
+    public String encode(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(bytes) + "." + ENCODER.encodeToString(tag(bytes));
+    }
+
+    /**
+     * @throws BadRequestException si el cursor está mal formado o la firma no coincide
+     */
+    public String decode(String cursor) {
+        int dot = cursor.indexOf('.');
+        if (dot < 0) {
+            throw new BadRequestException(INVALID_MESSAGE);
+        }
+
+        byte[] bytes;
+        byte[] receivedTag;
+        try {
+            bytes = DECODER.decode(cursor.substring(0, dot));
+            receivedTag = DECODER.decode(cursor.substring(dot + 1));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException(INVALID_MESSAGE);
+        }
+
+        if (!MessageDigest.isEqual(tag(bytes), receivedTag)) {
+            throw new BadRequestException(INVALID_MESSAGE);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] tag(byte[] payload) {
+        try {
+            // Mac no es thread-safe: una instancia por operación
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), TAG_BYTES);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("Algoritmo " + ALGORITHM + " no disponible", ex);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package ec.edu.ups.icc.fundamentos01.users.controllers;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,11 +11,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.shared.http.EntityTags;
 import ec.edu.ups.icc.fundamentos01.users.dtos.CreateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.PartialUpdateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.UpdateUserDto;
@@ -38,9 +42,17 @@ public class UsersController {
         return userService.findAll();
     }
 
+    /**
+     * Con If-None-Match solo se consulta la versión: si el ETag coincide → 304
+     */
     @GetMapping("/{id}")
-    public UserResponseDto findOne(@PathVariable("id") int id) {
-        return userService.findOne(id);
+    public ResponseEntity<UserResponseDto> findOne(@PathVariable("id") int id, WebRequest request) {
+        if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && request.checkNotModified(EntityTags.of((long) id, userService.findVersion(id)))) {
+            return null; // checkNotModified ya escribió 304 + ETag
+        }
+
+        return withETag(userService.findOne(id));
     }
 
     @PostMapping
@@ -49,18 +61,26 @@ public class UsersController {
     }
 
     @PutMapping("/{id}")
-    public UserResponseDto update(@PathVariable("id") int id, @RequestBody UpdateUserDto dto) {
-        return userService.update(id, dto);
+    public ResponseEntity<UserResponseDto> update(
+            @PathVariable("id") int id,
+            @RequestBody UpdateUserDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(userService.update(id, dto, EntityTags.expectedVersion(ifMatch, (long) id)));
     }
 
     @PatchMapping("/{id}")
-    public UserResponseDto partialUpdate(@PathVariable("id") int id, @RequestBody PartialUpdateUserDto dto) {
-        return userService.partialUpdate(id, dto);
+    public ResponseEntity<UserResponseDto> partialUpdate(
+            @PathVariable("id") int id,
+            @RequestBody PartialUpdateUserDto dto,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        return withETag(userService.partialUpdate(id, dto, EntityTags.expectedVersion(ifMatch, (long) id)));
     }
 
     @DeleteMapping("/{id}")
-    public void delete(@PathVariable("id") int id) {
-        userService.delete(id);
+    public void delete(
+            @PathVariable("id") int id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        userService.delete(id, EntityTags.expectedVersion(ifMatch, (long) id));
     }
 
     @GetMapping("/{id}/products")
@@ -92,4 +112,10 @@ public class UsersController {
 
         return ResponseEntity.ok(products);
     }
+
+    private static ResponseEntity<UserResponseDto> withETag(UserResponseDto user) {
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of((long) user.id, user.version))
+                .body(user);
+    }
 }
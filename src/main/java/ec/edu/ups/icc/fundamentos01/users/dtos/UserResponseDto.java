@@ -1,8 +1,14 @@
 package ec.edu.ups.icc.fundamentos01.users.dtos;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class UserResponseDto {
  public int id;
     public String name;
     public String email;
+
+    // Solo para el ETag (cabecera), no forma parte del cuerpo
+    @JsonIgnore
+    public long version;
 }
 
@@ -26,6 +26,7 @@ public class UserMapper {
         dto.id = user.getId();
         dto.name = user.getName();
         dto.email = user.getEmail();
+        dto.version = user.getVersion();
         return dto;
     }
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ public class User {
     private String email;
     private String password; // no se expone en la API
     private String createdAt;
+    private long version; // @Version de la entidad: sin ella save() (merge) falla por versión obsoleta
 
     // Constructor privado para forzar uso de factory methods
     public User(int id, String name, String email, String password) {
@@ -28,12 +29,14 @@ public class User {
      * @return instancia de User para lógica de negocio
      */
     public static User fromEntity(UserEntity entity) {
-        return new User(
+        User user = new User(
             entity.getId().intValue(),
             entity.getName(),
             entity.getEmail(),
             entity.getPassword()
         );
+        user.version = entity.getVersion();
+        return user;
     }
 
         /**
@@ -48,6 +51,7 @@ public class User {
         entity.setName(this.name);
         entity.setEmail(this.email);
         entity.setPassword(this.password);
+        entity.setVersion(this.version);
         return entity;
     }
 
@@ -89,6 +93,14 @@ public class User {
         this.password = password;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public String getCreatedAt() {
         return createdAt;
     }
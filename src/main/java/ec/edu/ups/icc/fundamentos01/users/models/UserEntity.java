@@ -5,16 +5,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import ec.edu.ups.icc.fundamentos01.core.entities.BaseModel;
+import ec.edu.ups.icc.fundamentos01.core.entities.VersionedModel;
 import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleEntity;
 import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+import ec.edu.ups.icc.fundamentos01.security.services.UserEntityListener;
 
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "users")
-public class UserEntity extends BaseModel {
+@EntityListeners(UserEntityListener.class) // Invalida la caché de UserDetails
+public class UserEntity extends VersionedModel {
 
     @Column(nullable = false, length = 150)
     private String name;
@@ -25,7 +27,22 @@ public class UserEntity extends BaseModel {
     @Column(nullable = false)
     private String password;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    /**
+     * Versión de seguridad del usuario
+     *
+     * Se incrementa cada vez que cambian datos que viajan en el JWT
+     * (email, nombre, password o roles). Los tokens llevan esta versión
+     * en el claim "sv": si no coincide, el token ya no es confiable por sí solo.
+     */
+    @Column(name = "security_version", nullable = false, columnDefinition = "bigint not null default 0")
+    private long securityVersion;
+
+    /**
+     * LAZY: los productos cargan su owner SIN arrastrar los roles.
+     * Las lecturas que sí los necesitan (login, findById, refresh) los piden
+     * con @EntityGraph / JOIN FETCH en la misma consulta.
+     */
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "user_roles",
         joinColumns = @JoinColumn(name = "user_id"),
@@ -79,6 +96,14 @@ public class UserEntity extends BaseModel {
         this.roles = roles;
     }
 
+    public long getSecurityVersion() {
+        return securityVersion;
+    }
+
+    public void setSecurityVersion(long securityVersion) {
+        this.securityVersion = securityVersion;
+    }
+
     public List<ProductEntity> getProducts() {
         return products;
     }
@@ -93,7 +118,10 @@ public class UserEntity extends BaseModel {
      * Agrega un rol al usuario
      */
     public void addRole(RoleEntity role) {
-        this.roles.add(role);
+        if (this.roles.add(role)) {
+            // Los tokens emitidos antes no llevan este rol
+            this.securityVersion++;
+        }
         role.getUsers().add(this);
     }
 
@@ -101,7 +129,17 @@ public class UserEntity extends BaseModel {
      * Verifica si el usuario tiene un rol específico
      */
     public boolean hasRole(RoleName roleName) {
-        return this.roles.stream()
-            .anyMatch(role -> role.getName().equals(roleName));
+        return (getRoleMask() & roleName.mask()) != 0;
+    }
+
+    /**
+     * Roles del usuario como bits (ver RoleMask)
+     */
+    public long getRoleMask() {
+        long mask = 0L;
+        for (RoleEntity role : this.roles) {
+            mask |= role.getName().mask();
+        }
+        return mask;
     }
 }
\ No newline at end of file
@@ -1,9 +1,14 @@
 package ec.edu.ups.icc.fundamentos01.users.repository;
 
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
-
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
@@ -13,13 +18,29 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 
     // ============== MÉTODOS EXISTENTES ==============
 
+    // Roles en la misma consulta (la relación es LAZY)
+    @EntityGraph(attributePaths = "roles")
     Optional<UserEntity> findById(Long id);
 
+    // Solo la versión (ETag): lectura por PK sin hidratar la entidad ni sus roles
+    @Query("SELECT u.version FROM UserEntity u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
     // ============== NUEVOS MÉTODOS PARA SEGURIDAD ==============
 
-    // Buscar usuario por email (usado en login)
+    // Buscar usuario por email con sus roles (usado en login)
+    @EntityGraph(attributePaths = "roles")
     Optional<UserEntity> findByEmail(String email);
 
     // Verificar si email ya está registrado (usado en registro)
     boolean existsByEmail(String email);
+
+    // Cuáles de estos ids existen (validación por conjunto en carga masiva)
+    @Query("SELECT u.id FROM UserEntity u WHERE u.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Actualizar solo el hash del password (re-hash con nuevo costo BCrypt)
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
 }
\ No newline at end of file
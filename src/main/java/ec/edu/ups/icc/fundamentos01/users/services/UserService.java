@@ -14,13 +14,15 @@ public interface UserService {
 
     UserResponseDto findOne(int id);
 
+    long findVersion(int id);
+
     UserResponseDto create(CreateUserDto dto);
 
-    UserResponseDto update(int id, UpdateUserDto dto);
+    UserResponseDto update(int id, UpdateUserDto dto, Long expectedVersion);
 
-    UserResponseDto partialUpdate(int id, PartialUpdateUserDto dto);
+    UserResponseDto partialUpdate(int id, PartialUpdateUserDto dto, Long expectedVersion);
 
-    void delete(int id);
+    void delete(int id, Long expectedVersion);
 
     List<ProductResponseDto> getProductsByUserId(Long userId);
 
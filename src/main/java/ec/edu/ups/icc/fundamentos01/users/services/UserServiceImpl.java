@@ -4,16 +4,19 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import ec.edu.ups.icc.fundamentos01.categories.dtos.CategoryResponseDto;
 import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
 import ec.edu.ups.icc.fundamentos01.exceptions.domain.BadRequestException;
 import ec.edu.ups.icc.fundamentos01.exceptions.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.PreconditionFailedException;
 import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
 
 import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
 import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.security.services.UserSecurityVersionRegistry;
 import ec.edu.ups.icc.fundamentos01.users.dtos.CreateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.PartialUpdateUserDto;
 import ec.edu.ups.icc.fundamentos01.users.dtos.UpdateUserDto;
@@ -27,10 +30,15 @@ import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepo;
     private final ProductRepository productRepo;
+    private final UserSecurityVersionRegistry securityVersions;
+    private final ApplicationEventPublisher events;
 
-    public UserServiceImpl(UserRepository userRepo, ProductRepository productRepo) {
+    public UserServiceImpl(UserRepository userRepo, ProductRepository productRepo,
+            UserSecurityVersionRegistry securityVersions, ApplicationEventPublisher events) {
         this.userRepo = userRepo;
         this.productRepo = productRepo;
+        this.securityVersions = securityVersions;
+        this.events = events;
     }
 
     @Override
@@ -50,6 +58,12 @@ public class UserServiceImpl implements UserService {
                 .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
     }
 
+    @Override
+    public long findVersion(int id) {
+        return userRepo.findVersionById((long) id)
+                .orElseThrow(() -> new NotFoundException("Usuario no encontrado"));
+    }
+
     @Override
     public UserResponseDto create(CreateUserDto dto) {
 
@@ -67,21 +81,27 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserResponseDto update(int id, UpdateUserDto dto) {
+    public UserResponseDto update(int id, UpdateUserDto dto, Long expectedVersion) {
 
         return userRepo.findById((long) id)
-                // Entity → Domain
-                .map(User::fromEntity)
-
-                // Aplicar cambios permitidos en el dominio
-                .map(u -> u.update(dto))
+                // If-Match contra la versión leída; el merge vuelve a
+                // comprobarla en el UPDATE (WHERE version = ?)
+                .map(existing -> requireVersion(existing, expectedVersion))
 
-                // Domain → Entity
-                .map(User::toEntity)
+                // Entity → Domain → cambios permitidos → Entity
+                // (conservando roles y versión de seguridad)
+                .map(existing -> withSecurityState(
+                        User.fromEntity(existing).update(dto).toEntity(), existing))
 
                 // Persistencia
                 .map(userRepo::save)
 
+                // Invalidar tokens emitidos antes del cambio
+                .map(this::publishSecurityVersion)
+
+                // Reindexar los productos que muestran su nombre
+                .map(this::publishUpdated)
+
                 // Entity → Domain
                 .map(User::fromEntity)
 
@@ -93,21 +113,25 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public UserResponseDto partialUpdate(int id, PartialUpdateUserDto dto) {
+    public UserResponseDto partialUpdate(int id, PartialUpdateUserDto dto, Long expectedVersion) {
 
         return userRepo.findById((long) id)
-                // Entity → Domain
-                .map(User::fromEntity)
-
-                // Aplicar solo los cambios presentes
-                .map(user -> user.partialUpdate(dto))
+                .map(existing -> requireVersion(existing, expectedVersion))
 
-                // Domain → Entity
-                .map(User::toEntity)
+                // Entity → Domain → solo los cambios presentes → Entity
+                // (conservando roles y versión de seguridad)
+                .map(existing -> withSecurityState(
+                        User.fromEntity(existing).partialUpdate(dto).toEntity(), existing))
 
                 // Persistencia
                 .map(userRepo::save)
 
+                // Invalidar tokens emitidos antes del cambio
+                .map(this::publishSecurityVersion)
+
+                // Reindexar los productos que muestran su nombre
+                .map(this::publishUpdated)
+
                 // Entity → Domain
                 .map(User::fromEntity)
 
@@ -119,12 +143,16 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    public void delete(int id) {
+    public void delete(int id, Long expectedVersion) {
 
-        // Verifica existencia y elimina
+        // Verifica existencia y versión, y elimina (DELETE ... WHERE version = ?)
         userRepo.findById((long) id)
+                .map(existing -> requireVersion(existing, expectedVersion))
                 .ifPresentOrElse(
-                        userRepo::delete,
+                        user -> {
+                            userRepo.delete(user);
+                            securityVersions.markDeleted(user.getId());
+                        },
                         () -> {
                             throw new IllegalStateException("Usuario no encontrado");
                         });
@@ -195,6 +223,34 @@ public class UserServiceImpl implements UserService {
 
     // ============== MÉTODO HELPER ==============
 
+    /**
+     * El dominio User no conoce roles ni versión de seguridad:
+     * se copian desde la entidad existente para que el save() no los pierda,
+     * y se incrementa la versión porque cambió algo que viaja en el JWT
+     */
+    private UserEntity withSecurityState(UserEntity updated, UserEntity existing) {
+        updated.setRoles(existing.getRoles());
+        updated.setSecurityVersion(existing.getSecurityVersion() + 1);
+        return updated;
+    }
+
+    private UserEntity requireVersion(UserEntity existing, Long expectedVersion) {
+        if (expectedVersion != null && expectedVersion != existing.getVersion()) {
+            throw new PreconditionFailedException("El usuario fue modificado (If-Match no coincide)");
+        }
+        return existing;
+    }
+
+    private UserEntity publishSecurityVersion(UserEntity saved) {
+        securityVersions.record(saved.getId(), saved.getSecurityVersion());
+        return saved;
+    }
+
+    private UserEntity publishUpdated(UserEntity saved) {
+        events.publishEvent(new UserUpdatedEvent(saved.getId()));
+        return saved;
+    }
+
     /**
      * Convierte ProductEntity a ProductResponseDto
      * NOTA: Este método podría estar en un mapper separado para mejor organización
@@ -0,0 +1,11 @@
+package ec.edu.ups.icc.fundamentos01.users.services;
+
+/**
+ * Nombre o email de un usuario modificados
+ *
+ * Los índices de productos en memoria guardan el nombre del dueño (filtro
+ * ownerName y orden OWNER_NAME): lo escuchan después del commit y recargan
+ * los productos de ese usuario.
+ */
+public record UserUpdatedEvent(Long userId) {
+}
@@ -0,0 +1,10 @@
+-- Búsqueda de productos por "contiene" (LIKE '%texto%') con índices de trigramas
+-- Idempotente: SqlProductSearchBackend lo ejecuta en cada arranque sobre PostgreSQL
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_products_name_trgm
+    ON products USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX IF NOT EXISTS idx_users_name_trgm
+    ON users USING gin (lower(name) gin_trgm_ops);
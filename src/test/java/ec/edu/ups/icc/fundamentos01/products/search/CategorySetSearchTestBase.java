@@ -0,0 +1,132 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.category;
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.item;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.service.CategoryRegistry;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateResultDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+
+/**
+ * categoryIds + ALL / ANY / NONE con el mismo resultado en ambos backends
+ *
+ * Cada test arma su propio dueño y categorías (sufijo único): los casos
+ * "solo categorías" recorren todo el catálogo de la BD compartida.
+ *
+ * Productos: p1 {a, b}, p2 {a}, p3 {b}, p4 {}, p5 {c}
+ */
+abstract class CategorySetSearchTestBase {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected ProductSearchBackend backend;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    protected Long ownerId;
+    protected Long a;
+    protected Long b;
+    protected Long c;
+    protected List<Long> p;
+
+    @BeforeEach
+    void setUp() {
+        String tag = "set" + SEQUENCE.incrementAndGet();
+        ownerId = userRepository.save(new UserEntity("Dueño " + tag, tag + "@example.com", "hash")).getId();
+        a = category(categoryRepository, tag + " A").getId();
+        b = category(categoryRepository, tag + " B").getId();
+        c = category(categoryRepository, tag + " C").getId();
+        categoryRegistry.reload(); // categorías sembradas después del arranque
+
+        List<CreateProductDto> items = List.of(
+                item(tag + " 1", 10.0, ownerId, a, b),
+                item(tag + " 2", 10.0, ownerId, a),
+                item(tag + " 3", 10.0, ownerId, b),
+                item(tag + " 4", 10.0, ownerId),
+                item(tag + " 5", 10.0, ownerId, c));
+        BulkCreateResultDto result = productService.createBulk(items);
+        p = new ArrayList<>();
+        p.add(null); // p.get(1) = p1
+        result.results.forEach(item -> p.add(item.id));
+    }
+
+    @Test
+    void allAnyNoneAgreeWithAndWithoutOtherFilters() {
+        assertEquals(List.of(p.get(1)), ids(categories(null, CategoryMatchMode.ALL, a, b)));
+        assertEquals(List.of(p.get(1), p.get(2), p.get(3)), ids(categories(null, CategoryMatchMode.ANY, a, b)));
+
+        List<Long> none = ids(categories(null, CategoryMatchMode.NONE, a, b));
+        assertTrue(none.containsAll(List.of(p.get(4), p.get(5))));
+        assertFalse(none.contains(p.get(1)) || none.contains(p.get(2)) || none.contains(p.get(3)));
+
+        // Con otro filtro: el backend SQL resuelve las categorías en el WHERE
+        assertEquals(List.of(p.get(1)), ids(categories(ownerId, CategoryMatchMode.ALL, a, b)));
+        assertEquals(List.of(p.get(1), p.get(2), p.get(3)), ids(categories(ownerId, CategoryMatchMode.ANY, a, b)));
+        assertEquals(List.of(p.get(4), p.get(5)), ids(categories(ownerId, CategoryMatchMode.NONE, a, b)));
+
+        assertEquals(1, backend.count(categories(null, CategoryMatchMode.ALL, a, b)));
+        assertEquals(3, backend.count(categories(ownerId, CategoryMatchMode.ANY, a, b)));
+        assertEquals(2, backend.count(categories(ownerId, CategoryMatchMode.NONE, a, b)));
+        assertEquals(0, backend.count(categories(ownerId, CategoryMatchMode.ALL, a, c)));
+    }
+
+    @Test
+    void categorySetPagesInBothDirections() {
+        ProductSearchCriteria any = categories(null, CategoryMatchMode.ANY, a, b);
+
+        Slice<Long> first = backend.findIdSlice(any, PageRequest.of(0, 2, Sort.by("id")));
+        Slice<Long> second = backend.findIdSlice(any, PageRequest.of(1, 2, Sort.by("id")));
+        assertEquals(List.of(p.get(1), p.get(2)), first.getContent());
+        assertTrue(first.hasNext());
+        assertEquals(List.of(p.get(3)), second.getContent());
+        assertFalse(second.hasNext());
+
+        Slice<Long> descending = backend.findIdSlice(any, PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id")));
+        Slice<Long> last = backend.findIdSlice(any, PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "id")));
+        assertEquals(List.of(p.get(3), p.get(2)), descending.getContent());
+        assertEquals(List.of(p.get(1)), last.getContent());
+        assertFalse(last.hasNext());
+
+        // Otro orden
+        Slice<Long> byName = backend.findIdSlice(any, PageRequest.of(0, 5, Sort.by(Sort.Direction.DESC, "name")));
+        assertEquals(List.of(p.get(3), p.get(2), p.get(1)), byName.getContent());
+    }
+
+    protected List<Long> ids(ProductSearchCriteria criteria) {
+        return backend.findIdSlice(criteria, PageRequest.of(0, 1000, Sort.by("id"))).getContent();
+    }
+
+    protected static ProductSearchCriteria categories(Long userId, CategoryMatchMode mode, Long... categoryIds) {
+        return new ProductSearchCriteria(userId, null, null, null, null, null, Set.of(categoryIds), mode);
+    }
+}
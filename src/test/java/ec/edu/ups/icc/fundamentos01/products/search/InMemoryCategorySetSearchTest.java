@@ -0,0 +1,14 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Backend en memoria: los mismos casos sobre el índice de BitSets
+ */
+@SpringBootTest(properties = {
+        "product-search.backend=memory"
+})
+@ActiveProfiles("test")
+class InMemoryCategorySetSearchTest extends CategorySetSearchTestBase {
+}
@@ -0,0 +1,191 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductSortKey;
+import ec.edu.ups.icc.fundamentos01.products.search.ProductSearchIndex.Candidate;
+
+/**
+ * Filtros del índice en memoria contra los mismos datos que verían las consultas SQL
+ *
+ * Sin Spring ni BD: los productos se construyen directamente como IndexedProduct.
+ */
+class ProductSearchIndexTest {
+
+    private static final Comparator<Candidate> BY_ID = Comparator.comparing(candidate -> candidate.product().id());
+
+    @Test
+    void postingListRoundTripsLargeGaps() {
+        PostingList list = new PostingList();
+        int[] slots = { 0, 1, 127, 128, 16_384, 2_000_000, Integer.MAX_VALUE - 1 };
+        for (int slot : slots) {
+            list.add(slot);
+        }
+
+        BitSet decoded = new BitSet();
+        list.addTo(decoded);
+
+        assertEquals(slots.length, decoded.cardinality());
+        for (int slot : slots) {
+            assertEquals(true, decoded.get(slot), "slot " + slot);
+        }
+    }
+
+    @Test
+    void combinesTextPriceCategoryAndOwnerFilters() {
+        ProductSearchIndex index = sampleIndex();
+
+        assertEquals(List.of(1L, 2L), ids(index, criteria(null, "laptop", null, null, null, null)));
+        assertEquals(List.of(2L), ids(index, criteria(null, "laptop", null, null, 900.0, null)));
+        assertEquals(List.of(1L, 3L), ids(index, criteria(null, null, null, null, null, 10L)));
+        assertEquals(List.of(3L), ids(index, criteria(7L, null, null, null, null, null)));
+        assertEquals(List.of(3L), ids(index, criteria(null, null, "mar", null, null, null)));
+    }
+
+    @Test
+    void confirmsTextAfterTrigramIntersection() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put(product(1L, "Abcab", 5L, "Ana", 10.0, 10L));
+
+        // "abcabc" solo tiene los trigramas abc, bca, cab (todos en "abcab"), pero no está contenido
+        assertEquals(List.of(), ids(index, criteria(null, "abcabc", null, null, null, null)));
+        assertEquals(List.of(1L), ids(index, criteria(null, "bcab", null, null, null, null)));
+    }
+
+    @Test
+    void updatesAndRemovalsReplaceThePreviousSlot() {
+        ProductSearchIndex index = sampleIndex();
+
+        index.put(product(1L, "Tablet", 5L, "Ana", 300.0, 11L));
+        index.remove(2L);
+
+        assertEquals(List.of(), ids(index, criteria(null, "laptop", null, null, null, null)));
+        assertEquals(List.of(1L), ids(index, criteria(null, "tab", null, null, 400.0, 11L)));
+        assertEquals(List.of(1L, 3L), ids(index, criteria(null, null, null, null, null, null)));
+        assertEquals(List.of(1L, 3L), ids(ProductSearchIndex.of(index.liveProducts()),
+                criteria(null, null, null, null, null, null)));
+    }
+
+    @Test
+    void priceRangesStayCorrectAcrossPendingBufferMerges() {
+        // 5000 altas: la mezcla del búfer (4096 pendientes) ocurre a mitad de camino
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (long id = 1; id <= 5000; id++) {
+            index.put(product(id, "Item " + id, 5L, "Ana", (double) (5001 - id), 10L));
+        }
+        // Cambios de precio antes y después de la mezcla: el slot anterior queda muerto
+        index.put(product(10L, "Item 10", 5L, "Ana", 1.5, 10L));
+        index.put(product(4500L, "Item 4500", 5L, "Ana", 1.5, 10L));
+        index.remove(4999L); // precio 2.0
+
+        assertEquals(List.of(1L, 2L, 3L), ids(index, criteria(null, null, null, 4998.0, null, null)));
+        assertEquals(List.of(10L, 4500L, 5000L), ids(index, criteria(null, null, null, null, 1.5, null)));
+        assertEquals(List.of(10L, 4500L), ids(index, criteria(null, null, null, 1.5, 1.5, null)));
+        assertEquals(List.of(4998L), ids(index, criteria(null, null, null, 2.0, 3.0, null)));
+        assertEquals(4999, index.search(criteria(null, null, null, 0.0, null, null), BY_ID, 0, 1).total());
+    }
+
+    @Test
+    void compactionNeedsBothMinimumDeadSlotsAndDeadRatio() {
+        // Ratio alto pero menos de 1024 muertos: no compacta
+        ProductSearchIndex small = new ProductSearchIndex();
+        for (long id = 1; id <= 1023; id++) {
+            small.put(product(id, "Item", 5L, "Ana", 1.0, 10L));
+            small.remove(id);
+        }
+        assertFalse(small.needsCompaction());
+
+        // 1024 muertos de 5000 slots: ratio 0.20, no compacta
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (long id = 1; id <= 5000; id++) {
+            index.put(product(id, "Item " + id, 5L, "Ana", (double) id, id % 2 == 0 ? 10L : 11L));
+        }
+        for (long id = 1; id <= 1024; id++) {
+            index.remove(id);
+        }
+        assertFalse(index.needsCompaction());
+
+        // 1251 muertos de 5000 slots: ratio > 0.25, compacta
+        for (long id = 1025; id <= 1251; id++) {
+            index.remove(id);
+        }
+        assertTrue(index.needsCompaction());
+
+        ProductSearchIndex compacted = ProductSearchIndex.of(index.liveProducts());
+        assertFalse(compacted.needsCompaction());
+        assertEquals(index.size(), compacted.size());
+        for (ProductSearchCriteria criteria : List.of(
+                criteria(null, null, null, null, null, null),
+                criteria(null, null, null, null, null, 10L),
+                criteria(null, "item 12", null, 1200.0, 4000.0, null))) {
+            assertEquals(ids(index, criteria), ids(compacted, criteria));
+        }
+    }
+
+    @Test
+    void scorerRunsOncePerCandidate() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        for (long id = 1; id <= 200; id++) {
+            index.put(product(id, "Item " + id, 5L, "Ana", 1.0, 10L));
+        }
+        List<Long> scored = new ArrayList<>();
+        Comparator<Candidate> byScore = Comparator.comparingDouble(Candidate::score).reversed();
+
+        List<Long> page = index.search(criteria(null, null, null, null, null, null), byScore.thenComparing(BY_ID),
+                product -> {
+                    scored.add(product.id());
+                    return product.id() % 7;
+                }, 0, 3).ids();
+
+        assertEquals(200, scored.size());
+        assertEquals(List.of(6L, 13L, 20L), page);
+    }
+
+    @Test
+    void facetsCountCategoriesAndPriceBucketsOfTheFilteredSet() {
+        ProductSearchIndex index = sampleIndex();
+        double[] bounds = { 0.0, 100.0, 1000.0 };
+
+        ProductFacets all = index.facets(criteria(null, null, null, null, null, null), bounds);
+        assertEquals(Map.of(10L, 2L, 11L, 1L), all.categoryCounts());
+        assertArrayEquals(new long[] { 1, 1, 1 }, all.priceBucketCounts());
+
+        ProductFacets laptops = index.facets(criteria(null, "laptop", null, null, null, null), bounds);
+        assertEquals(Map.of(10L, 1L, 11L, 1L), laptops.categoryCounts());
+        assertArrayEquals(new long[] { 0, 1, 1 }, laptops.priceBucketCounts());
+    }
+
+    private static ProductSearchIndex sampleIndex() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.put(product(1L, "Laptop Gamer", 5L, "Ana", 1500.0, 10L));
+        index.put(product(2L, "Laptop Oficina", 5L, "Ana", 800.0, 11L));
+        index.put(product(3L, "Mouse", 7L, "Mario", 20.0, 10L));
+        return index;
+    }
+
+    private static List<Long> ids(ProductSearchIndex index, ProductSearchCriteria criteria) {
+        return index.search(criteria, BY_ID, 0, 100).ids();
+    }
+
+    private static ProductSearchCriteria criteria(Long userId, String name, String ownerName,
+            Double minPrice, Double maxPrice, Long categoryId) {
+        return new ProductSearchCriteria(userId, name, ownerName, minPrice, maxPrice, categoryId);
+    }
+
+    private static IndexedProduct product(Long id, String name, Long ownerId, String ownerName,
+            Double price, long categoryId) {
+        return new IndexedProduct(id, name.toLowerCase(), ownerId, ownerName.toLowerCase(), price,
+                new long[] { categoryId }, new Object[ProductSortKey.values().length]);
+    }
+}
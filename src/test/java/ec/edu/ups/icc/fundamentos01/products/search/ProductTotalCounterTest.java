@@ -0,0 +1,91 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+
+import ec.edu.ups.icc.fundamentos01.shared.dto.CountedPage;
+import ec.edu.ups.icc.fundamentos01.shared.pagination.CountMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Modos de conteo sin BD: los COUNT se simulan con un contador de llamadas
+ */
+class ProductTotalCounterTest {
+
+    private static final ProductSearchCriteria KEY = new ProductSearchCriteria(null, "laptop", null, null, null, null);
+
+    private final ProductTotalCounter counter =
+            new ProductTotalCounter(new ProductCountProperties(), new SimpleMeterRegistry());
+    private final AtomicInteger counts = new AtomicInteger();
+
+    @Test
+    void lastPageIsExactWithoutCounting() {
+        Slice<Long> last = new SliceImpl<>(List.of(5L), PageRequest.of(2, 2), false);
+
+        CountedPage<Long> page = counter.page(last, CountMode.ESTIMATED, KEY, this::exact, () -> 1_000L);
+
+        assertEquals(5, page.getTotalElements());
+        assertEquals(CountMode.EXACT, page.getTotalAccuracy());
+        assertEquals(0, counts.get());
+    }
+
+    @Test
+    void emptyPagePastTheEndIsCountedInsteadOfTakingTheOffset() {
+        Slice<Long> pastTheEnd = new SliceImpl<>(List.of(), PageRequest.of(50, 2), false);
+
+        CountedPage<Long> exact = counter.page(pastTheEnd, CountMode.EXACT, KEY, this::exact, () -> 1_000L);
+        assertEquals(10, exact.getTotalElements());
+        assertEquals(CountMode.EXACT, exact.getTotalAccuracy());
+        assertEquals(1, counts.get());
+
+        CountedPage<Long> estimated = counter.page(pastTheEnd, CountMode.ESTIMATED, KEY, this::exact, () -> 7L);
+        assertEquals(7, estimated.getTotalElements()); // sin mínimo de offset + 1
+        assertEquals(CountMode.ESTIMATED, estimated.getTotalAccuracy());
+
+        // Primera página vacía: catálogo vacío, exacto sin contar
+        Slice<Long> empty = new SliceImpl<>(List.of(), PageRequest.of(0, 2), false);
+        assertEquals(0, counter.page(empty, CountMode.EXACT, KEY, this::exact, () -> null).getTotalElements());
+        assertEquals(1, counts.get());
+    }
+
+    @Test
+    void cachedReusesExactCountUntilProductsChange() {
+        assertEquals(CountMode.EXACT, cachedAccuracy());
+        assertEquals(CountMode.CACHED, cachedAccuracy());
+        assertEquals(1, counts.get());
+
+        counter.onProductsChanged(ProductsChangedEvent.of(1L));
+
+        assertEquals(CountMode.EXACT, cachedAccuracy());
+        assertEquals(2, counts.get());
+    }
+
+    @Test
+    void estimateNeverUndercountsWhatWasAlreadyRead() {
+        CountedPage<Long> page = counter.page(full(), CountMode.ESTIMATED, KEY, this::exact, () -> 1L);
+
+        assertEquals(3, page.getTotalElements()); // 2 filas + al menos una más
+        assertEquals(CountMode.ESTIMATED, page.getTotalAccuracy());
+        assertEquals(0, counts.get());
+    }
+
+    private CountMode cachedAccuracy() {
+        return counter.page(full(), CountMode.CACHED, KEY, this::exact, () -> null).getTotalAccuracy();
+    }
+
+    private static Slice<Long> full() {
+        return new SliceImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), true);
+    }
+
+    private long exact() {
+        counts.incrementAndGet();
+        return 10;
+    }
+}
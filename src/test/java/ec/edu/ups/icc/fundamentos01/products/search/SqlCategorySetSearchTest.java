@@ -0,0 +1,37 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Backend SQL: páginas y totales salen del WHERE aunque el bitmap del nodo esté atrasado
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SqlCategorySetSearchTest extends CategorySetSearchTestBase {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void whereClauseSeesLinksTheBitmapDoesNotKnowYet() {
+        // Vínculos escritos sin ProductsChangedEvent (como otro nodo antes de la recarga periódica)
+        jdbcTemplate.update("INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)", p.get(4), c);
+        jdbcTemplate.update("INSERT INTO product_categories (product_id, category_id) VALUES (?, ?)", p.get(4), a);
+
+        assertEquals(List.of(p.get(4), p.get(5)), ids(categories(ownerId, CategoryMatchMode.ANY, c)));
+        assertEquals(2, backend.count(categories(ownerId, CategoryMatchMode.ANY, c)));
+        assertEquals(List.of(p.get(1), p.get(2), p.get(3)), ids(categories(ownerId, CategoryMatchMode.NONE, c)));
+
+        // Solo categoryIds + orden por id: tampoco sale del bitmap (para él, a ∧ c está vacío)
+        assertEquals(List.of(p.get(4)), ids(categories(null, CategoryMatchMode.ALL, a, c)));
+        assertEquals(1, backend.count(categories(null, CategoryMatchMode.ALL, a, c)));
+    }
+}
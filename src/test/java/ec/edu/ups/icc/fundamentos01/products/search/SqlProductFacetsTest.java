@@ -0,0 +1,148 @@
+package ec.edu.ups.icc.fundamentos01.products.search;
+
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.category;
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.item;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.service.CategoryRegistry;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+
+/**
+ * Facetas del backend SQL sobre H2 (GROUP BY separados + timeout JDBC)
+ *
+ * Productos del dueño: 5 {a, b}, 50 {b}, 500 {a}, 1500 {}
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SqlProductFacetsTest {
+
+    private static final double[] BOUNDS = { 0.0, 100.0, 1000.0 };
+
+    @Autowired
+    private ProductSearchBackend backend;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long ownerId;
+    private Long a;
+    private Long b;
+
+    @BeforeEach
+    void setUp() {
+        ownerId = userRepository.findByEmail("facets@example.com")
+                .orElseGet(() -> userRepository.save(new UserEntity("Facetas", "facets@example.com", "hash")))
+                .getId();
+        a = category(categoryRepository, "Facetas A").getId();
+        b = category(categoryRepository, "Facetas B").getId();
+        if (!productRepository.findIdsByOwnerId(ownerId).isEmpty()) {
+            return;
+        }
+        categoryRegistry.reload(); // categorías sembradas después del arranque
+        productService.createBulk(List.of(
+                item("Facetas 5", 5.0, ownerId, a, b),
+                item("Facetas 50", 50.0, ownerId, b),
+                item("Facetas 500", 500.0, ownerId, a),
+                item("Facetas 1500", 1500.0, ownerId)));
+    }
+
+    @Test
+    void separateGroupByQueriesCountCategoriesAndPriceBuckets() {
+        ProductFacets all = backend.facets(new ProductSearchCriteria(ownerId, null, null, null, null, null), BOUNDS);
+        assertTrue(all.complete());
+        assertEquals(Map.of(a, 2L, b, 2L), all.categoryCounts());
+        assertArrayEquals(new long[] { 2, 1, 1 }, all.priceBucketCounts());
+
+        // Facetas disyuntivas: categoryIds no recorta los conteos
+        ProductFacets expensive = backend.facets(new ProductSearchCriteria(ownerId, null, null, 100.0, null, null,
+                Set.of(b), CategoryMatchMode.ALL), BOUNDS);
+        assertEquals(Map.of(a, 1L), expensive.categoryCounts());
+        assertArrayEquals(new long[] { 0, 1, 1 }, expensive.priceBucketCounts());
+    }
+
+    @Test
+    void groupingRowsSplitIntoCategoryAndBucketCounts() {
+        List<Object[]> rows = List.of(
+                new Object[] { 7L, null, 0, 3L },   // categoría 7
+                new Object[] { 9, null, 0, 1L },    // categoría 9 (INTEGER del driver)
+                new Object[] { null, null, 0, 2L }, // productos sin categoría
+                new Object[] { null, 0, 1, 4L },    // rango 0
+                new Object[] { null, 2, 1, 5L },    // rango 2
+                new Object[] { null, -1, 1, 6L });  // por debajo del primer límite
+
+        ProductFacets facets = SqlProductSearchBackend.fromGroupingRows(rows, BOUNDS);
+
+        assertTrue(facets.complete());
+        assertEquals(Map.of(7L, 3L, 9L, 1L), facets.categoryCounts());
+        assertArrayEquals(new long[] { 4, 0, 5 }, facets.priceBucketCounts());
+    }
+
+    @Test
+    void exceedingTheTimeoutReturnsIncompleteFacets() {
+        // users pasa a ser una vista lenta: ~5 ms por fila sobre 1000 filas, tope de 1 s
+        jdbcTemplate.execute("CREATE ALIAS IF NOT EXISTS FACET_PAUSE FOR '"
+                + SlowRows.class.getName() + ".pause'");
+        jdbcTemplate.execute("ALTER TABLE users RENAME TO users_base");
+        try {
+            jdbcTemplate.execute("CREATE VIEW users AS SELECT u.* FROM users_base u, SYSTEM_RANGE(1, 1000) r"
+                    + " WHERE FACET_PAUSE()");
+
+            long started = System.nanoTime();
+            ProductFacets facets = backend.facets(
+                    new ProductSearchCriteria(ownerId, null, "facetas", null, null, null), BOUNDS);
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+            assertFalse(facets.complete());
+            assertEquals(Map.of(), facets.categoryCounts());
+            assertArrayEquals(new long[BOUNDS.length], facets.priceBucketCounts());
+            assertTrue(elapsedMillis < 4_000, "la consulta no se cortó: " + elapsedMillis + " ms");
+        } finally {
+            jdbcTemplate.execute("DROP VIEW IF EXISTS users");
+            jdbcTemplate.execute("ALTER TABLE users_base RENAME TO users");
+        }
+    }
+
+    /**
+     * Función de H2 para la vista lenta (pública: H2 la invoca por reflexión)
+     */
+    public static class SlowRows {
+
+        public static boolean pause() throws InterruptedException {
+            Thread.sleep(5);
+            return true;
+        }
+    }
+}
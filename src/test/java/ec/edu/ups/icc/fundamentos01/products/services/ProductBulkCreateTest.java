@@ -0,0 +1,178 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.category;
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.item;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.service.CategoryRegistry;
+import ec.edu.ups.icc.fundamentos01.products.dtos.BulkCreateResultDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+
+/**
+ * Carga masiva sobre H2: validación por producto y sentencias por lote
+ *
+ * Las sentencias se cuentan en el DataSource (Hibernate + JdbcTemplate),
+ * solo las del hilo del test: las tareas @Scheduled usan otras conexiones.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductBulkCreateTest {
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static volatile Thread countedThread;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    private Long ownerId;
+    private Long categoryA;
+    private Long categoryB;
+
+    @BeforeEach
+    void setUp() {
+        UserEntity owner = userRepository.findByEmail("bulk@example.com")
+                .orElseGet(() -> userRepository.save(new UserEntity("Bulk", "bulk@example.com", "hash")));
+        ownerId = owner.getId();
+        categoryA = category(categoryRepository, "Bulk A").getId();
+        categoryB = category(categoryRepository, "Bulk B").getId();
+        categoryRegistry.reload(); // categorías sembradas después del arranque
+    }
+
+    @Test
+    void eachItemIsValidatedAndOnlyValidOnesAreInserted() {
+        productService.createBulk(List.of(item("Existente", 10.0, ownerId, categoryA)));
+
+        List<CreateProductDto> items = new ArrayList<>();
+        items.add(item("Nuevo A", 10.0, ownerId, categoryA, categoryB)); // 0: válido
+        items.add(item("", 10.0, ownerId, categoryA));                   // 1: nombre vacío
+        items.add(item("Sin dueño", 10.0, 999_999L, categoryA));         // 2: usuario inexistente
+        items.add(item("Sin categoría", 10.0, ownerId, 999_999L));       // 3: categoría inexistente
+        items.add(item("Existente", 10.0, ownerId, categoryA));          // 4: nombre ya registrado
+        items.add(item("Nuevo A", 10.0, ownerId, categoryB));            // 5: repetido dentro del lote
+        items.add(null);                                                 // 6: nulo
+
+        BulkCreateResultDto result = productService.createBulk(items);
+
+        assertEquals(7, result.received);
+        assertEquals(1, result.created);
+        assertEquals(6, result.rejected);
+
+        BulkCreateResultDto.ItemResultDto created = result.results.get(0);
+        assertEquals(BulkCreateResultDto.ItemStatus.CREATED, created.status);
+        assertNotNull(created.id);
+        ProductEntity stored = productRepository.findAllWithDetailsByIdIn(List.of(created.id)).get(0);
+        assertEquals("Nuevo A", stored.getName());
+        assertEquals(2, stored.getCategories().size());
+
+        for (int i = 1; i < items.size(); i++) {
+            assertEquals(BulkCreateResultDto.ItemStatus.REJECTED, result.results.get(i).status);
+        }
+        assertTrue(result.results.get(2).errors.contains("Usuario no encontrado con ID: 999999"));
+        assertTrue(result.results.get(3).errors.contains("Categoría no encontrada: 999999"));
+        assertTrue(result.results.get(4).errors.contains("El nombre del producto ya está registrado"));
+        assertTrue(result.results.get(5).errors.contains("El nombre del producto ya está registrado"));
+    }
+
+    @Test
+    void statementCountDoesNotDependOnBatchSize() {
+        List<CreateProductDto> items = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            items.add(item("Lote " + i, 10.0, ownerId, categoryA, categoryB));
+        }
+
+        STATEMENTS.set(0);
+        countedThread = Thread.currentThread();
+        BulkCreateResultDto result;
+        try {
+            result = productService.createBulk(items);
+        } finally {
+            countedThread = null;
+        }
+
+        assertEquals(50, result.created);
+        // usuarios + nombres existentes + batch de productos + batch de categorías
+        // + recarga post-commit de los vínculos en el índice de categorías
+        assertEquals(5, STATEMENTS.get());
+    }
+
+    /**
+     * Envuelve el DataSource para contar los prepareStatement del hilo del test
+     */
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) {
+                        return bean;
+                    }
+                    return new DelegatingDataSource(dataSource) {
+                        @Override
+                        public Connection getConnection() throws SQLException {
+                            return counting(super.getConnection());
+                        }
+                    };
+                }
+            };
+        }
+
+        private static Connection counting(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("prepare")
+                                && Thread.currentThread() == countedThread) {
+                            STATEMENTS.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
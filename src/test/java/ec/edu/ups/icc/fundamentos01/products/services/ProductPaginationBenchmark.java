@@ -0,0 +1,124 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.shared.dto.PageableDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+/**
+ * Benchmark: paginación con filtro de categoría a distintas profundidades
+ *
+ * - "una fase":  SELECT DISTINCT p ... LEFT JOIN p.categories + LIMIT/OFFSET
+ *                (la consulta anterior a la paginación en dos fases)
+ * - "dos fases": IDs ordenados con LIMIT/OFFSET + un SELECT de la página
+ *                (ProductService.findWithFilters)
+ *
+ * Corre contra la BD configurada (PostgreSQL) y necesita datos cargados:
+ * se omite si hay menos de MIN_PRODUCTS productos. Ejecutar con:
+ * ./gradlew generateData   (una vez)
+ * ./gradlew benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "password-hashing.calibrate=false"
+})
+class ProductPaginationBenchmark {
+
+    private static final long MIN_PRODUCTS = 1_000_000L;
+    private static final int PAGE_SIZE = 20;
+    private static final int[] PAGES = { 0, 100, 1_000, 10_000 };
+    private static final int REPETITIONS = 5;
+
+    private static final String SINGLE_PHASE =
+            "SELECT DISTINCT p FROM ProductEntity p " +
+            "LEFT JOIN p.categories c " +
+            "WHERE (:categoryId IS NULL OR c.id = :categoryId) " +
+            "ORDER BY p.id";
+
+    private static final String SINGLE_PHASE_COUNT =
+            "SELECT COUNT(DISTINCT p) FROM ProductEntity p " +
+            "LEFT JOIN p.categories c " +
+            "WHERE (:categoryId IS NULL OR c.id = :categoryId)";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void filteredPaginationByDepth() {
+        long products = productRepository.count();
+        assumeTrue(products >= MIN_PRODUCTS,
+                "Se requieren al menos " + MIN_PRODUCTS + " productos (hay " + products + ")");
+
+        Long categoryId = entityManager
+                .createQuery("SELECT MIN(c.id) FROM CategoryEntity c", Long.class)
+                .getSingleResult();
+
+        System.out.printf("%,d productos, categoría %d, páginas de %d%n", products, categoryId, PAGE_SIZE);
+        System.out.printf("%8s %14s %14s%n", "página", "una fase", "dos fases");
+
+        for (int page : PAGES) {
+            // Calentamiento: plan de ejecución y caché de páginas de la BD
+            singlePhase(categoryId, page);
+            twoPhase(categoryId, page);
+
+            double singleMillis = 0;
+            double twoMillis = 0;
+            for (int i = 0; i < REPETITIONS; i++) {
+                singleMillis += singlePhase(categoryId, page);
+                twoMillis += twoPhase(categoryId, page);
+            }
+
+            System.out.printf("%8d %11.1f ms %11.1f ms%n",
+                    page, singleMillis / REPETITIONS, twoMillis / REPETITIONS);
+        }
+    }
+
+    private double singlePhase(Long categoryId, int page) {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            TypedQuery<ProductEntity> query = entityManager
+                    .createQuery(SINGLE_PHASE, ProductEntity.class)
+                    .setParameter("categoryId", categoryId)
+                    .setFirstResult(page * PAGE_SIZE)
+                    .setMaxResults(PAGE_SIZE)
+                    .setHint("jakarta.persistence.fetchgraph",
+                            entityManager.getEntityGraph(ProductEntity.GRAPH_WITH_OWNER));
+            List<ProductEntity> content = query.getResultList();
+            content.forEach(product -> product.getCategories().size());
+
+            entityManager.createQuery(SINGLE_PHASE_COUNT, Long.class)
+                    .setParameter("categoryId", categoryId)
+                    .getSingleResult();
+            entityManager.clear();
+        });
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+
+    private double twoPhase(Long categoryId, int page) {
+        long start = System.nanoTime();
+        productService.findWithFilters(null, null, null, null, categoryId, null, null,
+                new PageableDto(page, PAGE_SIZE, new String[] { "id" }));
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,345 @@
+package ec.edu.ups.icc.fundamentos01.products.services;
+
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.category;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.context.ActiveProfiles;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.service.CategoryRegistry;
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.NotFoundException;
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.PreconditionFailedException;
+import ec.edu.ups.icc.fundamentos01.products.dtos.PartialUpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.ProductResponseDto;
+import ec.edu.ups.icc.fundamentos01.products.dtos.UpdateProductDto;
+import ec.edu.ups.icc.fundamentos01.products.models.ProductEntity;
+import ec.edu.ups.icc.fundamentos01.products.repository.ProductRepository;
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+import ec.edu.ups.icc.fundamentos01.security.repository.RoleRepository;
+import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import ec.edu.ups.icc.fundamentos01.security.utils.RoleMask;
+import ec.edu.ups.icc.fundamentos01.shared.dto.CursorPageDto;
+import ec.edu.ups.icc.fundamentos01.shared.dto.PageableDto;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Cantidad EXACTA de sentencias SQL por lectura de productos
+ *
+ * Datos: 1 usuario (con rol) dueño de 4 productos, cada uno con 2 categorías.
+ * Páginas de 2 elementos → la página está llena y Spring Data ejecuta el COUNT.
+ *
+ * Si un cambio vuelve a cargar owner, roles o categorías por fila (N+1),
+ * estos números crecen y el test falla.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "ec.edu.ups.icc.fundamentos01.products.services.ProductServiceQueryCountTest$SqlRecorder"
+})
+@ActiveProfiles("test")
+class ProductServiceQueryCountTest {
+
+    private static final int PRODUCTS = 4;
+    private static final int PAGE_SIZE = 2;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private RoleRepository roleRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Long ownerId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        if (productRepository.count() == 0) {
+            seed();
+        }
+        ownerId = userRepository.findByEmail("owner@example.com").orElseThrow().getId();
+        productId = productRepository.findByName("Producto 1").orElseThrow().getId();
+        categoryRegistry.reload(); // categorías sembradas después del arranque
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        SqlRecorder.STATEMENTS.clear();
+    }
+
+    @Test
+    void findAllPaginadoUsesPageCountAndOneCategoryBatch() {
+        productService.findAllPaginado(page());
+
+        assertStatements(3); // página (JOIN owner) + COUNT + categorías
+    }
+
+    @Test
+    void findAllSliceUsesPageAndOneCategoryBatch() {
+        productService.findAllSlice(page());
+
+        assertStatements(2); // página (JOIN owner) + categorías
+    }
+
+    @Test
+    void findWithFiltersUsesIdsCountAndOneHydration() {
+        productService.findWithFilters(null, null, 0.0, null, null, null, null, page());
+
+        assertStatements(3); // IDs de la página + COUNT + productos (owner + categorías)
+    }
+
+    @Test
+    void findByUserIdWithFiltersUsesExistsIdsCountAndOneHydration() {
+        productService.findByUserIdWithFilters(ownerId, null, null, null, null, page());
+
+        assertStatements(4); // existsById + IDs + COUNT + productos
+    }
+
+    @Test
+    void findWithCursorUsesIdsAndOneHydration() {
+        productService.findWithCursor(null, null, null, null, "price,desc", PAGE_SIZE, null);
+
+        assertStatements(2); // IDs (seek, sin COUNT) + productos
+    }
+
+    @Test
+    void findWithCursorWalksEveryProductOnce() {
+        List<Double> prices = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPageDto<ProductResponseDto> page = productService.findWithCursor(
+                    null, null, null, null, "price,desc", PAGE_SIZE, cursor);
+            page.getContent().forEach(product -> prices.add(product.price));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(40.0, 30.0, 20.0, 10.0), prices);
+    }
+
+    @Test
+    void findAllUsesSingleStatement() {
+        productService.findAll();
+
+        assertStatements(1);
+    }
+
+    @Test
+    void streamAllWritesOneLinePerProductWithIdCursorAndOneHydrationPerChunk() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        productService.streamAll(output);
+
+        assertStatements(2); // cursor de IDs + 1 bloque (owner + categorías); antes 1 + 1 por producto
+        assertEquals(PRODUCTS, output.toString(StandardCharsets.UTF_8).lines().count());
+    }
+
+    @Test
+    void findByIdUsesSingleStatement() {
+        productService.findById(productId);
+
+        assertStatements(1);
+    }
+
+    @Test
+    void findETagUsesSingleStatementWithoutHydration() {
+        String eTag = productService.findETag(productId);
+
+        assertStatements(1);
+        assertEquals(0, statistics.getEntityLoadCount(), "El sondeo de versión no debe cargar entidades");
+        assertEquals(productService.findById(productId).eTag, eTag, "Mismo ETag que la respuesta completa");
+    }
+
+    @Test
+    void findByUserIdUsesExistsAndSingleStatement() {
+        productService.findByUserId(ownerId);
+
+        assertStatements(2);
+    }
+
+    @Test
+    void partialUpdateWritesOnlyChangedColumnsAndSkipsUnchangedCategories() {
+        ProductEntity product = productRepository.findAllWithDetailsByIdIn(List.of(productId)).get(0);
+        Set<Long> sameCategories = new HashSet<>();
+        product.getCategories().forEach(category -> sameCategories.add(category.getId()));
+        statistics.clear();
+        SqlRecorder.STATEMENTS.clear();
+
+        PartialUpdateProductDto dto = new PartialUpdateProductDto();
+        dto.name = product.getName();                          // igual: no se escribe
+        dto.description = "Descripción " + System.nanoTime();  // único campo que cambia
+        dto.categoryIds = sameCategories;                      // mismo conjunto
+        productService.partialUpdate(productId, dto, owner(), null);
+
+        // lectura condicional + UPDATE + recarga post-commit del índice de categorías
+        assertStatements(3);
+
+        List<String> writes = SqlRecorder.STATEMENTS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> !sql.startsWith("select"))
+                .toList();
+        assertEquals(1, writes.size(), "Solo el UPDATE de products: " + writes);
+        String update = writes.get(0);
+        assertTrue(update.startsWith("update products"), update);
+        assertTrue(update.contains("description"), update);
+        assertFalse(update.contains("price") || update.contains("name"), "Columnas sin cambio: " + update);
+        assertFalse(SqlRecorder.STATEMENTS.stream()
+                        .filter(sql -> !sql.toLowerCase(Locale.ROOT).startsWith("select"))
+                        .anyMatch(sql -> sql.toLowerCase(Locale.ROOT).contains("product_categories")),
+                "Sin escrituras en product_categories si el conjunto no cambia");
+    }
+
+    @Test
+    void updateWithUnchangedCategoriesWritesNothingToProductCategories() {
+        UpdateProductDto dto = new UpdateProductDto();
+        dto.name = "Producto 1";
+        dto.price = 10.0;
+        dto.description = "Descripción " + System.nanoTime();
+        dto.categoryIds = currentCategoryIds();
+        statistics.clear();
+        SqlRecorder.STATEMENTS.clear();
+
+        productService.update(productId, dto, owner(), null);
+
+        assertFalse(writes().stream().anyMatch(sql -> sql.contains("product_categories")),
+                "Sin escrituras en product_categories si el conjunto no cambia: " + writes());
+    }
+
+    @Test
+    void rejectedWritesAreExplainedWithOneOwnerAndVersionQuery() {
+        UpdateProductDto dto = new UpdateProductDto();
+        dto.name = "Producto 1";
+        dto.price = 10.0;
+        dto.categoryIds = currentCategoryIds();
+        statistics.clear();
+
+        // No existe → 404
+        assertThrows(NotFoundException.class, () -> productService.update(999_999L, dto, owner(), null));
+        assertStatements(2); // UPDATE condicional (0 filas) + dueño/versión
+
+        // Producto ajeno → 403
+        statistics.clear();
+        assertThrows(AccessDeniedException.class, () -> productService.update(productId, dto, stranger(), null));
+        assertStatements(2);
+
+        // If-Match con versión vieja → 412
+        statistics.clear();
+        assertThrows(PreconditionFailedException.class, () -> productService.update(productId, dto, owner(), -1L));
+        assertStatements(2);
+
+        // PATCH y DELETE deciden igual
+        PartialUpdateProductDto patch = new PartialUpdateProductDto();
+        patch.description = "Nunca se escribe";
+        assertThrows(AccessDeniedException.class,
+                () -> productService.partialUpdate(productId, patch, stranger(), null));
+        assertThrows(PreconditionFailedException.class,
+                () -> productService.partialUpdate(productId, patch, owner(), -1L));
+        assertThrows(NotFoundException.class, () -> productService.delete(999_999L, owner(), null));
+        assertThrows(AccessDeniedException.class, () -> productService.delete(productId, stranger(), null));
+        assertThrows(PreconditionFailedException.class, () -> productService.delete(productId, owner(), -1L));
+    }
+
+    private Set<Long> currentCategoryIds() {
+        Set<Long> ids = new HashSet<>();
+        productRepository.findAllWithDetailsByIdIn(List.of(productId)).get(0)
+                .getCategories().forEach(category -> ids.add(category.getId()));
+        return ids;
+    }
+
+    private static List<String> writes() {
+        return SqlRecorder.STATEMENTS.stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT))
+                .filter(sql -> !sql.startsWith("select"))
+                .toList();
+    }
+
+    private UserDetailsImpl owner() {
+        return new UserDetailsImpl(ownerId, "Owner", "owner@example.com", null,
+                RoleMask.authorities(RoleMask.of(RoleName.ROLE_USER)));
+    }
+
+    private UserDetailsImpl stranger() {
+        return new UserDetailsImpl(ownerId + 1_000, "Otro", "other@example.com", null,
+                RoleMask.authorities(RoleMask.of(RoleName.ROLE_USER)));
+    }
+
+    private void assertStatements(long expected) {
+        assertEquals(expected, statistics.getPrepareStatementCount(),
+                "Sentencias SQL ejecutadas (posible N+1)");
+    }
+
+    private static PageableDto page() {
+        return new PageableDto(0, PAGE_SIZE, new String[] { "id" });
+    }
+
+    private void seed() {
+        UserEntity owner = new UserEntity("Owner", "owner@example.com", "hash");
+        owner.getRoles().add(roleRepository.findByName(RoleName.ROLE_USER).orElseThrow());
+        owner = userRepository.save(owner);
+
+        CategoryEntity first = category(categoryRepository, "Categoría A");
+        CategoryEntity second = category(categoryRepository, "Categoría B");
+
+        for (int i = 1; i <= PRODUCTS; i++) {
+            ProductEntity product = new ProductEntity();
+            product.setName("Producto " + i);
+            product.setPrice(10.0 * i);
+            product.setOwner(owner);
+            product.setCategories(Set.of(first, second));
+            productRepository.save(product);
+        }
+    }
+
+    /**
+     * Guarda el SQL que Hibernate prepara (para ver QUÉ columnas se escriben)
+     */
+    public static class SqlRecorder implements StatementInspector {
+
+        static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+        public SqlRecorder() {
+        }
+
+        @Override
+        public String inspect(String sql) {
+            STATEMENTS.add(sql);
+            return sql;
+        }
+    }
+}
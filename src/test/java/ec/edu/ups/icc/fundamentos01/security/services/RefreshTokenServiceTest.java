@@ -0,0 +1,71 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.exceptions.domain.UnauthorizedException;
+import ec.edu.ups.icc.fundamentos01.security.repository.RefreshTokenRepository;
+import ec.edu.ups.icc.fundamentos01.security.utils.TokenHasher;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+
+/**
+ * Rotación de refresh tokens con lecturas concurrentes
+ *
+ * Dos requests con el mismo token pueden leerlo activo a la vez. Se simula
+ * rotando dos veces dentro de UNA transacción: la segunda lectura devuelve la
+ * entidad del contexto de persistencia (revoked = false, ya desactualizada),
+ * igual que el request que perdió la carrera.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class RefreshTokenServiceTest {
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void staleReadOfAnAlreadyRotatedTokenRevokesTheWholeFamily() {
+        UserEntity user = userRepository.save(
+                new UserEntity("Rotador", "rotate@example.com", "hash"));
+        String original = refreshTokenService.issue(user);
+
+        String winner = transactionTemplate.execute(status -> {
+            String next = refreshTokenService.rotate(original).getRefreshToken();
+            assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(original));
+            return next;
+        });
+
+        // El token emitido al ganador pertenece a la familia revocada
+        assertTrue(refreshTokenRepository.findByTokenHash(TokenHasher.sha256(winner))
+                .orElseThrow().isRevoked());
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(winner));
+    }
+
+    @Test
+    void rotatedTokenCannotBeUsedTwice() {
+        UserEntity user = userRepository.save(
+                new UserEntity("Reutilizador", "reuse@example.com", "hash"));
+        String original = refreshTokenService.issue(user);
+
+        String next = refreshTokenService.rotate(original).getRefreshToken();
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(original));
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate(next));
+    }
+}
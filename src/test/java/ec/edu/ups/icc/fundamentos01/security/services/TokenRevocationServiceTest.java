@@ -0,0 +1,76 @@
+package ec.edu.ups.icc.fundamentos01.security.services;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.security.repository.RevokedTokenRepository;
+
+/**
+ * Sincronización incremental del Bloom filter con la ventana solapada
+ *
+ * Las revocaciones de "otro nodo" se insertan directo en la tabla con un
+ * created_at anterior a la última sincronización (transacción que confirmó
+ * tarde). Un jti ausente del filtro se responde como NO revocado sin
+ * consultar la BD: así se ve qué entró al filtro.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TokenRevocationServiceTest {
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void syncPicksUpLateCommitsInsideTheOverlapOnly() {
+        tokenRevocationService.rebuild();
+
+        // revocation-sync-overlap = 1 minuto
+        String insideOverlap = insertFromOtherNode(30);
+        String beforeOverlap = insertFromOtherNode(120);
+
+        tokenRevocationService.sync();
+
+        assertTrue(tokenRevocationService.isRevoked(insideOverlap));
+        assertFalse(tokenRevocationService.isRevoked(beforeOverlap));
+
+        // La reconstrucción completa lee todas las vigentes
+        tokenRevocationService.rebuild();
+        assertTrue(tokenRevocationService.isRevoked(beforeOverlap));
+    }
+
+    @Test
+    void localRevocationIsVisibleImmediately() {
+        tokenRevocationService.rebuild();
+        String jti = UUID.randomUUID().toString();
+
+        tokenRevocationService.revoke(jti, Instant.now().plus(1, ChronoUnit.HOURS));
+
+        assertTrue(tokenRevocationService.isRevoked(jti));
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString()));
+    }
+
+    private String insertFromOtherNode(long secondsAgo) {
+        String jti = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> revokedTokenRepository.insertIfAbsent(
+                jti, now.plusHours(1), now.minusSeconds(secondsAgo)));
+        return jti;
+    }
+}
@@ -0,0 +1,77 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Sin falsos negativos (también con inserciones concurrentes) y tasa de
+ * falsos positivos cercana a la configurada
+ */
+class BloomFilterTest {
+
+    private static final int VALUES = 10_000;
+
+    @Test
+    void everyInsertedValueIsFound() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.put("jti-" + i);
+        }
+
+        for (int i = 0; i < VALUES; i++) {
+            assertTrue(filter.mightContain("jti-" + i), "falso negativo: jti-" + i);
+        }
+    }
+
+    @Test
+    void concurrentPutsLoseNoBits() throws Exception {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = thread; i < VALUES; i += threads) {
+                        filter.put("jti-" + i);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Varios hilos encienden bits de la misma palabra: el CAS no pierde ninguno
+        for (int i = 0; i < VALUES; i++) {
+            assertTrue(filter.mightContain("jti-" + i), "falso negativo: jti-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.put("jti-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < VALUES; i++) {
+            if (filter.mightContain("otro-" + i)) {
+                falsePositives++;
+            }
+        }
+        // 1% esperado; margen amplio para no depender de la distribución exacta
+        assertTrue(falsePositives < VALUES * 0.02, "falsos positivos: " + falsePositives);
+    }
+}
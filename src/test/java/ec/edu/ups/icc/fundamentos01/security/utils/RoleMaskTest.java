@@ -0,0 +1,104 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+import ec.edu.ups.icc.fundamentos01.security.services.RoleEvaluator;
+import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Bits de RoleName y el claim anterior "roles" ("ROLE_USER,ROLE_ADMIN")
+ *
+ * Los bits viajan en tokens ya emitidos: cambiar uno es incompatible.
+ */
+class RoleMaskTest {
+
+    private final RoleEvaluator roleEvaluator = new RoleEvaluator();
+
+    @Test
+    void eachRoleHasItsOwnFixedBit() {
+        assertEquals(0b001, RoleName.ROLE_USER.mask());
+        assertEquals(0b010, RoleName.ROLE_ADMIN.mask());
+        assertEquals(0b100, RoleName.ROLE_MODERATOR.mask());
+
+        long all = 0L;
+        for (RoleName role : RoleName.values()) {
+            assertEquals(0L, all & role.mask(), "bit repetido: " + role);
+            all |= role.mask();
+        }
+        assertEquals(3L, RoleMask.of(RoleName.ROLE_USER, RoleName.ROLE_ADMIN));
+    }
+
+    @Test
+    void namesResolveWithAndWithoutPrefix() {
+        assertEquals(RoleName.ROLE_ADMIN.mask(), RoleMask.ofName("ADMIN"));
+        assertEquals(RoleName.ROLE_ADMIN.mask(), RoleMask.ofName("ROLE_ADMIN"));
+        assertEquals(0L, RoleMask.ofName("ROLE_DESCONOCIDO"));
+    }
+
+    @Test
+    void authoritiesAreSharedPerMaskAndIgnoreUnknownBits() {
+        assertEquals(List.of(new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_ADMIN")),
+                RoleMask.authorities(3L));
+        assertEquals(RoleMask.authorities(3L), RoleMask.authorities(3L | (1L << 40)));
+        assertEquals(3L, RoleMask.fromAuthorities(RoleMask.authorities(3L)));
+    }
+
+    @Test
+    void legacyRolesCsvBecomesAMask() {
+        assertEquals(3L, RoleMask.fromAuthorityNames("ROLE_USER,ROLE_ADMIN"));
+        assertEquals(RoleName.ROLE_MODERATOR.mask(), RoleMask.fromAuthorityNames("ROLE_MODERATOR,ROLE_DESCONOCIDO"));
+        assertEquals(0L, RoleMask.fromAuthorityNames(""));
+        assertEquals(0L, RoleMask.fromAuthorityNames(null));
+    }
+
+    @Test
+    void roleEvaluatorUsesTheMaskOfALegacyToken() {
+        // Token anterior: "roles" en CSV, sin "rm"
+        Claims legacy = Jwts.claims()
+                .subject("7")
+                .add("email", "legacy@example.com")
+                .add("roles", "ROLE_USER,ROLE_ADMIN")
+                .build();
+        Authentication authentication = authenticated(UserDetailsImpl.fromJwt(VerifiedJwt.fromClaims(legacy)));
+
+        assertTrue(roleEvaluator.hasRole(authentication, "ADMIN"));
+        assertTrue(roleEvaluator.hasRole(authentication, "ROLE_USER"));
+        assertFalse(roleEvaluator.hasRole(authentication, "MODERATOR"));
+        assertTrue(roleEvaluator.hasAnyRole(authentication, "MODERATOR", "ADMIN"));
+
+        // "rm" tiene prioridad sobre "roles"
+        Claims both = Jwts.claims()
+                .subject("7")
+                .add("rm", RoleName.ROLE_MODERATOR.mask())
+                .add("roles", "ROLE_ADMIN")
+                .build();
+        assertEquals(RoleName.ROLE_MODERATOR.mask(), VerifiedJwt.fromClaims(both).getRoleMask());
+    }
+
+    @Test
+    void roleEvaluatorFallsBackToAuthoritiesForOtherPrincipals() {
+        Authentication authentication = UsernamePasswordAuthenticationToken.authenticated(
+                "externo", null, List.of(new SimpleGrantedAuthority("ROLE_MODERATOR")));
+
+        assertTrue(roleEvaluator.hasRole(authentication, "MODERATOR"));
+        assertFalse(roleEvaluator.hasRole(authentication, "ADMIN"));
+        assertFalse(roleEvaluator.hasRole(authentication, "DESCONOCIDO"));
+        assertFalse(roleEvaluator.hasRole(null, "MODERATOR"));
+    }
+
+    private static Authentication authenticated(UserDetailsImpl user) {
+        return UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+    }
+}
@@ -0,0 +1,75 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.http.HttpMethod;
+
+import ec.edu.ups.icc.fundamentos01.security.config.PublicRoutes;
+
+/**
+ * Tabla de rutas: PublicRoutes.POLICY y los patrones "*" / "**"
+ *
+ * Igual que authorizeHttpRequests, gana la regla de MENOR índice que coincide.
+ */
+class RoutePolicyTest {
+
+    @ParameterizedTest(name = "{0} {1} → público: {2}")
+    @CsvSource({
+            // Regla 0 (POST) antes que "/auth/**"
+            "POST,   /auth/logout,     false",
+            "GET,    /auth/logout,     true",
+            "POST,   /auth/login,      true",
+            "POST,   /auth/refresh,    true",
+            // "**" incluye la ruta sola
+            "POST,   /auth,            true",
+            "GET,    /status/health,   true",
+            "GET,    /actuator,        true",
+            "GET,    /actuator/metrics/jvm.memory.used, true",
+            // Usuarios: solo GET
+            "GET,    /api/users,       true",
+            "GET,    /api/users/5,     true",
+            "POST,   /api/users,       false",
+            "DELETE, /api/users/5,     false",
+            // Sin regla → autenticación
+            "GET,    /api/products,    false",
+            "GET,    /authx,           false",
+            "GET,    /,                false",
+            // Barras repetidas
+            "POST,   //auth//login,    true"
+    })
+    void publicRoutesPolicy(String method, String path, boolean expected) {
+        assertEquals(expected, PublicRoutes.POLICY.isPublic(method, path));
+    }
+
+    @ParameterizedTest(name = "{0} {1} → público: {2}")
+    @CsvSource({
+            "GET,  /api/x/secret,    false", // regla 0 gana a "/api/**"
+            "GET,  /api/x/public,    true",
+            "POST, /api/x/public,    true",  // regla 1 sin método
+            "POST, /api/x/secret,    false", // ninguna coincide
+            "GET,  /api/x/y/secret,  true",  // "*" es UN segmento: solo "/api/**"
+            "GET,  /api/secret,      true",
+            "GET,  /docs/private,    true"   // "/docs/**" declarada antes que "/docs/private"
+    })
+    void wildcardsAndLowestRuleIndexWins(String method, String path, boolean expected) {
+        RoutePolicy policy = RoutePolicy.builder()
+                .authenticated(HttpMethod.GET, "/api/*/secret")
+                .permitAll("/api/*/public")
+                .permitAll(HttpMethod.GET, "/api/**")
+                .permitAll(HttpMethod.GET, "/docs/**")
+                .authenticated(HttpMethod.GET, "/docs/private")
+                .build();
+
+        assertEquals(expected, policy.isPublic(method, path));
+    }
+
+    @Test
+    void rulesKeepDeclarationOrder() {
+        assertEquals("/auth/logout", PublicRoutes.POLICY.rules().get(0).pattern());
+        assertEquals(RoutePolicy.Access.AUTHENTICATED, PublicRoutes.POLICY.rules().get(0).access());
+        assertEquals("/auth/**", PublicRoutes.POLICY.rules().get(1).pattern());
+    }
+}
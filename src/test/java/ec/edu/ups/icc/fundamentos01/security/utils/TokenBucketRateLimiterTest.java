@@ -0,0 +1,132 @@
+package ec.edu.ups.icc.fundamentos01.security.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * GCRA con reloj manual: ráfaga, recarga, rechazo y claves acotadas
+ *
+ * Bucket de 3 tokens que recupera 1 por segundo (ráfaga completa = 3 s).
+ */
+class TokenBucketRateLimiterTest {
+
+    private static final Duration REFILL = Duration.ofSeconds(1);
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    private TokenBucketRateLimiter limiter(long maximumKeys) {
+        return new TokenBucketRateLimiter(3, REFILL, maximumKeys, now::get);
+    }
+
+    @Test
+    void burstUpToCapacityThenRejects() {
+        TokenBucketRateLimiter limiter = limiter(100);
+
+        assertFalse(limiter.isLimited("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.isLimited("a"));
+        assertFalse(limiter.tryAcquire("a"));
+
+        // Otra clave tiene su propio bucket
+        assertTrue(limiter.tryAcquire("b"));
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("a");
+        }
+
+        advance(REFILL.toNanos() - 1);
+        assertFalse(limiter.tryAcquire("a"));
+
+        advance(1);
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+
+        // Inactiva más que la ráfaga completa: no acumula más de capacity
+        advance(REFILL.toNanos() * 10);
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertFalse(limiter.tryAcquire("a"));
+    }
+
+    @Test
+    void isLimitedDoesNotConsume() {
+        TokenBucketRateLimiter limiter = limiter(100);
+        limiter.tryAcquire("a");
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(limiter.isLimited("a"));
+        }
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.tryAcquire("a"));
+        assertTrue(limiter.isLimited("a"));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        TokenBucketRateLimiter limiter = limiter(100);
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger granted = new AtomicInteger();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 100; i++) {
+                        if (limiter.tryAcquire("shared")) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Reloj detenido: exactamente la ráfaga, ni un token de más por el CAS
+        assertEquals(3, granted.get());
+    }
+
+    @Test
+    void keysAreBoundedBySizeAndExpireOnceTheBucketWouldBeFull() {
+        TokenBucketRateLimiter limiter = limiter(2);
+        for (int i = 0; i < 50; i++) {
+            limiter.tryAcquire("key-" + i);
+        }
+        assertTrue(limiter.trackedKeys() <= 2);
+
+        // Sin accesos durante la ráfaga completa: la clave equivale a un bucket lleno
+        advance(REFILL.toNanos() * 3 + 1);
+        assertEquals(0, limiter.trackedKeys());
+    }
+
+    private void advance(long nanos) {
+        now.addAndGet(nanos);
+    }
+}
@@ -0,0 +1,182 @@
+package ec.edu.ups.icc.fundamentos01.shared.http;
+
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.category;
+import static ec.edu.ups.icc.fundamentos01.support.TestFixtures.item;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.categories.service.CategoryRegistry;
+import ec.edu.ups.icc.fundamentos01.products.services.ProductService;
+import ec.edu.ups.icc.fundamentos01.security.models.RoleName;
+import ec.edu.ups.icc.fundamentos01.security.services.UserDetailsImpl;
+import ec.edu.ups.icc.fundamentos01.security.utils.RoleMask;
+import ec.edu.ups.icc.fundamentos01.users.models.UserEntity;
+import ec.edu.ups.icc.fundamentos01.users.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * ETags de ProductController y UsersController de punta a punta (MockMvc)
+ *
+ * - If-None-Match vigente → 304 sin cargar el producto
+ * - If-Match con otra versión → 412
+ * - El ETag del producto cambia si cambia su dueño o una categoría
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ConditionalRequestsTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private CategoryRegistry categoryRegistry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long ownerId;
+    private Long categoryId;
+    private Long productId;
+
+    @BeforeEach
+    void setUp() {
+        String tag = "etag" + SEQUENCE.incrementAndGet();
+        ownerId = userRepository.save(new UserEntity("Dueño " + tag, tag + "@example.com", "hash")).getId();
+        categoryId = category(categoryRepository, tag + " categoría").getId();
+        categoryRegistry.reload(); // categoría sembrada después del arranque
+        productId = productService.createBulk(List.of(item(tag + " producto", 10.0, ownerId, categoryId)))
+                .results.get(0).id;
+    }
+
+    @Test
+    void matchingIfNoneMatchAnswers304WithoutLoadingTheProduct() throws Exception {
+        String eTag = productETag();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            mockMvc.perform(get("/api/products/{id}", productId)
+                            .with(user(owner()))
+                            .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+            assertEquals(0, statistics.getEntityLoadCount(), "El 304 no debe hidratar el producto");
+            assertEquals(1, statistics.getPrepareStatementCount(), "Solo la consulta de versiones");
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+
+        // ETag viejo → respuesta completa
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(user(owner()))
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + productId + "-999\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+    }
+
+    @Test
+    void mismatchedIfMatchAnswers412() throws Exception {
+        String body = "{\"name\":\"Sin escribir\",\"price\":20.0,\"categoryIds\":[" + categoryId + "]}";
+
+        mockMvc.perform(put("/api/products/{id}", productId)
+                        .with(user(owner()))
+                        .header(HttpHeaders.IF_MATCH, "\"" + productId + "-999\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed());
+
+        // ETag de otro recurso
+        mockMvc.perform(put("/api/products/{id}", productId)
+                        .with(user(owner()))
+                        .header(HttpHeaders.IF_MATCH, "\"" + (productId + 1) + "-0\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isPreconditionFailed());
+
+        String userETag = mockMvc.perform(get("/api/users/{id}", ownerId))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/api/users/{id}", ownerId).header(HttpHeaders.IF_NONE_MATCH, userETag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(patch("/api/users/{id}", ownerId)
+                        .with(user(owner()))
+                        .header(HttpHeaders.IF_MATCH, "\"" + ownerId + "-999\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Sin escribir\"}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void productETagChangesWithItsOwnerAndCategories() throws Exception {
+        String original = productETag();
+
+        transactionTemplate.executeWithoutResult(status ->
+                userRepository.findById(ownerId).orElseThrow().setName("Dueño renombrado"));
+        String afterOwner = productETag();
+        assertNotEquals(original, afterOwner, "El producto muestra el nombre del dueño");
+
+        transactionTemplate.executeWithoutResult(status ->
+                categoryRepository.findById(categoryId).orElseThrow().setName("Categoría renombrada " + categoryId));
+        categoryRegistry.reload();
+        String afterCategory = productETag();
+        assertNotEquals(afterOwner, afterCategory, "El producto muestra el nombre de la categoría");
+
+        // Un ETag anterior ya no produce 304
+        mockMvc.perform(get("/api/products/{id}", productId)
+                        .with(user(owner()))
+                        .header(HttpHeaders.IF_NONE_MATCH, original))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, afterCategory));
+    }
+
+    private String productETag() throws Exception {
+        return mockMvc.perform(get("/api/products/{id}", productId).with(user(owner())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private UserDetailsImpl owner() {
+        return new UserDetailsImpl(ownerId, "Dueño", "owner@example.com", null,
+                RoleMask.authorities(RoleMask.of(RoleName.ROLE_USER)));
+    }
+}
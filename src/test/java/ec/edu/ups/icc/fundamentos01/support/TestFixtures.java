@@ -0,0 +1,43 @@
+package ec.edu.ups.icc.fundamentos01.support;
+
+import java.util.Set;
+
+import ec.edu.ups.icc.fundamentos01.categories.entity.CategoryEntity;
+import ec.edu.ups.icc.fundamentos01.categories.reporitory.CategoryRepository;
+import ec.edu.ups.icc.fundamentos01.products.dtos.CreateProductDto;
+
+/**
+ * Datos de prueba compartidos por los tests de productos
+ *
+ * Las clases con la misma configuración comparten contexto y BD (perfil
+ * "test"): las categorías se buscan por nombre antes de crearlas.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    /**
+     * La categoría con ese nombre, o una nueva si no existe
+     */
+    public static CategoryEntity category(CategoryRepository categoryRepository, String name) {
+        return categoryRepository.findByNameIgnoreCase(name)
+                .orElseGet(() -> {
+                    CategoryEntity category = new CategoryEntity();
+                    category.setName(name);
+                    return categoryRepository.save(category);
+                });
+    }
+
+    /**
+     * Elemento de createBulk
+     */
+    public static CreateProductDto item(String name, double price, Long userId, Long... categoryIds) {
+        CreateProductDto item = new CreateProductDto();
+        item.name = name;
+        item.price = price;
+        item.userId = userId;
+        item.categoryIds = Set.of(categoryIds);
+        return item;
+    }
+}